@@ -15,10 +15,16 @@
  */
 package org.springframework.classify;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
 
 /**
  * A {@link Classifier} for exceptions that has only two classes (true and false).
@@ -34,8 +40,36 @@ import java.util.Map;
 @SuppressWarnings("serial")
 public class BinaryExceptionClassifier extends SubclassClassifier<Throwable, Boolean> {
 
+	/**
+	 * Default maximum number of links of a cause chain that are inspected when chain
+	 * classifications are memoized.
+	 */
+	public static final int DEFAULT_MAX_CAUSE_DEPTH = 16;
+
+	/**
+	 * Default maximum number of distinct cause chain shapes that are memoized.
+	 */
+	public static final int DEFAULT_MAX_CAUSE_CHAINS = 256;
+
 	private boolean traverseCauses;
 
+	private boolean memoizeCauseChains;
+
+	private int maxCauseDepth = DEFAULT_MAX_CAUSE_DEPTH;
+
+	private int maxCauseChains = DEFAULT_MAX_CAUSE_CHAINS;
+
+	private static final ThreadLocal<ChainProbe> probes = new ThreadLocal<ChainProbe>() {
+
+		@Override
+		protected ChainProbe initialValue() {
+			return new ChainProbe();
+		}
+
+	};
+
+	private final ConcurrentMap<CauseChain, Boolean> causeChains = new ConcurrentHashMap<CauseChain, Boolean>();
+
 	public static BinaryExceptionClassifierBuilder builder() {
 		return new BinaryExceptionClassifierBuilder();
 	}
@@ -121,8 +155,59 @@ public class BinaryExceptionClassifier extends SubclassClassifier<Throwable, Boo
 		this.traverseCauses = traverseCauses;
 	}
 
+	/**
+	 * Memoize the classification of each distinct cause chain "shape" (the sequence of
+	 * exception classes from the top level throwable down to its root cause), so that
+	 * repeated occurrences of deep wrapper chains are classified with a single lookup.
+	 * Only takes effect when causes are traversed. Chains are followed up to
+	 * {@link #setMaxCauseDepth(int) maxCauseDepth} links and cycles in the cause chain
+	 * terminate the traversal. Default false.
+	 * @param memoizeCauseChains true to memoize chain classifications
+	 */
+	public void setMemoizeCauseChains(boolean memoizeCauseChains) {
+		this.memoizeCauseChains = memoizeCauseChains;
+		this.causeChains.clear();
+	}
+
+	/**
+	 * The maximum number of links of a cause chain (including the top level throwable)
+	 * that are inspected when chain classifications are memoized. Deeper causes are
+	 * ignored. Default {@value #DEFAULT_MAX_CAUSE_DEPTH}.
+	 * @param maxCauseDepth the maximum depth (must be positive)
+	 */
+	public void setMaxCauseDepth(int maxCauseDepth) {
+		Assert.isTrue(maxCauseDepth > 0, "maxCauseDepth must be positive");
+		this.maxCauseDepth = maxCauseDepth;
+		this.causeChains.clear();
+	}
+
+	/**
+	 * The maximum number of distinct chain shapes to memoize. Once reached, chains that
+	 * have not been seen before are still classified correctly, just not remembered.
+	 * Default {@value #DEFAULT_MAX_CAUSE_CHAINS}.
+	 * @param maxCauseChains the maximum number of memoized chains
+	 */
+	public void setMaxCauseChains(int maxCauseChains) {
+		this.maxCauseChains = maxCauseChains;
+	}
+
+	@Override
+	public void setTypeMap(Map<Class<? extends Throwable>, Boolean> map) {
+		super.setTypeMap(map);
+		this.causeChains.clear();
+	}
+
+	@Override
+	public void setDefaultValue(Boolean defaultValue) {
+		super.setDefaultValue(defaultValue);
+		this.causeChains.clear();
+	}
+
 	@Override
 	public Boolean classify(Throwable classifiable) {
+		if (this.traverseCauses && this.memoizeCauseChains && classifiable != null) {
+			return classifyChain(classifiable);
+		}
 		Boolean classified = super.classify(classifiable);
 		if (!this.traverseCauses) {
 			return classified;
@@ -147,4 +232,162 @@ public class BinaryExceptionClassifier extends SubclassClassifier<Throwable, Boo
 		return classified;
 	}
 
+	private Boolean classifyChain(Throwable classifiable) {
+		int length = chainLength(classifiable);
+		int hash = 1;
+		Throwable cause = classifiable;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + cause.getClass().hashCode();
+			cause = cause.getCause();
+		}
+		ChainProbe probe = probes.get();
+		probe.reset(classifiable, length, hash);
+		Boolean classified;
+		try {
+			classified = this.causeChains.get(probe);
+		}
+		finally {
+			// do not keep the throwable reachable from the thread
+			probe.reset(null, 0, 0);
+		}
+		if (classified == null) {
+			classified = traverse(classifiable, length);
+			if (this.causeChains.size() < this.maxCauseChains) {
+				this.causeChains.put(CauseChain.of(classifiable, length, hash),
+						classified);
+			}
+		}
+		return classified;
+	}
+
+	/**
+	 * The number of links of the chain to inspect: up to the end of the chain or
+	 * {@link #setMaxCauseDepth(int) maxCauseDepth}, stopping early if the chain loops back
+	 * on itself. Loops are detected as in Floyd's algorithm, with a second reference that
+	 * follows at half speed, so nothing needs to be allocated.
+	 */
+	private int chainLength(Throwable throwable) {
+		int length = 0;
+		Throwable slow = throwable;
+		for (Throwable cause = throwable; cause != null
+				&& length < this.maxCauseDepth; cause = cause.getCause()) {
+			length++;
+			if ((length & 1) == 0) {
+				slow = slow.getCause();
+			}
+			if (cause.getCause() == slow) {
+				break; // the next link has been seen already
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Same traversal as the non-memoized case, but over the first {@code length} links
+	 * of the chain.
+	 */
+	private Boolean traverse(Throwable classifiable, int length) {
+		Boolean classified = super.classify(classifiable);
+		Throwable cause = classifiable;
+		for (int i = 0; i < length && classified.equals(this.getDefault()); i++) {
+			if (this.getClassified().containsKey(cause.getClass())) {
+				return classified; // non-default classification
+			}
+			cause = cause.getCause();
+			classified = super.classify(i + 1 < length ? cause : null);
+		}
+		return classified;
+	}
+
+	/**
+	 * The sequence of exception classes in a cause chain, used as a memoization key.
+	 */
+	private static final class CauseChain implements Serializable {
+
+		private final Class<?>[] types;
+
+		private final int hash;
+
+		private CauseChain(Class<?>[] types, int hash) {
+			this.types = types;
+			this.hash = hash;
+		}
+
+		private static CauseChain of(Throwable throwable, int length, int hash) {
+			Class<?>[] types = new Class<?>[length];
+			Throwable cause = throwable;
+			for (int i = 0; i < types.length; i++) {
+				types[i] = cause.getClass();
+				cause = cause.getCause();
+			}
+			return new CauseChain(types, hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj instanceof ChainProbe) {
+				return obj.equals(this);
+			}
+			if (!(obj instanceof CauseChain)) {
+				return false;
+			}
+			CauseChain other = (CauseChain) obj;
+			return this.hash == other.hash && Arrays.equals(this.types, other.types);
+		}
+
+	}
+
+	/**
+	 * A lookup key for the memoized chains that reads the classes straight from the
+	 * throwable, instead of copying them into a {@link CauseChain}. One instance per
+	 * thread is reused for every lookup.
+	 */
+	private static final class ChainProbe {
+
+		private Throwable throwable;
+
+		private int length;
+
+		private int hash;
+
+		private void reset(Throwable throwable, int length, int hash) {
+			this.throwable = throwable;
+			this.length = length;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof CauseChain)) {
+				return false;
+			}
+			CauseChain other = (CauseChain) obj;
+			if (this.hash != other.hash || this.length != other.types.length) {
+				return false;
+			}
+			Throwable cause = this.throwable;
+			for (int i = 0; i < this.length; i++) {
+				if (cause.getClass() != other.types[i]) {
+					return false;
+				}
+				cause = cause.getCause();
+			}
+			return true;
+		}
+
+	}
+
 }
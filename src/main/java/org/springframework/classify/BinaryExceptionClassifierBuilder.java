@@ -52,6 +52,8 @@ public class BinaryExceptionClassifierBuilder {
 
 	private boolean traverseCauses = false;
 
+	private boolean memoizeCauseChains = false;
+
 	private List<Class<? extends Throwable>> exceptionClasses = new ArrayList<Class<? extends Throwable>>();
 
 	public BinaryExceptionClassifierBuilder retryOn(
@@ -80,6 +82,17 @@ public class BinaryExceptionClassifierBuilder {
 		return this;
 	}
 
+	/**
+	 * Traverse causes and memoize the classification of each distinct cause chain.
+	 * @return this
+	 * @see BinaryExceptionClassifier#setMemoizeCauseChains(boolean)
+	 */
+	public BinaryExceptionClassifierBuilder memoizingCauseChains() {
+		this.traverseCauses = true;
+		this.memoizeCauseChains = true;
+		return this;
+	}
+
 	public BinaryExceptionClassifier build() {
 		Assert.isTrue(!exceptionClasses.isEmpty(),
 				"Attempt to build classifier with empty rules. To build always true, or always false "
@@ -90,6 +103,7 @@ public class BinaryExceptionClassifierBuilder {
 												// retryable)
 		);
 		classifier.setTraverseCauses(traverseCauses);
+		classifier.setMemoizeCauseChains(memoizeCauseChains);
 		return classifier;
 	}
 
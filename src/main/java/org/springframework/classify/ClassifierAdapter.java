@@ -15,6 +15,7 @@
  */
 package org.springframework.classify;
 
+import org.springframework.classify.util.FastMethodInvoker;
 import org.springframework.classify.util.MethodInvoker;
 import org.springframework.classify.util.MethodInvokerUtils;
 import org.springframework.util.Assert;
@@ -70,7 +71,8 @@ public class ClassifierAdapter<C, T> implements Classifier<C, T> {
 	 * is not found a unique non-void method with a single parameter will be used, if it
 	 * exists. The signature of the method cannot be checked here, so might be a runtime
 	 * exception when the method is invoked if the signature doesn't match the classifier
-	 * types.
+	 * types. Public methods are called through a generated {@link FastMethodInvoker}
+	 * where possible, otherwise reflectively.
 	 * @param delegate an object with an annotated method
 	 */
 	public final void setDelegate(Object delegate) {
@@ -85,6 +87,7 @@ public class ClassifierAdapter<C, T> implements Classifier<C, T> {
 				"No single argument public method with or without "
 						+ "@Classifier was found in delegate of type "
 						+ delegate.getClass());
+		this.invoker = FastMethodInvoker.create(this.invoker);
 	}
 
 	/**
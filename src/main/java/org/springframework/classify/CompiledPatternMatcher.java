@@ -0,0 +1,322 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.classify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PatternMatcher} that compiles all its patterns into a single trie and matches
+ * an input in one pass over its characters, instead of trying each pattern in turn. The
+ * trie is treated as a non-deterministic automaton ('*' nodes loop on any character, '?'
+ * edges accept any character) which is converted lazily into a deterministic one as
+ * inputs are seen, so that repeated shapes of input are matched with a single array
+ * lookup per character. When more than one pattern matches, the most specific one wins,
+ * exactly as in {@link PatternMatcher#match(String)}.
+ * <p>
+ * Optionally the matcher also remembers the value for a bounded number of inputs, which
+ * pays off when the same keys (e.g. error codes) are matched over and over again.
+ *
+ * @param <S> the type of the thing to match a pattern on
+ * @since 1.3
+ */
+public class CompiledPatternMatcher<S> extends PatternMatcher<S> {
+
+	/**
+	 * Default maximum number of deterministic states that are built.
+	 */
+	public static final int DEFAULT_MAX_STATES = 1024;
+
+	private static final int ASCII = 128;
+
+	private static final int NO_MATCH = Integer.MAX_VALUE;
+
+	private final List<Node> nodes = new ArrayList<Node>();
+
+	private final List<S> values;
+
+	private final ConcurrentMap<StateKey, State> states = new ConcurrentHashMap<StateKey, State>();
+
+	private final int maxStates;
+
+	private final ConcurrentMap<String, S> results = new ConcurrentHashMap<String, S>();
+
+	private final int maxResults;
+
+	private final State start;
+
+	/**
+	 * Create a matcher without a result cache.
+	 * @param map a map from String patterns to values
+	 */
+	public CompiledPatternMatcher(Map<String, S> map) {
+		this(map, 0);
+	}
+
+	/**
+	 * Create a matcher that caches up to the given number of results.
+	 * @param map a map from String patterns to values
+	 * @param maxResults the maximum number of inputs whose value is remembered (0 to
+	 * disable)
+	 */
+	public CompiledPatternMatcher(Map<String, S> map, int maxResults) {
+		this(map, maxResults, DEFAULT_MAX_STATES);
+	}
+
+	/**
+	 * Create a matcher that caches up to the given number of results and builds up to
+	 * the given number of deterministic states. Once the state limit is reached,
+	 * transitions to new states are computed on each match instead of being remembered.
+	 * @param map a map from String patterns to values
+	 * @param maxResults the maximum number of inputs whose value is remembered (0 to
+	 * disable)
+	 * @param maxStates the maximum number of deterministic states
+	 */
+	public CompiledPatternMatcher(Map<String, S> map, int maxResults, int maxStates) {
+		super(map);
+		Assert.isTrue(maxResults >= 0, "maxResults must not be negative");
+		Assert.isTrue(maxStates > 0, "maxStates must be positive");
+		this.maxResults = maxResults;
+		this.maxStates = maxStates;
+		List<String> patterns = getSortedPatterns();
+		this.values = new ArrayList<S>(patterns.size());
+		Node root = newNode(false);
+		for (int rank = 0; rank < patterns.size(); rank++) {
+			String pattern = patterns.get(rank);
+			this.values.add(getValue(pattern));
+			Node node = root;
+			for (int i = 0; i < pattern.length(); i++) {
+				node = node.child(pattern.charAt(i));
+			}
+			node.rank = Math.min(node.rank, rank);
+		}
+		BitSet initial = new BitSet();
+		initial.set(root.id);
+		this.start = state(closure(initial));
+	}
+
+	@Override
+	public S match(String line) {
+		Assert.notNull(line, "A non-null key must be provided to match against.");
+		S value = this.maxResults > 0 ? this.results.get(line) : null;
+		if (value != null) {
+			return value;
+		}
+		State state = this.start;
+		for (int i = 0; i < line.length() && !state.isDead(); i++) {
+			state = state.next(line.charAt(i));
+		}
+		if (state.rank != NO_MATCH) {
+			value = this.values.get(state.rank);
+		}
+		if (value == null) {
+			throw new IllegalStateException(
+					"Could not find a matching pattern for key=[" + line + "]");
+		}
+		if (this.maxResults > 0 && this.results.size() < this.maxResults) {
+			this.results.put(line, value);
+		}
+		return value;
+	}
+
+	private Node newNode(boolean star) {
+		Node node = new Node(this.nodes.size(), star);
+		this.nodes.add(node);
+		return node;
+	}
+
+	/**
+	 * Add the nodes reachable without consuming a character, i.e. through '*' edges that
+	 * match the empty string.
+	 */
+	private BitSet closure(BitSet set) {
+		for (int id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1)) {
+			Node star = this.nodes.get(id).star;
+			if (star != null) {
+				set.set(star.id);
+			}
+		}
+		return set;
+	}
+
+	private BitSet move(int[] ids, char ch) {
+		BitSet next = new BitSet();
+		for (int id : ids) {
+			Node node = this.nodes.get(id);
+			if (node.isStar) {
+				next.set(id);
+			}
+			Node child = node.children.get(ch);
+			if (child != null) {
+				next.set(child.id);
+			}
+			if (node.any != null) {
+				next.set(node.any.id);
+			}
+		}
+		return closure(next);
+	}
+
+	private State state(BitSet set) {
+		int[] ids = new int[set.cardinality()];
+		int rank = NO_MATCH;
+		int i = 0;
+		for (int id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1)) {
+			ids[i++] = id;
+			rank = Math.min(rank, this.nodes.get(id).rank);
+		}
+		StateKey key = new StateKey(ids);
+		State state = this.states.get(key);
+		if (state == null) {
+			if (this.states.size() < this.maxStates) {
+				state = new State(ids, rank, true);
+				State existing = this.states.putIfAbsent(key, state);
+				if (existing != null) {
+					state = existing;
+				}
+			}
+			else {
+				state = new State(ids, rank, false);
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * A node in the pattern trie.
+	 */
+	private final class Node {
+
+		private final int id;
+
+		private final boolean isStar;
+
+		private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+		private Node any;
+
+		private Node star;
+
+		private int rank = NO_MATCH;
+
+		private Node(int id, boolean isStar) {
+			this.id = id;
+			this.isStar = isStar;
+		}
+
+		private Node child(char ch) {
+			if (ch == '*') {
+				if (this.star == null) {
+					this.star = newNode(true);
+				}
+				return this.star;
+			}
+			if (ch == '?') {
+				if (this.any == null) {
+					this.any = newNode(false);
+				}
+				return this.any;
+			}
+			Node child = this.children.get(ch);
+			if (child == null) {
+				child = newNode(false);
+				this.children.put(ch, child);
+			}
+			return child;
+		}
+
+	}
+
+	/**
+	 * A state of the deterministic automaton: a set of trie nodes, the best (lowest)
+	 * rank of a pattern accepted in this state and the transitions computed so far.
+	 */
+	private final class State {
+
+		private final int[] ids;
+
+		private final int rank;
+
+		private final boolean registered;
+
+		private final AtomicReferenceArray<State> ascii = new AtomicReferenceArray<State>(
+				ASCII);
+
+		private final ConcurrentMap<Character, State> other = new ConcurrentHashMap<Character, State>();
+
+		private State(int[] ids, int rank, boolean registered) {
+			this.ids = ids;
+			this.rank = rank;
+			this.registered = registered;
+		}
+
+		private boolean isDead() {
+			return this.ids.length == 0;
+		}
+
+		private State next(char ch) {
+			State next = ch < ASCII ? this.ascii.get(ch) : this.other.get(ch);
+			if (next == null) {
+				next = state(move(this.ids, ch));
+				if (!next.registered) {
+					// over the state limit: don't remember the transition
+					return next;
+				}
+				if (ch < ASCII) {
+					this.ascii.set(ch, next);
+				}
+				else if (this.other.size() < ASCII) {
+					this.other.put(ch, next);
+				}
+			}
+			return next;
+		}
+
+	}
+
+	private static final class StateKey {
+
+		private final int[] ids;
+
+		private final int hash;
+
+		private StateKey(int[] ids) {
+			this.ids = ids;
+			this.hash = Arrays.hashCode(ids);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof StateKey && Arrays.equals(this.ids, ((StateKey) obj).ids);
+		}
+
+	}
+
+}
@@ -54,6 +54,23 @@ public class PatternMatcher<S> {
 		});
 	}
 
+	/**
+	 * The patterns in the order in which they are tried, most specific first.
+	 * @return the sorted patterns
+	 */
+	protected List<String> getSortedPatterns() {
+		return Collections.unmodifiableList(this.sorted);
+	}
+
+	/**
+	 * The value for a pattern.
+	 * @param pattern one of the {@link #getSortedPatterns() patterns}
+	 * @return the value mapped to the pattern
+	 */
+	protected S getValue(String pattern) {
+		return this.map.get(pattern);
+	}
+
 	/**
 	 * Lifted from AntPathMatcher in Spring Core. Tests whether or not a string matches
 	 * against a pattern. The pattern may contain two special characters:<br>
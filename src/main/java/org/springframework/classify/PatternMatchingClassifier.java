@@ -50,6 +50,16 @@ public class PatternMatchingClassifier<T> implements Classifier<String, T> {
 		this.values = new PatternMatcher<T>(values);
 	}
 
+	/**
+	 * Create a classifier from the provided matcher, e.g. a
+	 * {@link CompiledPatternMatcher}.
+	 * @param values the {@link PatternMatcher} to use
+	 */
+	public PatternMatchingClassifier(PatternMatcher<T> values) {
+		super();
+		this.values = values;
+	}
+
 	/**
 	 * A map from pattern to value
 	 * @param values the pattern map to set
@@ -58,6 +68,14 @@ public class PatternMatchingClassifier<T> implements Classifier<String, T> {
 		this.values = new PatternMatcher<T>(values);
 	}
 
+	/**
+	 * The matcher to use, as an alternative to {@link #setPatternMap(Map)}.
+	 * @param values the pattern matcher to set
+	 */
+	public void setPatternMatcher(PatternMatcher<T> values) {
+		this.values = values;
+	}
+
 	/**
 	 * Classify the input by matching it against the patterns provided in
 	 * {@link #setPatternMap(Map)}. The most specific pattern that matches will be used to
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.classify.util;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.cglib.reflect.FastMethod;
+
+/**
+ * A {@link SimpleMethodInvoker} that calls the method through a generated class (a CGLIB
+ * {@link FastClass}) instead of {@link Method#invoke(Object, Object...)}, so the call is a
+ * direct (index based) invocation once the class is generated. Use
+ * {@link #create(Object, Method)} to fall back to plain reflection when no class can be
+ * generated, e.g. for non-public methods or when class definition is not permitted.
+ *
+ * @since 1.3
+ */
+public class FastMethodInvoker extends SimpleMethodInvoker {
+
+	private static final Log logger = LogFactory.getLog(FastMethodInvoker.class);
+
+	private final FastMethod fastMethod;
+
+	/**
+	 * Create an invoker for the method, generating the fast class eagerly.
+	 * @param object the object to invoke (or a proxy for it)
+	 * @param method the public method of a public class to invoke
+	 * @throws RuntimeException if no fast class can be generated
+	 */
+	public FastMethodInvoker(Object object, Method method) {
+		super(object, method);
+		this.fastMethod = FastClass
+				.create(method.getDeclaringClass().getClassLoader(),
+						method.getDeclaringClass())
+				.getMethod(method);
+	}
+
+	/**
+	 * Create a {@link FastMethodInvoker} if possible, otherwise a
+	 * {@link SimpleMethodInvoker}.
+	 * @param object the object to invoke (or a proxy for it)
+	 * @param method the method to invoke
+	 * @return a method invoker
+	 */
+	public static MethodInvoker create(Object object, Method method) {
+		if (Modifier.isPublic(method.getModifiers())
+				&& Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			try {
+				return new FastMethodInvoker(object, method);
+			}
+			catch (RuntimeException e) {
+				fallback(method, e);
+			}
+			catch (LinkageError e) {
+				fallback(method, e);
+			}
+		}
+		return new SimpleMethodInvoker(object, method);
+	}
+
+	/**
+	 * Convert a reflective {@link SimpleMethodInvoker} into a {@link FastMethodInvoker}
+	 * if possible. Other invokers are returned unchanged.
+	 * @param invoker the invoker to convert (may be null)
+	 * @return a method invoker for the same object and method
+	 */
+	public static MethodInvoker create(MethodInvoker invoker) {
+		if (invoker instanceof SimpleMethodInvoker
+				&& !(invoker instanceof FastMethodInvoker)) {
+			SimpleMethodInvoker simple = (SimpleMethodInvoker) invoker;
+			return create(simple.getObject(), simple.getMethod());
+		}
+		return invoker;
+	}
+
+	private static void fallback(Method method, Throwable e) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Falling back to reflection for " + method, e);
+		}
+	}
+
+	@Override
+	public Object invokeMethod(Object... args) {
+		checkArguments(args);
+
+		try {
+			return this.fastMethod.invoke(getTarget(), args);
+		}
+		catch (Exception e) {
+			throw invocationFailure(args, e);
+		}
+	}
+
+}
@@ -81,23 +81,70 @@ public class SimpleMethodInvoker implements MethodInvoker {
 	 */
 	@Override
 	public Object invokeMethod(Object... args) {
-		Assert.state(this.parameterTypes.length == args.length,
-				"Wrong number of arguments, expected no more than: ["
-						+ this.parameterTypes.length + "]");
+		checkArguments(args);
 
 		try {
 			// Extract the target from an Advised as late as possible
 			// in case it contains a lazy initialization
-			Object target = extractTarget(this.object, this.method);
+			Object target = getTarget();
 			return method.invoke(target, args);
 		}
 		catch (Exception e) {
-			throw new IllegalArgumentException("Unable to invoke method: [" + this.method
-					+ "] on object: [" + this.object + "] with arguments: ["
-					+ Arrays.toString(args) + "]", e);
+			throw invocationFailure(args, e);
 		}
 	}
 
+	/**
+	 * The object the method is invoked on (possibly a proxy).
+	 * @return the object
+	 */
+	protected Object getObject() {
+		return this.object;
+	}
+
+	/**
+	 * The method being invoked.
+	 * @return the method
+	 */
+	protected Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * The object to invoke the method on, extracted from the proxy (if the object is
+	 * one) on first use.
+	 * @return the target object
+	 */
+	protected Object getTarget() {
+		return extractTarget(this.object, this.method);
+	}
+
+	/**
+	 * Verify that the number of arguments matches the method signature.
+	 * @param args the arguments
+	 * @throws IllegalStateException if it does not
+	 */
+	protected void checkArguments(Object[] args) {
+		// Not Assert.state(): the message would be built on every call
+		if (this.parameterTypes.length != args.length) {
+			throw new IllegalStateException(
+					"Wrong number of arguments, expected no more than: ["
+							+ this.parameterTypes.length + "]");
+		}
+	}
+
+	/**
+	 * Create the exception thrown when the invocation fails.
+	 * @param args the arguments
+	 * @param e the cause
+	 * @return the exception to throw
+	 */
+	protected IllegalArgumentException invocationFailure(Object[] args, Exception e) {
+		return new IllegalArgumentException("Unable to invoke method: [" + this.method
+				+ "] on object: [" + this.object + "] with arguments: ["
+				+ Arrays.toString(args) + "]", e);
+	}
+
 	private Object extractTarget(Object target, Method method) {
 		if (this.target == null) {
 			if (target instanceof Advised) {
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcomes of the items of a bulk operation: a result for each item that succeeded
+ * and an exception for each that failed. Used both to collect the outcomes of a single
+ * attempt in a {@link BatchRetryCallback} and as the merged result of
+ * {@link BatchRetryOperations#execute(java.util.Collection, BatchRetryCallback)}. Not
+ * thread safe.
+ *
+ * @param <I> the type of the items
+ * @param <R> the type of the result for each item
+ * @since 1.3
+ */
+public class BatchResult<I, R> {
+
+	private final Map<I, R> results = new LinkedHashMap<I, R>();
+
+	private final Map<I, Throwable> failures = new LinkedHashMap<I, Throwable>();
+
+	/**
+	 * Record that the item succeeded.
+	 * @param item the item
+	 * @param result the result for the item (may be null)
+	 */
+	public void success(I item, R result) {
+		this.failures.remove(item);
+		this.results.put(item, result);
+	}
+
+	/**
+	 * Record that the item failed.
+	 * @param item the item
+	 * @param error the cause of the failure
+	 */
+	public void failure(I item, Throwable error) {
+		this.results.remove(item);
+		this.failures.put(item, error);
+	}
+
+	/**
+	 * The results of the successful items.
+	 * @return a read only map from item to result
+	 */
+	public Map<I, R> getResults() {
+		return Collections.unmodifiableMap(this.results);
+	}
+
+	/**
+	 * The failures of the items that did not succeed.
+	 * @return a read only map from item to the (last) exception
+	 */
+	public Map<I, Throwable> getFailures() {
+		return Collections.unmodifiableMap(this.failures);
+	}
+
+	/**
+	 * @return true if any item failed
+	 */
+	public boolean hasFailures() {
+		return !this.failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult[results=" + this.results.size() + ", failures="
+				+ this.failures.keySet() + "]";
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry;
+
+import java.util.Map;
+
+/**
+ * Callback interface for a bulk operation on a number of items that can be retried
+ * using a {@link BatchRetryOperations}. Each call is passed the items that still need
+ * processing and reports the outcome of each of them, so that only the failed ones are
+ * retried.
+ *
+ * @param <I> the type of the items
+ * @param <R> the type of the result for each item
+ * @since 1.3
+ */
+public interface BatchRetryCallback<I, R> {
+
+	/**
+	 * Process the given items, reporting each outcome with
+	 * {@link BatchResult#success(Object, Object)} or
+	 * {@link BatchResult#failure(Object, Throwable)}. Items without an outcome are
+	 * treated as failed, and if the callback throws an exception all items without an
+	 * outcome fail with it.
+	 * @param items the items to process (in their original order), each with its own
+	 * retry context
+	 * @param result the outcomes of this attempt
+	 * @throws Exception if the whole attempt fails
+	 */
+	void doWithRetry(Map<I, RetryContext> items, BatchResult<I, R> result)
+			throws Exception;
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry;
+
+import java.util.Collection;
+
+/**
+ * Defines retry operations for bulk callbacks, where each item is retried on its own and
+ * an attempt only includes the items that have not yet succeeded.
+ *
+ * @since 1.3
+ */
+public interface BatchRetryOperations {
+
+	/**
+	 * Execute the supplied {@link BatchRetryCallback} for the items, retrying the items
+	 * that fail until they succeed or their retry is exhausted. See implementations for
+	 * configuration details.
+	 * @param items the items to process (duplicates are processed once)
+	 * @param batchCallback the {@link BatchRetryCallback}
+	 * @param <I> the type of the items
+	 * @param <R> the type of the result for each item
+	 * @return the results of the successful items and the last failure of the others
+	 */
+	<I, R> BatchResult<I, R> execute(Collection<? extends I> items,
+			BatchRetryCallback<I, R> batchCallback);
+
+}
@@ -55,6 +55,41 @@ public interface RetryContext extends AttributeAccessor {
 	 */
 	String EXHAUSTED = "context.exhausted";
 
+	/**
+	 * Retry context attribute holding the time (as a {@link Long} in the
+	 * {@link System#currentTimeMillis()} scale) by which the retry must complete.
+	 * Deadlines are inherited by nested retries through {@link #getParent()}. Back offs
+	 * only honour the deadline when they sleep through a
+	 * {@link org.springframework.retry.backoff.DeadlineSleeper}.
+	 * @see org.springframework.retry.support.RetryDeadlines
+	 * @since 1.3
+	 */
+	String DEADLINE = "context.deadline";
+
+	/**
+	 * Retry context attribute holding the number of hedged (extra) attempts started, as
+	 * an {@link Integer}.
+	 * @see org.springframework.retry.support.HedgingRetryTemplate
+	 * @since 1.3
+	 */
+	String HEDGE_COUNT = "context.hedge.count";
+
+	/**
+	 * Retry context attribute that is non-null (and true) if the result came from a
+	 * hedged attempt.
+	 * @see org.springframework.retry.support.HedgingRetryTemplate
+	 * @since 1.3
+	 */
+	String HEDGE_WON = "context.hedge.won";
+
+	/**
+	 * Retry context attribute that is non-null (and true) if the last attempt was refused
+	 * by a bulkhead.
+	 * @see org.springframework.retry.bulkhead.BulkheadPolicy
+	 * @since 1.3
+	 */
+	String BULKHEAD_REJECTED = "context.bulkhead.rejected";
+
 	/**
 	 * Signal to the framework that no more attempts should be made to try or retry the
 	 * current {@link RetryCallback}.
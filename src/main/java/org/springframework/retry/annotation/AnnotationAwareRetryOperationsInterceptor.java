@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.aopalliance.intercept.MethodInterceptor;
@@ -31,6 +33,7 @@ import org.springframework.aop.IntroductionInterceptor;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
@@ -41,26 +44,42 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.retry.RetryListener;
 import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.DeadlineSleeper;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.ExpressionRetryAfterExtractor;
 import org.springframework.retry.backoff.FixedBackOffPolicy;
 import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.backoff.RetryAfterBackOffPolicy;
 import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
 import org.springframework.retry.backoff.UniformRandomBackOffPolicy;
+import org.springframework.retry.bulkhead.AdaptiveBulkheadPolicy;
+import org.springframework.retry.bulkhead.BulkheadPolicy;
+import org.springframework.retry.bulkhead.SemaphoreBulkheadPolicy;
+import org.springframework.retry.interceptor.AsyncRetryOperationsInterceptor;
 import org.springframework.retry.interceptor.FixedKeyGenerator;
 import org.springframework.retry.interceptor.MethodArgumentsKeyGenerator;
 import org.springframework.retry.interceptor.MethodInvocationRecoverer;
 import org.springframework.retry.interceptor.NewMethodArgumentsIdentifier;
 import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder.StatefulRetryInterceptorBuilder;
+import org.springframework.retry.jmx.RetryMBeanExporter;
 import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
 import org.springframework.retry.policy.ExpressionRetryPolicy;
 import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.RetryBudget;
+import org.springframework.retry.policy.RetryBudgetPolicy;
 import org.springframework.retry.policy.RetryContextCache;
 import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.AsyncRetryTemplate;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.ReflectionUtils.MethodCallback;
 import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
 
 /**
  * Interceptor that parses the retry metadata on the method it is invoking and delegates
@@ -73,7 +92,7 @@ import org.springframework.util.StringUtils;
  *
  */
 public class AnnotationAwareRetryOperationsInterceptor
-		implements IntroductionInterceptor, BeanFactoryAware {
+		implements IntroductionInterceptor, BeanFactoryAware, DisposableBean {
 
 	private static final TemplateParserContext PARSER_CONTEXT = new TemplateParserContext();
 
@@ -83,6 +102,8 @@ public class AnnotationAwareRetryOperationsInterceptor
 
 	private final Map<Object, Map<Method, MethodInterceptor>> delegates = new HashMap<Object, Map<Method, MethodInterceptor>>();
 
+	private final Map<String, BulkheadPolicy> bulkheads = new HashMap<String, BulkheadPolicy>();
+
 	private RetryContextCache retryContextCache = new MapRetryContextCache();
 
 	private MethodArgumentsKeyGenerator methodArgumentsKeyGenerator;
@@ -95,6 +116,12 @@ public class AnnotationAwareRetryOperationsInterceptor
 
 	private RetryListener[] globalListeners;
 
+	private ScheduledExecutorService scheduler;
+
+	private boolean defaultScheduler;
+
+	private RetryMBeanExporter mbeanExporter;
+
 	/**
 	 * @param sleeper the sleeper to set
 	 */
@@ -102,6 +129,28 @@ public class AnnotationAwareRetryOperationsInterceptor
 		this.sleeper = sleeper;
 	}
 
+	/**
+	 * The scheduler for the retries of methods returning a {@link ListenableFuture}.
+	 * Default a single daemon thread, created when first needed and shut down when the
+	 * interceptor is {@link #destroy() destroyed}.
+	 * @param scheduler the scheduler to set
+	 * @since 1.3
+	 */
+	public void setScheduler(ScheduledExecutorService scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * An exporter to register an MBean with for each circuit breaker (when it is first
+	 * used). It is also added as a listener to the templates of methods with their own
+	 * {@link Retryable#listeners() listeners}. Default none.
+	 * @param mbeanExporter the exporter to set
+	 * @since 1.3
+	 */
+	public void setMBeanExporter(RetryMBeanExporter mbeanExporter) {
+		this.mbeanExporter = mbeanExporter;
+	}
+
 	/**
 	 * Public setter for the {@link RetryContextCache}.
 	 * @param retryContextCache the {@link RetryContextCache} to set.
@@ -220,13 +269,59 @@ public class AnnotationAwareRetryOperationsInterceptor
 
 	private MethodInterceptor getStatelessInterceptor(Object target, Method method,
 			Retryable retryable) {
+		if (ListenableFuture.class.equals(method.getReturnType())) {
+			return getAsyncInterceptor(target, method, retryable);
+		}
 		RetryTemplate template = createTemplate(retryable.listeners());
-		template.setRetryPolicy(getRetryPolicy(retryable));
+		template.setRetryPolicy(getBudgetedPolicy(getRetryPolicy(retryable), retryable));
 		template.setBackOffPolicy(getBackoffPolicy(retryable.backoff()));
+		template.setBulkheadPolicy(getBulkheadPolicy(target, method, retryable));
 		return RetryInterceptorBuilder.stateless().retryOperations(template)
 				.label(retryable.label()).recoverer(getRecoverer(target, method)).build();
 	}
 
+	private MethodInterceptor getAsyncInterceptor(Object target, Method method,
+			Retryable retryable) {
+		AsyncRetryTemplate template = new AsyncRetryTemplate(getScheduler());
+		RetryListener[] listeners = getListeners(retryable.listeners());
+		if (listeners != null) {
+			template.setListeners(listeners);
+		}
+		template.setRetryPolicy(getBudgetedPolicy(getRetryPolicy(retryable), retryable));
+		template.setBackOffPolicy(getBackoffPolicy(retryable.backoff()));
+		template.setBulkheadPolicy(getBulkheadPolicy(target, method, retryable));
+		AsyncRetryOperationsInterceptor interceptor = new AsyncRetryOperationsInterceptor(
+				template);
+		interceptor.setLabel(retryable.label());
+		interceptor.setRecoverer(getRecoverer(target, method));
+		return interceptor;
+	}
+
+	private synchronized ScheduledExecutorService getScheduler() {
+		if (this.scheduler == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"retry-");
+			threadFactory.setDaemon(true);
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			this.defaultScheduler = true;
+		}
+		return this.scheduler;
+	}
+
+	/**
+	 * Shut down the default scheduler, if one was created. A scheduler that was
+	 * {@link #setScheduler(ScheduledExecutorService) set} is left alone.
+	 * @since 1.3
+	 */
+	@Override
+	public synchronized void destroy() {
+		if (this.defaultScheduler) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+			this.defaultScheduler = false;
+		}
+	}
+
 	private MethodInterceptor getStatefulInterceptor(Object target, Method method,
 			Retryable retryable) {
 		RetryTemplate template = createTemplate(retryable.listeners());
@@ -245,20 +340,71 @@ public class AnnotationAwareRetryOperationsInterceptor
 			if (!StringUtils.hasText(label)) {
 				label = method.toGenericString();
 			}
+			if (this.mbeanExporter != null) {
+				this.mbeanExporter.registerCircuitBreaker(label, breaker);
+			}
 			return RetryInterceptorBuilder.circuitBreaker()
 					.keyGenerator(new FixedKeyGenerator("circuit"))
 					.retryOperations(template).recoverer(getRecoverer(target, method))
 					.label(label).build();
 		}
-		RetryPolicy policy = getRetryPolicy(retryable);
+		RetryPolicy policy = getBudgetedPolicy(getRetryPolicy(retryable), retryable);
 		template.setRetryPolicy(policy);
 		template.setBackOffPolicy(getBackoffPolicy(retryable.backoff()));
+		template.setBulkheadPolicy(getBulkheadPolicy(target, method, retryable));
 		String label = retryable.label();
-		return RetryInterceptorBuilder.stateful()
+		StatefulRetryInterceptorBuilder builder = RetryInterceptorBuilder.stateful()
 				.keyGenerator(this.methodArgumentsKeyGenerator)
 				.newMethodArgumentsIdentifier(this.newMethodArgumentsIdentifier)
-				.retryOperations(template).label(label)
-				.recoverer(getRecoverer(target, method)).build();
+				.retryOperations(template).recoverer(getRecoverer(target, method));
+		if (retryable.singleFlight()) {
+			builder.singleFlight();
+		}
+		return builder.label(label).build();
+	}
+
+	private RetryPolicy getBudgetedPolicy(RetryPolicy policy, Retryable retryable) {
+		if (!StringUtils.hasText(retryable.retryBudget())) {
+			return policy;
+		}
+		RetryBudget budget = this.beanFactory.getBean(resolve(retryable.retryBudget()),
+				RetryBudget.class);
+		return new RetryBudgetPolicy(budget, policy);
+	}
+
+	private BulkheadPolicy getBulkheadPolicy(Object target, Method method,
+			Retryable retryable) {
+		Method targetMethod = ClassUtils.getMostSpecificMethod(method, target.getClass());
+		Bulkhead bulkhead = AnnotationUtils.findAnnotation(targetMethod, Bulkhead.class);
+		if (bulkhead == null) {
+			bulkhead = AnnotationUtils.findAnnotation(targetMethod.getDeclaringClass(),
+					Bulkhead.class);
+		}
+		if (bulkhead == null) {
+			return null;
+		}
+		String name = bulkhead.name();
+		if (!StringUtils.hasText(name)) {
+			name = StringUtils.hasText(retryable.label()) ? retryable.label()
+					: method.toGenericString();
+		}
+		BulkheadPolicy policy = this.bulkheads.get(name);
+		if (policy == null) {
+			if (bulkhead.adaptive()) {
+				AdaptiveBulkheadPolicy adaptive = new AdaptiveBulkheadPolicy(
+						bulkhead.maxConcurrentCalls());
+				adaptive.setMaxWait(bulkhead.maxWait());
+				policy = adaptive;
+			}
+			else {
+				SemaphoreBulkheadPolicy semaphore = new SemaphoreBulkheadPolicy(
+						bulkhead.maxConcurrentCalls());
+				semaphore.setMaxWait(bulkhead.maxWait());
+				policy = semaphore;
+			}
+			this.bulkheads.put(name, policy);
+		}
+		return policy;
 	}
 
 	private long getOpenTimeout(CircuitBreaker circuit) {
@@ -285,21 +431,32 @@ public class AnnotationAwareRetryOperationsInterceptor
 
 	private RetryTemplate createTemplate(String[] listenersBeanNames) {
 		RetryTemplate template = new RetryTemplate();
-		if (listenersBeanNames.length > 0) {
-			template.setListeners(getListenersBeans(listenersBeanNames));
-		}
-		else if (globalListeners != null) {
-			template.setListeners(globalListeners);
+		RetryListener[] listeners = getListeners(listenersBeanNames);
+		if (listeners != null) {
+			template.setListeners(listeners);
 		}
 		return template;
 	}
 
+	private RetryListener[] getListeners(String[] listenersBeanNames) {
+		if (listenersBeanNames.length > 0) {
+			return getListenersBeans(listenersBeanNames);
+		}
+		return globalListeners;
+	}
+
 	private RetryListener[] getListenersBeans(String[] listenersBeanNames) {
-		RetryListener[] listeners = new RetryListener[listenersBeanNames.length];
-		for (int i = 0; i < listeners.length; i++) {
+		int count = listenersBeanNames.length;
+		// the exporter records the statistics of every template, not just the defaults
+		RetryListener[] listeners = new RetryListener[this.mbeanExporter != null
+				? count + 1 : count];
+		for (int i = 0; i < count; i++) {
 			listeners[i] = beanFactory.getBean(listenersBeanNames[i],
 					RetryListener.class);
 		}
+		if (this.mbeanExporter != null) {
+			listeners[count] = this.mbeanExporter;
+		}
 		return listeners;
 	}
 
@@ -374,6 +531,37 @@ public class AnnotationAwareRetryOperationsInterceptor
 	}
 
 	private BackOffPolicy getBackoffPolicy(Backoff backoff) {
+		BackOffPolicy policy = createBackoffPolicy(backoff);
+		if (!StringUtils.hasText(backoff.retryAfterExpression())) {
+			return policy;
+		}
+		long max = backoff.maxDelay();
+		if (StringUtils.hasText(backoff.maxDelayExpression())) {
+			max = PARSER.parseExpression(resolve(backoff.maxDelayExpression()),
+					PARSER_CONTEXT).getValue(this.evaluationContext, Long.class);
+		}
+		RetryAfterBackOffPolicy retryAfter = new RetryAfterBackOffPolicy(
+				new ExpressionRetryAfterExtractor(
+						resolve(backoff.retryAfterExpression()))
+								.withBeanFactory(this.beanFactory),
+				policy);
+		if (max > 0) {
+			retryAfter.setMaxInterval(max);
+		}
+		retryAfter.setSleeper(getSleeper());
+		return retryAfter;
+	}
+
+	/**
+	 * The sleeper for back offs, kept within the deadline of any enclosing retry so that a
+	 * retryable method called from a time-limited retry never sleeps past its deadline.
+	 */
+	private Sleeper getSleeper() {
+		return new DeadlineSleeper(
+				this.sleeper != null ? this.sleeper : new ThreadWaitSleeper());
+	}
+
+	private BackOffPolicy createBackoffPolicy(Backoff backoff) {
 		long min = backoff.delay() == 0 ? backoff.value() : backoff.delay();
 		if (StringUtils.hasText(backoff.delayExpression())) {
 			min = PARSER
@@ -401,25 +589,19 @@ public class AnnotationAwareRetryOperationsInterceptor
 			policy.setMultiplier(multiplier);
 			policy.setMaxInterval(
 					max > min ? max : ExponentialBackOffPolicy.DEFAULT_MAX_INTERVAL);
-			if (this.sleeper != null) {
-				policy.setSleeper(this.sleeper);
-			}
+			policy.setSleeper(getSleeper());
 			return policy;
 		}
 		if (max > min) {
 			UniformRandomBackOffPolicy policy = new UniformRandomBackOffPolicy();
 			policy.setMinBackOffPeriod(min);
 			policy.setMaxBackOffPeriod(max);
-			if (this.sleeper != null) {
-				policy.setSleeper(this.sleeper);
-			}
+			policy.setSleeper(getSleeper());
 			return policy;
 		}
 		FixedBackOffPolicy policy = new FixedBackOffPolicy();
 		policy.setBackOffPeriod(min);
-		if (this.sleeper != null) {
-			policy.setSleeper(this.sleeper);
-		}
+		policy.setSleeper(getSleeper());
 		return policy;
 	}
 
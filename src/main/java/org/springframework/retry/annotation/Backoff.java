@@ -36,6 +36,8 @@ import org.springframework.retry.backoff.BackOffPolicy;
  * exponentially growing up to the maximum value</li>
  * <li>If, in addition, the {@link #random()} flag is set then the multiplier is chosen
  * for each delay from a uniform distribution in [1, multiplier-1]</li>
+ * <li>With {@link #retryAfterExpression()} a delay requested by the server takes
+ * precedence over all of the above</li>
  * </ul>
  *
  * @author Dave Syer
@@ -116,4 +118,16 @@ public @interface Backoff {
 	 */
 	boolean random() default false;
 
+	/**
+	 * An expression evaluated against the last exception to obtain the delay (in
+	 * milliseconds) requested by the server, e.g. from an HTTP {@code Retry-After}
+	 * header. When it evaluates to a number, that delay is used (capped at
+	 * {@link #maxDelay()}, or 30 seconds if not set) instead of the delay computed from
+	 * the other settings, which apply when it evaluates to null. Other beans in the
+	 * context can be referenced, e.g. {@code "@hints.retryAfter(#root)"}.
+	 * @return the retry-after expression (default none)
+	 * @since 1.3
+	 */
+	String retryAfterExpression() default "";
+
 }
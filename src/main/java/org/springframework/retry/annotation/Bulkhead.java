@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of concurrent attempts of a {@link Retryable} method. Attempts that
+ * cannot get a permit (after waiting up to {@link #maxWait()}) fail with a
+ * {@link org.springframework.retry.bulkhead.BulkheadFullException}, which is subject to
+ * the retry policy like any other exception. Methods with the same {@link #name()} (by
+ * default the {@link Retryable#label()} of the method, or the method itself) share one
+ * bulkhead. Ignored for circuit breakers.
+ *
+ * @since 1.3
+ * @see org.springframework.retry.bulkhead.SemaphoreBulkheadPolicy
+ * @see org.springframework.retry.bulkhead.AdaptiveBulkheadPolicy
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+	/**
+	 * The maximum number of concurrent attempts (the initial limit if
+	 * {@link #adaptive()}).
+	 * @return the maximum number of concurrent attempts (default 10)
+	 */
+	int maxConcurrentCalls() default 10;
+
+	/**
+	 * The longest time to wait for a permit, in milliseconds.
+	 * @return the maximum wait (default 0 = fail fast)
+	 */
+	long maxWait() default 0;
+
+	/**
+	 * Adapt the limit to the failures of the attempts (additive increase, multiplicative
+	 * decrease) instead of using a fixed number of permits.
+	 * @return true for an adaptive limit (default false)
+	 */
+	boolean adaptive() default false;
+
+	/**
+	 * The name of the bulkhead; methods with the same name share the same limit.
+	 * @return the bulkhead name (default the retry label, or the method)
+	 */
+	String name() default "";
+
+}
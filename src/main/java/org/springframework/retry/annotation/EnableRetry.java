@@ -49,4 +49,14 @@ public @interface EnableRetry {
 	 */
 	boolean proxyTargetClass() default false;
 
+	/**
+	 * Indicate whether MBeans are to be registered for the statistics of retryable
+	 * methods and for circuit breakers (see
+	 * {@link org.springframework.retry.jmx.RetryMBeanExporter}). The default is
+	 * {@code true}.
+	 * @return whether to register MBeans
+	 * @since 1.3
+	 */
+	boolean exposeMBeans() default true;
+
 }
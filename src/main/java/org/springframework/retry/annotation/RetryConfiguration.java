@@ -18,8 +18,10 @@ package org.springframework.retry.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -37,14 +39,19 @@ import org.springframework.aop.support.annotation.AnnotationClassFilter;
 import org.springframework.aop.support.annotation.AnnotationMethodMatcher;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportAware;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.retry.RetryListener;
 import org.springframework.retry.backoff.Sleeper;
 import org.springframework.retry.interceptor.MethodArgumentsKeyGenerator;
 import org.springframework.retry.interceptor.NewMethodArgumentsIdentifier;
+import org.springframework.retry.jmx.RetryMBeanExporter;
 import org.springframework.retry.policy.RetryContextCache;
+import org.springframework.retry.stats.StatisticsRepository;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.ReflectionUtils.MethodCallback;
@@ -54,6 +61,12 @@ import org.springframework.util.ReflectionUtils.MethodCallback;
  * there is a unique bean elsewhere in the context of type {@link RetryContextCache},
  * {@link MethodArgumentsKeyGenerator} or {@link NewMethodArgumentsIdentifier} it will be
  * used by the corresponding retry interceptor (otherwise sensible defaults are adopted).
+ * <p>
+ * Unless disabled with {@link EnableRetry#exposeMBeans()}, MBeans are registered for the
+ * statistics of the retryable methods and for circuit breakers. The statistics are read
+ * from a unique {@link StatisticsRepository} bean if there is one (in which case a
+ * {@link org.springframework.retry.stats.StatisticsListener} should be recording into
+ * it), otherwise they are recorded by the exporter.
  *
  * @author Dave Syer
  * @author Artem Bilan
@@ -63,7 +76,7 @@ import org.springframework.util.ReflectionUtils.MethodCallback;
 @SuppressWarnings("serial")
 @Configuration
 public class RetryConfiguration extends AbstractPointcutAdvisor
-		implements IntroductionAdvisor, BeanFactoryAware {
+		implements IntroductionAdvisor, BeanFactoryAware, ImportAware, DisposableBean {
 
 	private Advice advice;
 
@@ -84,8 +97,15 @@ public class RetryConfiguration extends AbstractPointcutAdvisor
 	@Autowired(required = false)
 	private Sleeper sleeper;
 
+	@Autowired(required = false)
+	private StatisticsRepository statisticsRepository;
+
 	private BeanFactory beanFactory;
 
+	private boolean exposeMBeans = true;
+
+	private RetryMBeanExporter mbeanExporter;
+
 	@PostConstruct
 	public void init() {
 		Set<Class<? extends Annotation>> retryableAnnotationTypes = new LinkedHashSet<Class<? extends Annotation>>(
@@ -106,6 +126,25 @@ public class RetryConfiguration extends AbstractPointcutAdvisor
 		this.beanFactory = beanFactory;
 	}
 
+	@Override
+	public void setImportMetadata(AnnotationMetadata importMetadata) {
+		Map<String, Object> attributes = importMetadata
+				.getAnnotationAttributes(EnableRetry.class.getName());
+		if (attributes != null) {
+			this.exposeMBeans = (Boolean) attributes.get("exposeMBeans");
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (this.mbeanExporter != null) {
+			this.mbeanExporter.destroy();
+		}
+		if (this.advice instanceof AnnotationAwareRetryOperationsInterceptor) {
+			((AnnotationAwareRetryOperationsInterceptor) this.advice).destroy();
+		}
+	}
+
 	@Override
 	public ClassFilter getClassFilter() {
 		return pointcut.getClassFilter();
@@ -135,8 +174,19 @@ public class RetryConfiguration extends AbstractPointcutAdvisor
 		if (retryContextCache != null) {
 			interceptor.setRetryContextCache(retryContextCache);
 		}
+		List<RetryListener> listeners = new ArrayList<RetryListener>();
 		if (retryListeners != null) {
-			interceptor.setListeners(retryListeners);
+			listeners.addAll(retryListeners);
+		}
+		if (exposeMBeans) {
+			mbeanExporter = statisticsRepository != null
+					? new RetryMBeanExporter(statisticsRepository)
+					: new RetryMBeanExporter();
+			interceptor.setMBeanExporter(mbeanExporter);
+			listeners.add(mbeanExporter);
+		}
+		if (!listeners.isEmpty()) {
+			interceptor.setListeners(listeners);
 		}
 		if (methodArgumentsKeyGenerator != null) {
 			interceptor.setKeyGenerator(methodArgumentsKeyGenerator);
@@ -24,6 +24,11 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation for a method invocation that is retryable.
+ * <p>
+ * A (stateless) retryable method returning a
+ * {@link org.springframework.util.concurrent.ListenableFuture} is also retried when the
+ * future fails. Its retries are scheduled instead of blocking the caller, and a recovery
+ * method may return a future as well.
  *
  * @author Dave Syer
  * @author Artem Bilan
@@ -117,9 +122,30 @@ public @interface Retryable {
 
 	/**
 	 * Bean names of retry listeners to use instead of default ones defined in Spring
-	 * context
+	 * context. The statistics MBeans of {@link EnableRetry#exposeMBeans()} are recorded
+	 * in either case.
 	 * @return retry listeners bean names
 	 */
 	String[] listeners() default {};
 
+	/**
+	 * Bean name of a {@link org.springframework.retry.policy.RetryBudget} that limits
+	 * the retries of this operation. The budget is shared by every operation that names
+	 * the same bean, so that retries of all the callers of a dependency add up to a
+	 * bounded fraction of its load. Ignored for circuit breakers.
+	 * @return the retry budget bean name
+	 * @since 1.3
+	 */
+	String retryBudget() default "";
+
+	/**
+	 * Flag to say that concurrent calls of a {@link #stateful() stateful} retry with the
+	 * same arguments (key) are coalesced: only one of them calls the method and the
+	 * others share its result or exception. Ignored for stateless retry and circuit
+	 * breakers.
+	 * @return true to coalesce concurrent calls, default false
+	 * @since 1.3
+	 */
+	boolean singleFlight() default false;
+
 }
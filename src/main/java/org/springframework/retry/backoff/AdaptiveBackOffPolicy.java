@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryStatistics;
+import org.springframework.retry.stats.ExponentialAverageRetryStatistics;
+import org.springframework.retry.stats.StatisticsRepository;
+
+/**
+ * A {@link BackOffPolicy} whose interval follows the recent error rate of the operation
+ * being retried, as recorded in a {@link StatisticsRepository} (usually by a
+ * {@link org.springframework.retry.stats.StatisticsListener} on the same template). When
+ * nearly all calls succeed a failure is taken to be an isolated blip and the retry
+ * follows after {@link #setMinInterval(long) minInterval}; as the error rate approaches
+ * 1 the interval grows linearly towards {@link #setMaxInterval(long) maxInterval}, so
+ * that a dependency that is failing broadly is given time to recover.
+ * <p>
+ * The error rate is the rolling rate of an {@link ExponentialAverageRetryStatistics}
+ * (the default kind of statistics), or the overall rate for other statistics. It is
+ * looked up on each back off with a single map lookup and a few volatile reads, so the
+ * policy can be shared by any number of threads.
+ * <p>
+ * The statistics are found by the {@link RetryContext#NAME} of the retry context (the
+ * label of the retry interceptor), or by a fixed {@link #setName(String) name}.
+ *
+ * @since 1.3
+ */
+public class AdaptiveBackOffPolicy implements SleepingBackOffPolicy<AdaptiveBackOffPolicy> {
+
+	/**
+	 * The default minimum interval (100ms).
+	 */
+	public static final long DEFAULT_MIN_INTERVAL = 100L;
+
+	/**
+	 * The default maximum interval (10000ms).
+	 */
+	public static final long DEFAULT_MAX_INTERVAL = 10000L;
+
+	private volatile StatisticsRepository statisticsRepository;
+
+	private volatile long minInterval = DEFAULT_MIN_INTERVAL;
+
+	private volatile long maxInterval = DEFAULT_MAX_INTERVAL;
+
+	private volatile String name;
+
+	private Sleeper sleeper = new ThreadWaitSleeper();
+
+	public AdaptiveBackOffPolicy() {
+	}
+
+	/**
+	 * Create a policy that reads the error rate from the given repository.
+	 * @param statisticsRepository the repository
+	 */
+	public AdaptiveBackOffPolicy(StatisticsRepository statisticsRepository) {
+		setStatisticsRepository(statisticsRepository);
+	}
+
+	public AdaptiveBackOffPolicy withSleeper(Sleeper sleeper) {
+		AdaptiveBackOffPolicy res = new AdaptiveBackOffPolicy();
+		res.setStatisticsRepository(this.statisticsRepository);
+		res.setMinInterval(this.minInterval);
+		res.setMaxInterval(this.maxInterval);
+		res.setName(this.name);
+		res.setSleeper(sleeper);
+		return res;
+	}
+
+	/**
+	 * Public setter for the {@link Sleeper} strategy.
+	 * @param sleeper the sleeper to set defaults to {@link ThreadWaitSleeper}.
+	 */
+	public void setSleeper(Sleeper sleeper) {
+		this.sleeper = sleeper;
+	}
+
+	/**
+	 * The repository holding the statistics of the retried operations. Without one (or
+	 * without statistics for the operation) the minimum interval is used.
+	 * @param statisticsRepository the repository
+	 */
+	public void setStatisticsRepository(StatisticsRepository statisticsRepository) {
+		this.statisticsRepository = statisticsRepository;
+	}
+
+	/**
+	 * The interval when there are no recent errors. Default
+	 * {@value #DEFAULT_MIN_INTERVAL}ms.
+	 * @param minInterval the minimum interval in milliseconds
+	 */
+	public void setMinInterval(long minInterval) {
+		this.minInterval = minInterval > 0 ? minInterval : 1;
+	}
+
+	/**
+	 * The interval when all recent calls have failed. Default
+	 * {@value #DEFAULT_MAX_INTERVAL}ms.
+	 * @param maxInterval the maximum interval in milliseconds
+	 */
+	public void setMaxInterval(long maxInterval) {
+		this.maxInterval = maxInterval > 0 ? maxInterval : 1;
+	}
+
+	/**
+	 * The name of the statistics to use, instead of the name of the retry context.
+	 * @param name the statistics name
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * The minimum interval.
+	 * @return the minimum interval in milliseconds
+	 */
+	public long getMinInterval() {
+		return this.minInterval;
+	}
+
+	/**
+	 * The maximum interval.
+	 * @return the maximum interval in milliseconds
+	 */
+	public long getMaxInterval() {
+		return this.maxInterval;
+	}
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new AdaptiveBackOffContext(context);
+	}
+
+	@Override
+	public void backOff(BackOffContext backOffContext)
+			throws BackOffInterruptedException {
+		RetryContext context = ((AdaptiveBackOffContext) backOffContext).context;
+		try {
+			this.sleeper.sleep(getInterval(context));
+		}
+		catch (InterruptedException e) {
+			throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+		}
+	}
+
+	/**
+	 * The interval for the next back off of the given retry.
+	 * @param context the retry context (may be null)
+	 * @return the interval in milliseconds
+	 */
+	public long getInterval(RetryContext context) {
+		long min = this.minInterval;
+		long max = this.maxInterval;
+		if (max <= min) {
+			return min;
+		}
+		return min + Math.round((max - min) * getErrorRate(context));
+	}
+
+	private double getErrorRate(RetryContext context) {
+		StatisticsRepository repository = this.statisticsRepository;
+		String name = this.name;
+		if (name == null && context != null) {
+			name = (String) context.getAttribute(RetryContext.NAME);
+		}
+		if (repository == null || name == null) {
+			return 0;
+		}
+		RetryStatistics stats = repository.findOne(name);
+		double rate;
+		if (stats instanceof ExponentialAverageRetryStatistics) {
+			rate = ((ExponentialAverageRetryStatistics) stats).getRollingErrorRate();
+		}
+		else if (stats != null && stats.getStartedCount() > 0) {
+			rate = (double) (stats.getAbortCount() + stats.getRecoveryCount())
+					/ stats.getStartedCount();
+		}
+		else {
+			rate = 0;
+		}
+		return Math.min(1, Math.max(0, rate));
+	}
+
+	@Override
+	public String toString() {
+		return "AdaptiveBackOffPolicy[minInterval=" + this.minInterval + ", maxInterval="
+				+ this.maxInterval + "]";
+	}
+
+	@SuppressWarnings("serial")
+	static class AdaptiveBackOffContext implements BackOffContext {
+
+		private final RetryContext context;
+
+		AdaptiveBackOffContext(RetryContext context) {
+			this.context = context;
+		}
+
+	}
+
+}
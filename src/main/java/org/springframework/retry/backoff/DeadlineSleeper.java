@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetryDeadlines;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link Sleeper} that keeps back off within the deadline of the retry in progress on
+ * the current thread (see {@link RetryDeadlines}). A sleep that would reach the deadline
+ * is skipped and the retry is marked as exhausted, since the next attempt could only
+ * start once the caller has already given up on its result.
+ *
+ * @since 1.3
+ * @see org.springframework.retry.policy.TimeoutRetryPolicy
+ */
+@SuppressWarnings("serial")
+public class DeadlineSleeper implements Sleeper {
+
+	private final Sleeper delegate;
+
+	/**
+	 * Create a sleeper that sleeps with a {@link ThreadWaitSleeper}.
+	 */
+	public DeadlineSleeper() {
+		this(new ThreadWaitSleeper());
+	}
+
+	/**
+	 * Create a sleeper that sleeps with the given delegate.
+	 * @param delegate the sleeper to use for back offs within the deadline
+	 */
+	public DeadlineSleeper(Sleeper delegate) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void sleep(long backOffPeriod) throws InterruptedException {
+		RetryContext context = RetrySynchronizationManager.getContext();
+		long remaining = RetryDeadlines.getRemaining(context);
+		if (remaining != RetryDeadlines.NONE && backOffPeriod >= remaining) {
+			if (context != null) {
+				context.setExhaustedOnly();
+			}
+			return;
+		}
+		this.delegate.sleep(backOffPeriod);
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Implementation of {@link ExponentialBackOffPolicy} with "decorrelated jitter": each
+ * back off sleeps for a uniformly random period between the initial interval and the
+ * previous sleep times the multiplier, capped at the max interval. Because every sleep
+ * depends on the previous random one, sequences of clients that started together drift
+ * apart quickly. A multiplier of 3 is the usual choice.
+ *
+ * Example: initialInterval = 100 multiplier = 3.0 maxInterval = 3000
+ *
+ * {@link DecorrelatedJitterBackOffPolicy} may yield [211, 150, 412, 1033, 782]
+ *
+ * @see FullJitterBackOffPolicy
+ * @see EqualJitterBackOffPolicy
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class DecorrelatedJitterBackOffPolicy extends ExponentialBackOffPolicy {
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new DecorrelatedJitterBackOffContext(getInitialInterval(),
+				getMultiplier(), getMaxInterval());
+	}
+
+	@Override
+	protected ExponentialBackOffPolicy newInstance() {
+		return new DecorrelatedJitterBackOffPolicy();
+	}
+
+	static class DecorrelatedJitterBackOffContext
+			extends ExponentialBackOffPolicy.ExponentialBackOffContext {
+
+		private final long initialInterval;
+
+		private long sleep;
+
+		DecorrelatedJitterBackOffContext(long expSeed, double multiplier,
+				long maxInterval) {
+			super(expSeed, multiplier, maxInterval);
+			this.initialInterval = expSeed;
+			this.sleep = expSeed;
+		}
+
+		@Override
+		public synchronized long getSleepAndIncrement() {
+			long ceiling = (long) (this.sleep * getMultiplier());
+			long next = this.initialInterval
+					+ ThreadLocalRandoms.nextLong(ceiling - this.initialInterval + 1);
+			this.sleep = Math.min(getMaxInterval(), next);
+			return this.sleep;
+		}
+
+	}
+
+}
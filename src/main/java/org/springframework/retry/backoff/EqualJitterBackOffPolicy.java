@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Implementation of {@link ExponentialBackOffPolicy} with "equal jitter": each back off
+ * sleeps for half of the interval that would come from the deterministic exponential
+ * policy (capped at the max interval) plus a uniformly random period up to the other
+ * half. Unlike {@link FullJitterBackOffPolicy} there is always some back off.
+ *
+ * Example: initialInterval = 100 multiplier = 2.0 maxInterval = 3000
+ *
+ * {@link ExponentialBackOffPolicy} yields: [100, 200, 400, 800, 1600]
+ *
+ * {@link EqualJitterBackOffPolicy} may yield [61, 187, 296, 633, 1210]
+ *
+ * @see FullJitterBackOffPolicy
+ * @see DecorrelatedJitterBackOffPolicy
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class EqualJitterBackOffPolicy extends ExponentialBackOffPolicy {
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new EqualJitterBackOffContext(getInitialInterval(), getMultiplier(),
+				getMaxInterval());
+	}
+
+	@Override
+	protected ExponentialBackOffPolicy newInstance() {
+		return new EqualJitterBackOffPolicy();
+	}
+
+	static class EqualJitterBackOffContext
+			extends ExponentialBackOffPolicy.ExponentialBackOffContext {
+
+		EqualJitterBackOffContext(long expSeed, double multiplier, long maxInterval) {
+			super(expSeed, multiplier, maxInterval);
+		}
+
+		@Override
+		public long getSleepAndIncrement() {
+			long ceiling = super.getSleepAndIncrement();
+			long half = ceiling / 2;
+			return ceiling - half + ThreadLocalRandoms.nextLong(half + 1);
+		}
+
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.retry.backoff;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.retry.RetryContext;
@@ -59,6 +62,11 @@ public class ExponentialBackOffPolicy
 	 */
 	public static final double DEFAULT_MULTIPLIER = 2;
 
+	/**
+	 * Upper bound for the length of a precomputed schedule.
+	 */
+	private static final int MAX_SCHEDULE_LENGTH = 1024;
+
 	/**
 	 * The initial sleep interval.
 	 */
@@ -74,6 +82,13 @@ public class ExponentialBackOffPolicy
 	 */
 	private volatile double multiplier = DEFAULT_MULTIPLIER;
 
+	private volatile boolean precomputed;
+
+	/**
+	 * The precomputed intervals (lazily computed, reset when the configuration changes).
+	 */
+	private volatile long[] schedule;
+
 	private Sleeper sleeper = new ThreadWaitSleeper();
 
 	/**
@@ -99,6 +114,7 @@ public class ExponentialBackOffPolicy
 		target.setInitialInterval(getInitialInterval());
 		target.setMaxInterval(getMaxInterval());
 		target.setMultiplier(getMultiplier());
+		target.setPrecomputed(isPrecomputed());
 		target.setSleeper(sleeper);
 	}
 
@@ -109,6 +125,7 @@ public class ExponentialBackOffPolicy
 	 */
 	public void setInitialInterval(long initialInterval) {
 		this.initialInterval = (initialInterval > 1 ? initialInterval : 1);
+		this.schedule = null;
 	}
 
 	/**
@@ -118,6 +135,7 @@ public class ExponentialBackOffPolicy
 	 */
 	public void setMultiplier(double multiplier) {
 		this.multiplier = (multiplier > 1.0 ? multiplier : 1.0);
+		this.schedule = null;
 	}
 
 	/**
@@ -129,6 +147,28 @@ public class ExponentialBackOffPolicy
 	 */
 	public void setMaxInterval(long maxInterval) {
 		this.maxInterval = maxInterval > 0 ? maxInterval : 1;
+		this.schedule = null;
+	}
+
+	/**
+	 * Compute the whole sequence of intervals once (see {@link #getSchedule()}) and let
+	 * each retry set just step through it, instead of calculating the next interval on
+	 * each back off. The intervals are the same either way, but the context of a retry
+	 * set is then a small lock-free object. Default false. Ignored by subclasses that
+	 * override {@link #start(RetryContext)} to randomize the intervals, such as
+	 * {@link ExponentialRandomBackOffPolicy} and the jitter policies.
+	 * @param precomputed true to use a precomputed schedule
+	 */
+	public void setPrecomputed(boolean precomputed) {
+		this.precomputed = precomputed;
+	}
+
+	/**
+	 * Whether a precomputed schedule is used.
+	 * @return true if the intervals are precomputed
+	 */
+	public boolean isPrecomputed() {
+		return this.precomputed;
 	}
 
 	/**
@@ -155,23 +195,70 @@ public class ExponentialBackOffPolicy
 		return multiplier;
 	}
 
+	/**
+	 * The sequence of intervals of a retry set with the current settings: the first
+	 * back off sleeps for the first element and so on, the last element (the
+	 * {@link #getMaxInterval() maxInterval} once reached) is repeated for any further
+	 * back offs. At most {@value #MAX_SCHEDULE_LENGTH} intervals are listed; a schedule
+	 * cut off at that length before it stops growing is not used by
+	 * {@link #setPrecomputed(boolean) precomputed} retry sets, which then compute their
+	 * intervals as usual.
+	 * @return a copy of the schedule
+	 */
+	public long[] getSchedule() {
+		return schedule().clone();
+	}
+
 	/**
 	 * Returns a new instance of {@link BackOffContext} configured with the 'expSeed' and
 	 * 'increment' values.
 	 */
 	public BackOffContext start(RetryContext context) {
+		if (this.precomputed) {
+			long[] schedule = schedule();
+			if (schedule.length < MAX_SCHEDULE_LENGTH) {
+				return new ScheduledBackOffContext(schedule);
+			}
+			// the schedule was cut off before it stopped growing
+		}
 		return new ExponentialBackOffContext(this.initialInterval, this.multiplier,
 				this.maxInterval);
 	}
 
+	private long[] schedule() {
+		long[] schedule = this.schedule;
+		if (schedule == null) {
+			ExponentialBackOffContext context = new ExponentialBackOffContext(
+					this.initialInterval, this.multiplier, this.maxInterval);
+			List<Long> intervals = new ArrayList<Long>();
+			long interval = context.getInterval();
+			while (interval <= context.getMaxInterval()
+					&& intervals.size() < MAX_SCHEDULE_LENGTH - 1) {
+				intervals.add(context.getSleepAndIncrement());
+				if (context.getInterval() == interval) {
+					break; // no more growth
+				}
+				interval = context.getInterval();
+			}
+			intervals.add(context.getSleepAndIncrement());
+			schedule = new long[intervals.size()];
+			for (int i = 0; i < schedule.length; i++) {
+				schedule[i] = intervals.get(i);
+			}
+			this.schedule = schedule;
+		}
+		return schedule;
+	}
+
 	/**
 	 * Pause for a length of time equal to ' <code>exp(backOffContext.expSeed)</code>'.
 	 */
 	public void backOff(BackOffContext backOffContext)
 			throws BackOffInterruptedException {
-		ExponentialBackOffContext context = (ExponentialBackOffContext) backOffContext;
 		try {
-			long sleepTime = context.getSleepAndIncrement();
+			long sleepTime = backOffContext instanceof ScheduledBackOffContext
+					? ((ScheduledBackOffContext) backOffContext).getSleepAndIncrement()
+					: ((ExponentialBackOffContext) backOffContext).getSleepAndIncrement();
 			if (logger.isDebugEnabled()) {
 				logger.debug("Sleeping for " + sleepTime);
 			}
@@ -226,6 +313,30 @@ public class ExponentialBackOffPolicy
 
 	}
 
+	/**
+	 * Context for a precomputed schedule: just the position in the schedule. Not
+	 * synchronized, a retry set backs off from one thread at a time.
+	 */
+	static class ScheduledBackOffContext implements BackOffContext {
+
+		private final long[] schedule;
+
+		private int index;
+
+		ScheduledBackOffContext(long[] schedule) {
+			this.schedule = schedule;
+		}
+
+		public long getSleepAndIncrement() {
+			int index = this.index;
+			if (index < this.schedule.length - 1) {
+				this.index = index + 1;
+			}
+			return this.schedule[index];
+		}
+
+	}
+
 	public String toString() {
 		return ClassUtils.getShortName(getClass()) + "[initialInterval=" + initialInterval
 				+ ", multiplier=" + multiplier + ", maxInterval=" + maxInterval + "]";
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryAfterExtractor} that evaluates an expression against the last exception,
+ * e.g. {@code "cause?.retryAfterMillis"} or {@code "@hints.retryAfter(#root)"}. The
+ * expression should evaluate to a number of milliseconds, or null if there is no hint.
+ *
+ * @since 1.3
+ */
+public class ExpressionRetryAfterExtractor implements RetryAfterExtractor, BeanFactoryAware {
+
+	private final Expression expression;
+
+	private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+
+	/**
+	 * Construct an instance with the provided {@link Expression}.
+	 * @param expression the expression
+	 */
+	public ExpressionRetryAfterExtractor(Expression expression) {
+		Assert.notNull(expression, "'expression' cannot be null");
+		this.expression = expression;
+	}
+
+	/**
+	 * Construct an instance with the provided expression.
+	 * @param expressionString the expression
+	 */
+	public ExpressionRetryAfterExtractor(String expressionString) {
+		Assert.hasText(expressionString, "'expressionString' cannot be empty");
+		this.expression = new SpelExpressionParser().parseExpression(expressionString);
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
+	}
+
+	public ExpressionRetryAfterExtractor withBeanFactory(BeanFactory beanFactory) {
+		setBeanFactory(beanFactory);
+		return this;
+	}
+
+	@Override
+	public Long getRetryAfter(Throwable throwable) {
+		return this.expression.getValue(this.evaluationContext, throwable, Long.class);
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Implementation of {@link ExponentialBackOffPolicy} with "full jitter": each back off
+ * sleeps for a uniformly random period between zero and the interval that would come
+ * from the deterministic exponential policy (capped at the max interval). This spreads
+ * the retries of clients that failed at the same time over the whole interval.
+ *
+ * Example: initialInterval = 100 multiplier = 2.0 maxInterval = 3000
+ *
+ * {@link ExponentialBackOffPolicy} yields: [100, 200, 400, 800, 1600]
+ *
+ * {@link FullJitterBackOffPolicy} may yield [23, 187, 96, 633, 1210]
+ *
+ * @see EqualJitterBackOffPolicy
+ * @see DecorrelatedJitterBackOffPolicy
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class FullJitterBackOffPolicy extends ExponentialBackOffPolicy {
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new FullJitterBackOffContext(getInitialInterval(), getMultiplier(),
+				getMaxInterval());
+	}
+
+	@Override
+	protected ExponentialBackOffPolicy newInstance() {
+		return new FullJitterBackOffPolicy();
+	}
+
+	static class FullJitterBackOffContext
+			extends ExponentialBackOffPolicy.ExponentialBackOffContext {
+
+		FullJitterBackOffContext(long expSeed, double multiplier, long maxInterval) {
+			super(expSeed, multiplier, maxInterval);
+		}
+
+		@Override
+		public long getSleepAndIncrement() {
+			long ceiling = super.getSleepAndIncrement();
+			return ThreadLocalRandoms.nextLong(ceiling + 1);
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Sleeper} implementation that parks the current thread with
+ * {@link LockSupport#parkNanos(Object, long)}. Unlike waiting on a monitor, parking never
+ * holds a lock, so on a JVM with virtual threads a sleeping virtual thread releases its
+ * carrier thread instead of pinning it.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class ParkingSleeper implements Sleeper {
+
+	@Override
+	public void sleep(long backOffPeriod) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backOffPeriod);
+		long remaining = deadline - System.nanoTime();
+		while (remaining > 0) {
+			// park can return spuriously, so check the clock and the interrupt
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException("Interrupted while parked");
+			}
+			remaining = deadline - System.nanoTime();
+		}
+	}
+
+}
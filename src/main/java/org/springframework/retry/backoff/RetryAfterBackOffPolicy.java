@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link BackOffPolicy} that honours a delay requested by the server, e.g. an HTTP 429
+ * {@code Retry-After} header, carried by the exception that caused the retry. The delay
+ * is obtained from the last throwable of the {@link RetryContext} by a
+ * {@link RetryAfterExtractor} and clamped to {@link #setMinInterval(long) minInterval}
+ * and {@link #setMaxInterval(long) maxInterval}. When there is no hint the back off is
+ * handed to the delegate policy (a {@link FixedBackOffPolicy} by default), whose state
+ * only advances for the back offs it handles. An extractor that fails (e.g. on a
+ * malformed header) is logged and treated as no hint.
+ *
+ * @since 1.3
+ */
+public class RetryAfterBackOffPolicy
+		implements SleepingBackOffPolicy<RetryAfterBackOffPolicy> {
+
+	/**
+	 * The default maximum delay honoured (30000ms).
+	 */
+	public static final long DEFAULT_MAX_INTERVAL = 30000L;
+
+	private static final Log logger = LogFactory.getLog(RetryAfterBackOffPolicy.class);
+
+	private volatile RetryAfterExtractor retryAfterExtractor;
+
+	private volatile BackOffPolicy delegate = new FixedBackOffPolicy();
+
+	private volatile long minInterval;
+
+	private volatile long maxInterval = DEFAULT_MAX_INTERVAL;
+
+	private Sleeper sleeper = new ThreadWaitSleeper();
+
+	public RetryAfterBackOffPolicy() {
+	}
+
+	/**
+	 * Create a policy with the given extractor and delegate.
+	 * @param retryAfterExtractor the strategy for finding the server's hint
+	 * @param delegate the policy to use when there is no hint
+	 */
+	public RetryAfterBackOffPolicy(RetryAfterExtractor retryAfterExtractor,
+			BackOffPolicy delegate) {
+		setRetryAfterExtractor(retryAfterExtractor);
+		setDelegate(delegate);
+	}
+
+	public RetryAfterBackOffPolicy withSleeper(Sleeper sleeper) {
+		RetryAfterBackOffPolicy res = new RetryAfterBackOffPolicy();
+		res.setRetryAfterExtractor(this.retryAfterExtractor);
+		BackOffPolicy delegate = this.delegate;
+		if (delegate instanceof SleepingBackOffPolicy) {
+			delegate = ((SleepingBackOffPolicy<?>) delegate).withSleeper(sleeper);
+		}
+		res.setDelegate(delegate);
+		res.setMinInterval(this.minInterval);
+		res.setMaxInterval(this.maxInterval);
+		res.setSleeper(sleeper);
+		return res;
+	}
+
+	/**
+	 * Public setter for the {@link Sleeper} strategy. It is only used for the delays
+	 * requested by the server; the delegate uses its own.
+	 * @param sleeper the sleeper to set defaults to {@link ThreadWaitSleeper}.
+	 */
+	public void setSleeper(Sleeper sleeper) {
+		this.sleeper = sleeper;
+	}
+
+	/**
+	 * The strategy for finding the delay requested by the server. Without one the
+	 * delegate is always used.
+	 * @param retryAfterExtractor the extractor
+	 */
+	public void setRetryAfterExtractor(RetryAfterExtractor retryAfterExtractor) {
+		this.retryAfterExtractor = retryAfterExtractor;
+	}
+
+	/**
+	 * The policy to use when the last exception carries no hint.
+	 * @param delegate the delegate policy
+	 */
+	public void setDelegate(BackOffPolicy delegate) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * The smallest delay to wait for, however short the server's hint. Default 0.
+	 * @param minInterval the minimum delay in milliseconds
+	 */
+	public void setMinInterval(long minInterval) {
+		this.minInterval = minInterval > 0 ? minInterval : 0;
+	}
+
+	/**
+	 * The longest delay to wait for, however long the server's hint. Default
+	 * {@value #DEFAULT_MAX_INTERVAL}ms.
+	 * @param maxInterval the maximum delay in milliseconds
+	 */
+	public void setMaxInterval(long maxInterval) {
+		this.maxInterval = maxInterval > 0 ? maxInterval : 1;
+	}
+
+	/**
+	 * The minimum delay for a server's hint.
+	 * @return the minimum delay in milliseconds
+	 */
+	public long getMinInterval() {
+		return this.minInterval;
+	}
+
+	/**
+	 * The maximum delay for a server's hint.
+	 * @return the maximum delay in milliseconds
+	 */
+	public long getMaxInterval() {
+		return this.maxInterval;
+	}
+
+	/**
+	 * The policy used when there is no hint.
+	 * @return the delegate policy
+	 */
+	public BackOffPolicy getDelegate() {
+		return this.delegate;
+	}
+
+	@Override
+	public BackOffContext start(RetryContext context) {
+		return new RetryAfterBackOffContext(context, this.delegate.start(context));
+	}
+
+	@Override
+	public void backOff(BackOffContext backOffContext)
+			throws BackOffInterruptedException {
+		RetryAfterBackOffContext context = (RetryAfterBackOffContext) backOffContext;
+		Long retryAfter = getRetryAfter(context.retryContext);
+		if (retryAfter == null) {
+			this.delegate.backOff(context.delegate);
+			return;
+		}
+		long delay = Math.min(Math.max(retryAfter, this.minInterval), this.maxInterval);
+		if (delay <= 0) {
+			return;
+		}
+		try {
+			this.sleeper.sleep(delay);
+		}
+		catch (InterruptedException e) {
+			throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+		}
+	}
+
+	private Long getRetryAfter(RetryContext retryContext) {
+		RetryAfterExtractor extractor = this.retryAfterExtractor;
+		if (extractor == null || retryContext == null
+				|| retryContext.getLastThrowable() == null) {
+			return null;
+		}
+		Long retryAfter;
+		try {
+			retryAfter = extractor.getRetryAfter(retryContext.getLastThrowable());
+		}
+		catch (RuntimeException e) {
+			logger.warn("Could not extract retry after hint with " + extractor, e);
+			return null;
+		}
+		return retryAfter != null && retryAfter >= 0 ? retryAfter : null;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryAfterBackOffPolicy[minInterval=" + this.minInterval
+				+ ", maxInterval=" + this.maxInterval + ", delegate=" + this.delegate
+				+ "]";
+	}
+
+	@SuppressWarnings("serial")
+	static class RetryAfterBackOffContext implements BackOffContext {
+
+		private final RetryContext retryContext;
+
+		private final BackOffContext delegate;
+
+		RetryAfterBackOffContext(RetryContext retryContext, BackOffContext delegate) {
+			this.retryContext = retryContext;
+			this.delegate = delegate;
+		}
+
+	}
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+/**
+ * Strategy for extracting a server-provided delay (e.g. an HTTP {@code Retry-After}
+ * header or a gRPC pushback hint) from the exception that caused a retry.
+ *
+ * @since 1.3
+ * @see RetryAfterBackOffPolicy
+ */
+public interface RetryAfterExtractor {
+
+	/**
+	 * Extract the delay requested by the failed call.
+	 * @param throwable the last exception thrown by the retry callback (never null)
+	 * @return the delay in milliseconds, or null if the exception carries no hint
+	 */
+	Long getRetryAfter(Throwable throwable);
+
+}
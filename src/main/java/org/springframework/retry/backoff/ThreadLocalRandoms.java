@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import java.util.Random;
+
+/**
+ * Per-thread {@link Random} instances for the jitter policies, so that concurrent retry
+ * sets do not contend on a shared seed (the Java 6 equivalent of
+ * {@code ThreadLocalRandom}).
+ *
+ * @since 1.3
+ */
+final class ThreadLocalRandoms {
+
+	private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+
+	};
+
+	private ThreadLocalRandoms() {
+	}
+
+	/**
+	 * A uniformly distributed value between 0 (inclusive) and the bound (exclusive).
+	 * @param bound the upper bound
+	 * @return a random value, 0 if the bound is not positive
+	 */
+	static long nextLong(long bound) {
+		if (bound <= 0) {
+			return 0;
+		}
+		return (long) (RANDOM.get().nextDouble() * bound);
+	}
+
+}
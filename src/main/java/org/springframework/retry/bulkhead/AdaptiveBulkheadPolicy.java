@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link BulkheadPolicy} whose limit adapts to the health of the dependency by
+ * additive increase / multiplicative decrease (AIMD), as in TCP congestion control: every
+ * successful attempt while the limit is in use raises it by {@code 1/limit} (about one
+ * per round of attempts), and every failed attempt, or one slower than the
+ * {@link #setLatencyThreshold(long) latency threshold}, multiplies it by the
+ * {@link #setBackoffRatio(double) backoff ratio}. The limit stays between
+ * {@link #setMinLimit(int) minLimit} and {@link #setMaxLimit(int) maxLimit}.
+ * <p>
+ * As with a {@link SemaphoreBulkheadPolicy} an attempt that finds the limit reached is
+ * refused at once, or waits for up to {@link #setMaxWait(long) maxWait}.
+ *
+ * @since 1.3
+ */
+public class AdaptiveBulkheadPolicy implements BulkheadPolicy {
+
+	/**
+	 * The default initial limit (20).
+	 */
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+	/**
+	 * The default maximum limit (200).
+	 */
+	public static final int DEFAULT_MAX_LIMIT = 200;
+
+	/**
+	 * The default factor applied to the limit on a failure (0.9).
+	 */
+	public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition available = this.lock.newCondition();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	private volatile int minLimit = 1;
+
+	private volatile int maxLimit = DEFAULT_MAX_LIMIT;
+
+	private volatile double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+	private volatile long latencyThreshold;
+
+	private volatile long maxWait;
+
+	private double limit;
+
+	private int inFlight;
+
+	public AdaptiveBulkheadPolicy() {
+		this(DEFAULT_INITIAL_LIMIT);
+	}
+
+	/**
+	 * Create a bulkhead starting at the given limit.
+	 * @param initialLimit the initial number of concurrent attempts
+	 */
+	public AdaptiveBulkheadPolicy(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "initialLimit must be positive");
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * The lowest limit. Default 1.
+	 * @param minLimit the minimum number of concurrent attempts
+	 */
+	public void setMinLimit(int minLimit) {
+		Assert.isTrue(minLimit > 0, "minLimit must be positive");
+		this.minLimit = minLimit;
+	}
+
+	/**
+	 * The highest limit. Default {@value #DEFAULT_MAX_LIMIT}.
+	 * @param maxLimit the maximum number of concurrent attempts
+	 */
+	public void setMaxLimit(int maxLimit) {
+		Assert.isTrue(maxLimit > 0, "maxLimit must be positive");
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * The factor applied to the limit when an attempt fails. Default
+	 * {@value #DEFAULT_BACKOFF_RATIO}.
+	 * @param backoffRatio the ratio in (0, 1)
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1,
+				"backoffRatio must be in (0, 1)");
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * Treat attempts that take longer than this as a sign of congestion, like failures.
+	 * Default 0 (only failures count).
+	 * @param latencyThreshold the threshold in milliseconds
+	 */
+	public void setLatencyThreshold(long latencyThreshold) {
+		this.latencyThreshold = latencyThreshold > 0 ? latencyThreshold : 0;
+	}
+
+	/**
+	 * The longest time to wait for the number of attempts to drop below the limit.
+	 * Default 0 (fail fast).
+	 * @param maxWait the maximum wait in milliseconds
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait > 0 ? maxWait : 0;
+	}
+
+	@Override
+	public boolean acquire() {
+		long nanos = TimeUnit.MILLISECONDS.toNanos(this.maxWait);
+		this.lock.lock();
+		try {
+			while (this.inFlight >= currentLimit()) {
+				if (nanos <= 0) {
+					this.rejected.incrementAndGet();
+					return false;
+				}
+				nanos = this.available.awaitNanos(nanos);
+			}
+			this.inFlight++;
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.rejected.incrementAndGet();
+			return false;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void release(boolean success, long elapsedNanos) {
+		long threshold = this.latencyThreshold;
+		boolean congested = !success || (threshold > 0
+				&& elapsedNanos > TimeUnit.MILLISECONDS.toNanos(threshold));
+		this.lock.lock();
+		try {
+			if (congested) {
+				this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+			}
+			else if (this.inFlight * 2 >= this.limit) {
+				// only grow while the limit is actually being used
+				this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+			}
+			this.inFlight--;
+			this.available.signal();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private int currentLimit() {
+		return Math.max(this.minLimit,
+				Math.min(this.maxLimit, (int) Math.floor(this.limit)));
+	}
+
+	/**
+	 * The current number of concurrent attempts allowed.
+	 * @return the limit
+	 */
+	public int getLimit() {
+		this.lock.lock();
+		try {
+			return currentLimit();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * The number of attempts in progress.
+	 * @return the number of attempts holding a permit
+	 */
+	public int getInFlight() {
+		this.lock.lock();
+		try {
+			return this.inFlight;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * The number of attempts refused so far.
+	 * @return the rejected count
+	 */
+	public long getRejectedCount() {
+		return this.rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return "AdaptiveBulkheadPolicy[limit=" + getLimit() + ", inFlight="
+				+ getInFlight() + "]";
+	}
+
+}
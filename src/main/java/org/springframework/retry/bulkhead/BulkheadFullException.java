@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.bulkhead;
+
+import org.springframework.retry.RetryException;
+
+/**
+ * Exception thrown when an attempt is refused by a {@link BulkheadPolicy}.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class BulkheadFullException extends RetryException {
+
+	public BulkheadFullException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.bulkhead;
+
+/**
+ * Strategy interface limiting the number of attempts that are in progress at the same
+ * time, so that retries cannot pile up on a degraded dependency and exhaust the callers'
+ * threads. A {@link org.springframework.retry.support.RetryTemplate} with a bulkhead
+ * policy asks for a permit before each attempt and returns it afterwards; an attempt
+ * that gets no permit fails with a {@link BulkheadFullException} (which the retry policy
+ * may retry like any other failure).
+ * <p>
+ * Implementations are expected to be thread-safe, and one instance is normally shared by
+ * all the callers of a dependency.
+ *
+ * @since 1.3
+ */
+public interface BulkheadPolicy {
+
+	/**
+	 * Acquire a permit for an attempt, waiting for one if the implementation is
+	 * configured to. Never throws {@link InterruptedException}: if interrupted the thread
+	 * is re-interrupted and no permit is granted.
+	 * @return true if the attempt may proceed
+	 */
+	boolean acquire();
+
+	/**
+	 * Return the permit of a finished attempt.
+	 * @param success whether the attempt succeeded
+	 * @param elapsedNanos the duration of the attempt in nanoseconds
+	 */
+	void release(boolean success, long elapsedNanos);
+
+}
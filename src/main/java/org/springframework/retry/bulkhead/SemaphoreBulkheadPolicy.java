@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link BulkheadPolicy} with a fixed number of permits. By default an attempt that
+ * finds no free permit is refused at once; with a {@link #setMaxWait(long) maxWait} it
+ * queues for up to that long.
+ *
+ * @since 1.3
+ */
+public class SemaphoreBulkheadPolicy implements BulkheadPolicy {
+
+	/**
+	 * The default number of concurrent attempts (10).
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_CALLS = 10;
+
+	private final Semaphore semaphore;
+
+	private final int maxConcurrentCalls;
+
+	private volatile long maxWait;
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	public SemaphoreBulkheadPolicy() {
+		this(DEFAULT_MAX_CONCURRENT_CALLS);
+	}
+
+	/**
+	 * Create a bulkhead with the given number of permits.
+	 * @param maxConcurrentCalls the maximum number of concurrent attempts
+	 */
+	public SemaphoreBulkheadPolicy(int maxConcurrentCalls) {
+		Assert.isTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be positive");
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		this.semaphore = new Semaphore(maxConcurrentCalls);
+	}
+
+	/**
+	 * The longest time to wait for a permit. Default 0 (fail fast).
+	 * @param maxWait the maximum wait in milliseconds
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait > 0 ? maxWait : 0;
+	}
+
+	@Override
+	public boolean acquire() {
+		boolean acquired;
+		long maxWait = this.maxWait;
+		if (maxWait == 0) {
+			acquired = this.semaphore.tryAcquire();
+		}
+		else {
+			try {
+				acquired = this.semaphore.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				acquired = false;
+			}
+		}
+		if (!acquired) {
+			this.rejected.incrementAndGet();
+		}
+		return acquired;
+	}
+
+	@Override
+	public void release(boolean success, long elapsedNanos) {
+		this.semaphore.release();
+	}
+
+	/**
+	 * The maximum number of concurrent attempts.
+	 * @return the number of permits
+	 */
+	public int getMaxConcurrentCalls() {
+		return this.maxConcurrentCalls;
+	}
+
+	/**
+	 * The number of attempts in progress.
+	 * @return the number of permits taken
+	 */
+	public int getInFlight() {
+		return this.maxConcurrentCalls - this.semaphore.availablePermits();
+	}
+
+	/**
+	 * The number of attempts refused so far.
+	 * @return the rejected count
+	 */
+	public long getRejectedCount() {
+		return this.rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SemaphoreBulkheadPolicy[maxConcurrentCalls=" + this.maxConcurrentCalls
+				+ ", inFlight=" + getInFlight() + "]";
+	}
+
+}
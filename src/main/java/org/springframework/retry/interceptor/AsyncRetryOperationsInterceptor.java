@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.interceptor;
+
+import java.util.Arrays;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.AsyncRetryTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * A {@link MethodInterceptor} that retries calls to a method returning a
+ * {@link ListenableFuture} when the future fails (or the method throws), without
+ * blocking: the method is invoked again by an {@link AsyncRetryTemplate} after the back
+ * off delay. The caller gets a future that completes with the first successful result,
+ * or with the outcome of the {@link MethodInvocationRecoverer} when the retry is
+ * exhausted. The recoverer may itself return a {@link ListenableFuture}, in which case
+ * the caller's future follows it.
+ *
+ * @since 1.3
+ */
+public class AsyncRetryOperationsInterceptor implements MethodInterceptor {
+
+	private final AsyncRetryTemplate retryTemplate;
+
+	private MethodInvocationRecoverer<?> recoverer;
+
+	private String label;
+
+	/**
+	 * Create an interceptor retrying with the given template.
+	 * @param retryTemplate the template
+	 */
+	public AsyncRetryOperationsInterceptor(AsyncRetryTemplate retryTemplate) {
+		Assert.notNull(retryTemplate, "'retryTemplate' cannot be null.");
+		this.retryTemplate = retryTemplate;
+	}
+
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	public void setRecoverer(MethodInvocationRecoverer<?> recoverer) {
+		this.recoverer = recoverer;
+	}
+
+	@Override
+	public Object invoke(final MethodInvocation invocation) throws Throwable {
+
+		Assert.state(invocation instanceof ProxyMethodInvocation,
+				"MethodInvocation of the wrong type detected - this should not happen with Spring AOP, "
+						+ "so please raise an issue if you see this exception");
+		final String label = StringUtils.hasText(this.label) ? this.label
+				: invocation.getMethod().toGenericString();
+
+		RetryCallback<ListenableFuture<Object>, Throwable> retryCallback = new RetryCallback<ListenableFuture<Object>, Throwable>() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public ListenableFuture<Object> doWithRetry(RetryContext context)
+					throws Throwable {
+				context.setAttribute(RetryContext.NAME, label);
+				return (ListenableFuture<Object>) ((ProxyMethodInvocation) invocation)
+						.invocableClone().proceed();
+			}
+
+		};
+
+		final ListenableFuture<Object> retried;
+		if (this.recoverer != null) {
+			retried = this.retryTemplate.execute(retryCallback,
+					new ItemRecovererCallback(invocation.getArguments(), this.recoverer));
+		}
+		else {
+			retried = this.retryTemplate.execute(retryCallback);
+		}
+
+		SettableListenableFuture<Object> result = new CancellableFuture(retried);
+		retried.addCallback(new ResultCallback(result));
+		return result;
+
+	}
+
+	/**
+	 * The caller's future: cancelling it also cancels the retry, so that no further
+	 * attempts are made.
+	 */
+	private static final class CancellableFuture extends SettableListenableFuture<Object> {
+
+		private final ListenableFuture<Object> retried;
+
+		private CancellableFuture(ListenableFuture<Object> retried) {
+			this.retried = retried;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				this.retried.cancel(mayInterruptIfRunning);
+			}
+			return cancelled;
+		}
+
+	}
+
+	/**
+	 * Completes the caller's future, following the future of a recoverer if there is
+	 * one.
+	 */
+	private static final class ResultCallback implements ListenableFutureCallback<Object> {
+
+		private final SettableListenableFuture<Object> result;
+
+		private ResultCallback(SettableListenableFuture<Object> result) {
+			this.result = result;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void onSuccess(Object value) {
+			if (value instanceof Recovered) {
+				Object recovered = ((Recovered) value).value;
+				if (recovered instanceof ListenableFuture) {
+					((ListenableFuture<Object>) recovered).addCallback(this);
+					return;
+				}
+				value = recovered;
+			}
+			this.result.set(value);
+		}
+
+		@Override
+		public void onFailure(Throwable ex) {
+			this.result.setException(ex);
+		}
+
+	}
+
+	/**
+	 * Marks the value of a recoverer, which (unlike the result of an attempt) may be a
+	 * future.
+	 */
+	private static final class Recovered {
+
+		private final Object value;
+
+		private Recovered(Object value) {
+			this.value = value;
+		}
+
+	}
+
+	private static final class ItemRecovererCallback implements RecoveryCallback<Object> {
+
+		private final Object[] args;
+
+		private final MethodInvocationRecoverer<?> recoverer;
+
+		private ItemRecovererCallback(Object[] args,
+				MethodInvocationRecoverer<?> recoverer) {
+			this.args = Arrays.asList(args).toArray();
+			this.recoverer = recoverer;
+		}
+
+		@Override
+		public Object recover(RetryContext context) {
+			return new Recovered(
+					this.recoverer.recover(this.args, context.getLastThrowable()));
+		}
+
+	}
+
+}
@@ -213,6 +213,8 @@ public abstract class RetryInterceptorBuilder<T extends MethodInterceptor> {
 
 		private Classifier<? super Throwable, Boolean> rollbackClassifier;
 
+		private boolean singleFlight;
+
 		/**
 		 * Stateful retry requires items to be identifiable.
 		 * @param keyGenerator The key generator.
@@ -248,6 +250,18 @@ public abstract class RetryInterceptorBuilder<T extends MethodInterceptor> {
 			return this;
 		}
 
+		/**
+		 * Coalesce concurrent calls with the same key into a single call whose outcome
+		 * they all share.
+		 * @return this.
+		 * @since 1.3
+		 * @see StatefulRetryOperationsInterceptor#setSingleFlight(boolean)
+		 */
+		public StatefulRetryInterceptorBuilder singleFlight() {
+			this.singleFlight = true;
+			return this;
+		}
+
 		@Override
 		public StatefulRetryInterceptorBuilder retryOperations(
 				RetryOperations retryOperations) {
@@ -310,6 +324,7 @@ public abstract class RetryInterceptorBuilder<T extends MethodInterceptor> {
 			if (this.label != null) {
 				this.interceptor.setLabel(this.label);
 			}
+			this.interceptor.setSingleFlight(this.singleFlight);
 			return this.interceptor;
 		}
 
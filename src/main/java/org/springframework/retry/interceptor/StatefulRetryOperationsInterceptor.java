@@ -16,7 +16,12 @@
 
 package org.springframework.retry.interceptor;
 
+import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -29,6 +34,7 @@ import org.springframework.retry.RetryCallback;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryOperations;
 import org.springframework.retry.RetryState;
+import org.springframework.retry.TerminatedRetryException;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.retry.support.DefaultRetryState;
 import org.springframework.retry.support.RetryTemplate;
@@ -52,6 +58,10 @@ import org.springframework.util.StringUtils;
  * default it will retry a fixed number of times, according to the defaults in
  * {@link RetryTemplate}.
  *
+ * With {@link #setSingleFlight(boolean) single flight} enabled, a call whose key matches
+ * a call already in progress on another thread does not make an attempt of its own: it
+ * waits for that call and shares its result (or exception).
+ *
  * @author Dave Syer
  * @author Gary Russell
  */
@@ -73,6 +83,12 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 
 	private boolean useRawKey;
 
+	private boolean singleFlight;
+
+	private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<Object, Flight>();
+
+	private final ConcurrentMap<Method, String> methodNames = new ConcurrentHashMap<Method, String>();
+
 	public StatefulRetryOperationsInterceptor() {
 		RetryTemplate retryTemplate = new RetryTemplate();
 		retryTemplate.setRetryPolicy(new NeverRetryPolicy());
@@ -134,6 +150,21 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 		this.useRawKey = useRawKey;
 	}
 
+	/**
+	 * Set to true to coalesce concurrent calls with the same key: only the first makes
+	 * an attempt, and the others wait for it and return its result or throw its
+	 * exception. This keeps a burst of identical calls from each running their own
+	 * attempt against the same retry state. The calls should be idempotent and free of
+	 * side effects on their arguments, since only one of them is actually made. A call
+	 * that is interrupted while it waits fails with a {@link TerminatedRetryException}.
+	 * Default: false.
+	 * @param singleFlight the singleFlight to set.
+	 * @since 1.3
+	 */
+	public void setSingleFlight(boolean singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
 	/**
 	 * Wrap the method invocation in a stateful retry with the policy and other helpers
 	 * provided. If there is a failure the exception will generally be re-thrown. The only
@@ -156,22 +187,20 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 		}
 
 		Object[] args = invocation.getArguments();
-		Object defaultKey = Arrays.asList(args);
-		if (args.length == 1) {
-			defaultKey = args[0];
-		}
-
-		Object key = createKey(invocation, defaultKey);
+		String label = getLabel(invocation);
+		Object key = createKey(args, label);
 		RetryState retryState = new DefaultRetryState(key,
 				this.newMethodArgumentsIdentifier != null
 						&& this.newMethodArgumentsIdentifier.isNew(args),
 				this.rollbackClassifier);
 
-		Object result = this.retryOperations
-				.execute(new MethodInvocationRetryCallback(invocation, label),
-						this.recoverer != null
-								? new ItemRecovererCallback(args, this.recoverer) : null,
-						retryState);
+		Object result;
+		if (this.singleFlight && key != null) {
+			result = executeSingleFlight(invocation, label, key, retryState);
+		}
+		else {
+			result = execute(invocation, label, retryState);
+		}
 
 		if (this.logger.isDebugEnabled()) {
 			this.logger.debug("Exiting proxied method in stateful retry with result: ("
@@ -182,11 +211,55 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 
 	}
 
-	private Object createKey(final MethodInvocation invocation, Object defaultKey) {
-		Object generatedKey = defaultKey;
-		if (this.keyGenerator != null) {
-			generatedKey = this.keyGenerator.getKey(invocation.getArguments());
+	private Object execute(MethodInvocation invocation, String label,
+			RetryState retryState) throws Throwable {
+		Object[] args = invocation.getArguments();
+		return this.retryOperations.execute(
+				new MethodInvocationRetryCallback(invocation, label),
+				this.recoverer != null ? new ItemRecovererCallback(args, this.recoverer)
+						: null,
+				retryState);
+	}
+
+	private Object executeSingleFlight(MethodInvocation invocation, String label,
+			Object key, RetryState retryState) throws Throwable {
+		Flight flight = new Flight();
+		Flight existing = this.flights.putIfAbsent(key, flight);
+		if (existing != null) {
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Joining call in progress for key=" + key);
+			}
+			try {
+				return existing.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new TerminatedRetryException(
+						"Interrupted while waiting for call in progress", e);
+			}
+		}
+		try {
+			Object result = execute(invocation, label, retryState);
+			flight.result = result;
+			return result;
+		}
+		catch (Throwable e) {
+			flight.error = e;
+			throw e;
 		}
+		finally {
+			this.flights.remove(key, flight);
+			flight.done.countDown();
+		}
+	}
+
+	private Object createKey(Object[] args, String label) {
+		if (this.keyGenerator == null && args.length != 1) {
+			// The default key of several arguments is the arguments themselves
+			return this.useRawKey ? Arrays.asList(args) : new RetryKey(label, null, args);
+		}
+		Object generatedKey = this.keyGenerator != null ? this.keyGenerator.getKey(args)
+				: args[0];
 		if (generatedKey == null) {
 			// If there's a generator and he still says the key is null, that means he
 			// really doesn't want to retry.
@@ -195,9 +268,100 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 		if (this.useRawKey) {
 			return generatedKey;
 		}
-		String name = StringUtils.hasText(label) ? label
-				: invocation.getMethod().toGenericString();
-		return Arrays.asList(name, generatedKey);
+		return new RetryKey(label, generatedKey, null);
+	}
+
+	/**
+	 * The label of the invocation: the {@link #setLabel(String) label} if there is one,
+	 * otherwise the generic signature of the method, which is computed once per method.
+	 */
+	private String getLabel(MethodInvocation invocation) {
+		if (StringUtils.hasText(this.label)) {
+			return this.label;
+		}
+		Method method = invocation.getMethod();
+		String name = this.methodNames.get(method);
+		if (name == null) {
+			name = method.toGenericString();
+			this.methodNames.putIfAbsent(method, name);
+		}
+		return name;
+	}
+
+	/**
+	 * The key of the retry state of a call: the label of the method and either the key of
+	 * the arguments or (by default, for several arguments) the arguments themselves,
+	 * compared element by element. The hash code is computed once.
+	 */
+	@SuppressWarnings("serial")
+	private static final class RetryKey implements Serializable {
+
+		private final String label;
+
+		private final Object key;
+
+		private final Object[] args;
+
+		private final int hash;
+
+		private RetryKey(String label, Object key, Object[] args) {
+			this.label = label;
+			this.key = key;
+			this.args = args;
+			this.hash = 31 * label.hashCode()
+					+ (args != null ? Arrays.hashCode(args) : key.hashCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof RetryKey)) {
+				return false;
+			}
+			RetryKey other = (RetryKey) obj;
+			if (this.hash != other.hash || !this.label.equals(other.label)) {
+				return false;
+			}
+			if (this.args != null) {
+				return other.args != null && Arrays.equals(this.args, other.args);
+			}
+			return other.args == null && this.key.equals(other.key);
+		}
+
+		@Override
+		public String toString() {
+			return "[" + this.label + ", "
+					+ (this.args != null ? Arrays.toString(this.args) : this.key) + "]";
+		}
+
+	}
+
+	/**
+	 * The outcome of a call in progress, shared with the calls that join it.
+	 */
+	private static final class Flight {
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Object result;
+
+		private volatile Throwable error;
+
+		private Object await() throws Throwable {
+			this.done.await();
+			if (this.error != null) {
+				throw this.error;
+			}
+			return this.result;
+		}
+
 	}
 
 	/**
@@ -209,21 +373,16 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 
 		private final MethodInvocation invocation;
 
-		private String label;
+		private final String label;
 
 		private MethodInvocationRetryCallback(MethodInvocation invocation, String label) {
 			this.invocation = invocation;
-			if (StringUtils.hasText(label)) {
-				this.label = label;
-			}
-			else {
-				this.label = invocation.getMethod().toGenericString();
-			}
+			this.label = label;
 		}
 
 		@Override
 		public Object doWithRetry(RetryContext context) throws Exception {
-			context.setAttribute(RetryContext.NAME, label);
+			context.setAttribute(RetryContext.NAME, this.label);
 			try {
 				return this.invocation.proceed();
 			}
@@ -255,7 +414,7 @@ public class StatefulRetryOperationsInterceptor implements MethodInterceptor {
 		 */
 		private ItemRecovererCallback(Object[] args,
 				MethodInvocationRecoverer<?> recoverer) {
-			this.args = Arrays.asList(args).toArray();
+			this.args = args;
 			this.recoverer = recoverer;
 		}
 
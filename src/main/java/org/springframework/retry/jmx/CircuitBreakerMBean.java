@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.jmx;
+
+/**
+ * Management interface for a circuit breaker, exposing its state and operations to trip
+ * or close it by hand.
+ *
+ * @since 1.3
+ * @see RetryMBeanExporter
+ * @see org.springframework.retry.policy.CircuitBreakerRetryPolicy
+ */
+public interface CircuitBreakerMBean {
+
+	String getName();
+
+	/**
+	 * Whether calls are currently short circuited.
+	 * @return true if the circuit is open
+	 */
+	boolean isOpen();
+
+	/**
+	 * Whether the state has been forced by {@link #forceOpen()} or {@link #forceClose()}.
+	 * @return true if the state is forced
+	 */
+	boolean isForced();
+
+	/**
+	 * The number of calls short circuited since the circuit last opened.
+	 * @return the short circuit count
+	 */
+	int getShortCircuitCount();
+
+	/**
+	 * Hold the circuit open until {@link #reset()}.
+	 */
+	void forceOpen();
+
+	/**
+	 * Hold the circuit closed until {@link #reset()}.
+	 */
+	void forceClose();
+
+	/**
+	 * Release a forced state and close the circuit.
+	 */
+	void reset();
+
+}
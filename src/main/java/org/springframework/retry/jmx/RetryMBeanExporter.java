@@ -0,0 +1,345 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryStatistics;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.ExponentialAverageRetryStatistics;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.stats.StatisticsRepository;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Registers MBeans for the statistics of retry operations and for circuit breakers. Used
+ * as a {@link org.springframework.retry.RetryListener}, it registers a
+ * {@link RetryStatisticsMBean} named
+ * {@code org.springframework.retry:type=RetryStatistics,name=<label>} the first time an
+ * operation with a {@link RetryContext#NAME label} closes, and circuit breakers are
+ * registered as a {@link CircuitBreakerMBean} named
+ * {@code org.springframework.retry:type=CircuitBreaker,name=<label>} through
+ * {@link #registerCircuitBreaker(String, CircuitBreakerRetryPolicy)}. If a name is
+ * already taken (e.g. by another application context in the same JVM, or by another
+ * circuit breaker with the same label) an {@code identity} key is added to make it
+ * unique.
+ * <p>
+ * The MBeans read their values directly from the statistics and the circuit breaker
+ * policies, so reading them takes no locks on the retry path.
+ * <p>
+ * Created without a {@link StatisticsRepository}, the exporter records the statistics
+ * itself (as a {@link StatisticsListener} would). Given a repository, it assumes that a
+ * {@link StatisticsListener} elsewhere is recording into it.
+ *
+ * @since 1.3
+ */
+public class RetryMBeanExporter extends RetryListenerSupport implements DisposableBean {
+
+	/**
+	 * The default domain of the object names.
+	 */
+	public static final String DEFAULT_DOMAIN = "org.springframework.retry";
+
+	private static final Log logger = LogFactory.getLog(RetryMBeanExporter.class);
+
+	private final ConcurrentMap<String, Boolean> statistics = new ConcurrentHashMap<String, Boolean>();
+
+	private final ConcurrentMap<CircuitBreakerRetryPolicy, Boolean> circuits = new ConcurrentHashMap<CircuitBreakerRetryPolicy, Boolean>();
+
+	private final List<ObjectName> registered = new CopyOnWriteArrayList<ObjectName>();
+
+	private final StatisticsRepository repository;
+
+	private final StatisticsListener listener;
+
+	private MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+	private String domain = DEFAULT_DOMAIN;
+
+	/**
+	 * Create an exporter that records the statistics itself.
+	 */
+	public RetryMBeanExporter() {
+		this.repository = new DefaultStatisticsRepository();
+		this.listener = new StatisticsListener(this.repository);
+	}
+
+	/**
+	 * Create an exporter for statistics recorded in the given repository by a
+	 * {@link StatisticsListener}.
+	 * @param repository the statistics repository
+	 */
+	public RetryMBeanExporter(StatisticsRepository repository) {
+		Assert.notNull(repository, "StatisticsRepository must not be null");
+		this.repository = repository;
+		this.listener = null;
+	}
+
+	/**
+	 * The server to register the MBeans with. Default the platform MBean server.
+	 * @param server the MBean server
+	 */
+	public void setServer(MBeanServer server) {
+		this.server = server;
+	}
+
+	/**
+	 * The domain of the object names. Default {@value #DEFAULT_DOMAIN}.
+	 * @param domain the domain
+	 */
+	public void setDomain(String domain) {
+		this.domain = domain;
+	}
+
+	/**
+	 * The repository the statistics MBeans read from.
+	 * @return the statistics repository
+	 */
+	public StatisticsRepository getStatisticsRepository() {
+		return this.repository;
+	}
+
+	/**
+	 * Register an MBean to monitor and control a circuit breaker, unless this exporter
+	 * has already registered one for the same policy. Circuit breakers sharing a label
+	 * (e.g. on two beans of the same class) are told apart by an {@code identity} key.
+	 * @param name the label of the circuit breaker
+	 * @param policy the circuit breaker policy
+	 */
+	public void registerCircuitBreaker(String name, CircuitBreakerRetryPolicy policy) {
+		if (this.circuits.putIfAbsent(policy, Boolean.TRUE) == null) {
+			register("CircuitBreaker", name, new StandardMBean(
+					new CircuitBreakerView(name, policy), CircuitBreakerMBean.class,
+					false), policy);
+		}
+	}
+
+	@Override
+	public <T, E extends Throwable> void onError(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		if (this.listener != null) {
+			this.listener.onError(context, callback, throwable);
+		}
+	}
+
+	@Override
+	public <T, E extends Throwable> void close(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		if (this.listener != null) {
+			this.listener.close(context, callback, throwable);
+		}
+		String name = (String) context.getAttribute(RetryContext.NAME);
+		if (name == null || this.statistics.containsKey(name)) {
+			return;
+		}
+		// the statistics may not have been recorded yet by another listener
+		RetryStatistics stats = this.repository.findOne(name);
+		if (stats != null && this.statistics.putIfAbsent(name, Boolean.TRUE) == null) {
+			register("RetryStatistics", name, new StandardMBean(
+					new StatisticsView(stats), RetryStatisticsMBean.class, false), this);
+		}
+	}
+
+	/**
+	 * Register the MBean, adding the identity of the owner to the name if it is taken.
+	 */
+	private void register(String type, String name, Object mbean, Object owner) {
+		try {
+			ObjectName objectName = getObjectName(type, name, null);
+			try {
+				this.server.registerMBean(mbean, objectName);
+			}
+			catch (InstanceAlreadyExistsException e) {
+				objectName = getObjectName(type, name,
+						ObjectUtils.getIdentityHexString(owner));
+				this.server.registerMBean(mbean, objectName);
+			}
+			this.registered.add(objectName);
+		}
+		catch (JMException e) {
+			logger.warn("Could not register MBean for " + type + " " + name, e);
+		}
+	}
+
+	private ObjectName getObjectName(String type, String name, String identity)
+			throws JMException {
+		StringBuilder builder = new StringBuilder(this.domain).append(":type=")
+				.append(type).append(",name=").append(ObjectName.quote(name));
+		if (identity != null) {
+			builder.append(",identity=").append(identity);
+		}
+		return new ObjectName(builder.toString());
+	}
+
+	/**
+	 * Unregister all the MBeans registered by this exporter.
+	 */
+	@Override
+	public void destroy() {
+		for (ObjectName objectName : this.registered) {
+			try {
+				this.server.unregisterMBean(objectName);
+			}
+			catch (JMException e) {
+				logger.debug("Could not unregister MBean " + objectName, e);
+			}
+		}
+		this.registered.clear();
+		this.statistics.clear();
+		this.circuits.clear();
+	}
+
+	private static class StatisticsView implements RetryStatisticsMBean {
+
+		private final RetryStatistics stats;
+
+		private StatisticsView(RetryStatistics stats) {
+			this.stats = stats;
+		}
+
+		@Override
+		public String getName() {
+			return this.stats.getName();
+		}
+
+		@Override
+		public int getStartedCount() {
+			return this.stats.getStartedCount();
+		}
+
+		@Override
+		public int getCompleteCount() {
+			return this.stats.getCompleteCount();
+		}
+
+		@Override
+		public int getRecoveryCount() {
+			return this.stats.getRecoveryCount();
+		}
+
+		@Override
+		public int getErrorCount() {
+			return this.stats.getErrorCount();
+		}
+
+		@Override
+		public int getAbortCount() {
+			return this.stats.getAbortCount();
+		}
+
+		@Override
+		public int getRollingStartedCount() {
+			if (this.stats instanceof ExponentialAverageRetryStatistics) {
+				return ((ExponentialAverageRetryStatistics) this.stats)
+						.getRollingStartedCount();
+			}
+			return this.stats.getStartedCount();
+		}
+
+		@Override
+		public int getRollingErrorCount() {
+			if (this.stats instanceof ExponentialAverageRetryStatistics) {
+				return ((ExponentialAverageRetryStatistics) this.stats)
+						.getRollingErrorCount();
+			}
+			return this.stats.getErrorCount();
+		}
+
+		@Override
+		public double getRollingErrorRate() {
+			if (this.stats instanceof ExponentialAverageRetryStatistics) {
+				return ((ExponentialAverageRetryStatistics) this.stats)
+						.getRollingErrorRate();
+			}
+			int started = this.stats.getStartedCount();
+			if (started == 0) {
+				return 0;
+			}
+			return (double) (this.stats.getAbortCount() + this.stats.getRecoveryCount())
+					/ started;
+		}
+
+	}
+
+	private static class CircuitBreakerView implements CircuitBreakerMBean {
+
+		private final String name;
+
+		private final CircuitBreakerRetryPolicy policy;
+
+		private CircuitBreakerView(String name, CircuitBreakerRetryPolicy policy) {
+			this.name = name;
+			this.policy = policy;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.policy.isOpen();
+		}
+
+		@Override
+		public boolean isForced() {
+			return this.policy.isForced();
+		}
+
+		@Override
+		public int getShortCircuitCount() {
+			return this.policy.getShortCircuitCount();
+		}
+
+		@Override
+		public void forceOpen() {
+			this.policy.forceOpen();
+		}
+
+		@Override
+		public void forceClose() {
+			this.policy.forceClose();
+		}
+
+		@Override
+		public void reset() {
+			this.policy.reset();
+		}
+
+	}
+
+}
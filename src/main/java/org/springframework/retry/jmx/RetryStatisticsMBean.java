@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.jmx;
+
+/**
+ * Management interface for the {@link org.springframework.retry.RetryStatistics} of one
+ * retry operation. All values are read from the statistics when requested, without
+ * locking.
+ *
+ * @since 1.3
+ * @see RetryMBeanExporter
+ */
+public interface RetryStatisticsMBean {
+
+	String getName();
+
+	int getStartedCount();
+
+	int getCompleteCount();
+
+	int getRecoveryCount();
+
+	int getErrorCount();
+
+	int getAbortCount();
+
+	/**
+	 * The number of calls started recently, or since the start for statistics that do
+	 * not keep a rolling count.
+	 * @return the rolling started count
+	 */
+	int getRollingStartedCount();
+
+	/**
+	 * The number of errors recently, or since the start for statistics that do not keep
+	 * a rolling count.
+	 * @return the rolling error count
+	 */
+	int getRollingErrorCount();
+
+	/**
+	 * The proportion of recent calls that failed (were aborted or recovered), or of all
+	 * calls for statistics that do not keep a rolling count.
+	 * @return the error rate between 0 and 1
+	 */
+	double getRollingErrorRate();
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free bounded queue for many producers and a single consumer. Each slot carries
+ * a sequence number saying whether it is free for the producer of a given position or
+ * filled for the consumer, so that producers only contend on a single compare and set
+ * and never wait for each other.
+ *
+ * @param <E> the type of the elements
+ * @since 1.3
+ */
+final class BoundedRingBuffer<E> {
+
+	private final int mask;
+
+	private final AtomicReferenceArray<E> elements;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	private volatile long head;
+
+	BoundedRingBuffer(int capacity) {
+		int size = 2;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			this.sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Add an element if there is room. Safe for concurrent producers.
+	 * @param element the element
+	 * @return false if the buffer is full
+	 */
+	boolean offer(E element) {
+		while (true) {
+			long position = this.tail.get();
+			int index = (int) (position & this.mask);
+			long available = this.sequences.get(index) - position;
+			if (available == 0) {
+				if (this.tail.compareAndSet(position, position + 1)) {
+					this.elements.lazySet(index, element);
+					this.sequences.set(index, position + 1);
+					return true;
+				}
+			}
+			else if (available < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Move up to the given number of elements into the list. Only to be called by the
+	 * single consumer.
+	 * @param target the list to add to
+	 * @param max the maximum number of elements
+	 * @return the number of elements moved
+	 */
+	int drainTo(List<? super E> target, int max) {
+		long position = this.head;
+		int count = 0;
+		while (count < max) {
+			int index = (int) (position & this.mask);
+			if (this.sequences.get(index) != position + 1) {
+				break;
+			}
+			target.add(this.elements.get(index));
+			this.elements.lazySet(index, null);
+			this.sequences.set(index, position + this.mask + 1);
+			position++;
+			count++;
+		}
+		this.head = position;
+		return count;
+	}
+
+	int capacity() {
+		return this.mask + 1;
+	}
+
+}
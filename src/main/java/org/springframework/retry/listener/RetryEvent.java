@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+/**
+ * The events a {@link SelectiveRetryListener} can ask to be notified of.
+ *
+ * @since 1.3
+ */
+public enum RetryEvent {
+
+	/**
+	 * Before the first attempt ({@link org.springframework.retry.RetryListener#open}).
+	 */
+	OPEN,
+
+	/**
+	 * After every failed attempt
+	 * ({@link org.springframework.retry.RetryListener#onError}).
+	 */
+	ERROR,
+
+	/**
+	 * After the last attempt, whatever the outcome
+	 * ({@link org.springframework.retry.RetryListener#close}).
+	 */
+	CLOSE,
+
+	/**
+	 * After the last attempt, only if it succeeded (a {@code close} with no
+	 * exception).
+	 */
+	SUCCESS
+
+}
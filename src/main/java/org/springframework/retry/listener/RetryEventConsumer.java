@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.util.List;
+
+/**
+ * Receives batches of retry events from a {@link RetryEventPipeline}, away from the
+ * threads making the calls.
+ *
+ * @since 1.3
+ */
+public interface RetryEventConsumer {
+
+	/**
+	 * Handle a batch of events, in the order they were published.
+	 * @param events the events (never empty)
+	 */
+	void consume(List<RetryEventRecord> events);
+
+}
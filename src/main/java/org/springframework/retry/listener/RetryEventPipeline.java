@@ -0,0 +1,305 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.util.Assert;
+
+/**
+ * A retry listener that takes the work of other listeners off the calling threads: each
+ * event is recorded as a {@link RetryEventRecord} into a lock-free bounded ring buffer,
+ * and a background thread hands the records to the {@link RetryEventConsumer}s in
+ * batches. Audit or metrics listeners that do I/O then add next to nothing to the latency
+ * of the calls.
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides whether the event is
+ * {@link OverflowPolicy#DROP dropped} (and counted in {@link #getDroppedCount()}) or
+ * delivered by the calling thread itself ({@link OverflowPolicy#CALLER_RUNS}), in which
+ * case the consumers must be thread safe.
+ * <p>
+ * The background thread is started with the first event (or by {@link #start()}) and
+ * should be stopped with {@link #stop()}, which delivers the events still buffered.
+ *
+ * @since 1.3
+ */
+public class RetryEventPipeline implements SelectiveRetryListener {
+
+	/**
+	 * What to do with an event when the buffer is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Discard the event and count it.
+		 */
+		DROP,
+
+		/**
+		 * Deliver the event on the calling thread.
+		 */
+		CALLER_RUNS
+
+	}
+
+	/**
+	 * The default buffer capacity (8192).
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/**
+	 * The default maximum batch size (256).
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * The default time the background thread waits when there are no events (10ms).
+	 */
+	public static final long DEFAULT_IDLE_INTERVAL = 10L;
+
+	private static final String START = "context.pipeline.start";
+
+	private static final Log logger = LogFactory.getLog(RetryEventPipeline.class);
+
+	private final RetryEventConsumer[] consumers;
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong delivered = new AtomicLong();
+
+	private final Object monitor = new Object();
+
+	private int capacity = DEFAULT_CAPACITY;
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+	private volatile long idleInterval = DEFAULT_IDLE_INTERVAL;
+
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+	private volatile BoundedRingBuffer<RetryEventRecord> buffer;
+
+	private volatile Thread worker;
+
+	private volatile boolean running;
+
+	/**
+	 * Create a pipeline delivering to the given consumers.
+	 * @param consumers the consumers, called in this order for every batch
+	 */
+	public RetryEventPipeline(RetryEventConsumer... consumers) {
+		Assert.notEmpty(consumers, "At least one consumer is required");
+		this.consumers = consumers.clone();
+	}
+
+	/**
+	 * The maximum number of buffered events (rounded up to a power of 2). Must be set
+	 * before the pipeline starts. Default {@value #DEFAULT_CAPACITY}.
+	 * @param capacity the buffer capacity
+	 */
+	public void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "'capacity' must be positive");
+		Assert.state(this.buffer == null, "The pipeline has already started");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * The maximum number of events passed to the consumers in one call. Default
+	 * {@value #DEFAULT_BATCH_SIZE}.
+	 * @param batchSize the batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * How long the background thread waits before looking again when there are no
+	 * events. Default {@value #DEFAULT_IDLE_INTERVAL}ms.
+	 * @param idleInterval the interval in milliseconds
+	 */
+	public void setIdleInterval(long idleInterval) {
+		Assert.isTrue(idleInterval > 0, "'idleInterval' must be positive");
+		this.idleInterval = idleInterval;
+	}
+
+	/**
+	 * What to do with an event when the buffer is full. Default
+	 * {@link OverflowPolicy#DROP}.
+	 * @param overflowPolicy the overflow policy
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "'overflowPolicy' cannot be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * The number of events discarded because the buffer was full.
+	 * @return the dropped count
+	 */
+	public long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * The number of events handed to the consumers so far.
+	 * @return the delivered count
+	 */
+	public long getDeliveredCount() {
+		return this.delivered.get();
+	}
+
+	@Override
+	public boolean supportsEvent(RetryEvent event) {
+		return event != RetryEvent.SUCCESS;
+	}
+
+	@Override
+	public <T, E extends Throwable> boolean open(RetryContext context,
+			RetryCallback<T, E> callback) {
+		context.setAttribute(START, System.nanoTime());
+		publish(new RetryEventRecord(RetryEvent.OPEN, context, null, 0));
+		return true;
+	}
+
+	@Override
+	public <T, E extends Throwable> void onError(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		publish(new RetryEventRecord(RetryEvent.ERROR, context, throwable,
+				getDuration(context)));
+	}
+
+	@Override
+	public <T, E extends Throwable> void close(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		publish(new RetryEventRecord(RetryEvent.CLOSE, context, throwable,
+				getDuration(context)));
+	}
+
+	private long getDuration(RetryContext context) {
+		Long start = (Long) context.getAttribute(START);
+		return start == null ? 0 : System.nanoTime() - start;
+	}
+
+	private void publish(RetryEventRecord record) {
+		BoundedRingBuffer<RetryEventRecord> buffer = this.buffer;
+		if (buffer == null) {
+			start();
+			buffer = this.buffer;
+		}
+		if (buffer.offer(record)) {
+			return;
+		}
+		if (this.overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+			deliver(Collections.singletonList(record));
+		}
+		else {
+			this.dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Start the background thread, if it is not running already.
+	 */
+	public void start() {
+		synchronized (this.monitor) {
+			if (this.buffer == null) {
+				this.buffer = new BoundedRingBuffer<RetryEventRecord>(this.capacity);
+			}
+			if (this.worker == null) {
+				this.running = true;
+				Thread thread = new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						consume();
+					}
+
+				}, "retry-events");
+				thread.setDaemon(true);
+				this.worker = thread;
+				thread.start();
+			}
+		}
+	}
+
+	/**
+	 * Stop the background thread, after delivering the events already buffered. Events
+	 * published after this are buffered until the pipeline is started again.
+	 * @throws InterruptedException if interrupted while waiting for the thread
+	 */
+	public void stop() throws InterruptedException {
+		Thread thread;
+		synchronized (this.monitor) {
+			thread = this.worker;
+			this.running = false;
+		}
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			thread.join();
+			synchronized (this.monitor) {
+				if (this.worker == thread) {
+					this.worker = null;
+				}
+			}
+		}
+	}
+
+	private void consume() {
+		BoundedRingBuffer<RetryEventRecord> buffer = this.buffer;
+		List<RetryEventRecord> batch = new ArrayList<RetryEventRecord>();
+		while (true) {
+			boolean running = this.running;
+			batch.clear();
+			if (buffer.drainTo(batch, this.batchSize) > 0) {
+				deliver(batch);
+			}
+			else if (running) {
+				LockSupport.parkNanos(this,
+						TimeUnit.MILLISECONDS.toNanos(this.idleInterval));
+			}
+			else {
+				// stopped and nothing left that was published before the stop
+				return;
+			}
+		}
+	}
+
+	private void deliver(List<RetryEventRecord> batch) {
+		List<RetryEventRecord> events = Collections.unmodifiableList(batch);
+		for (RetryEventConsumer consumer : this.consumers) {
+			try {
+				consumer.consume(events);
+			}
+			catch (RuntimeException e) {
+				logger.error("Retry event consumer failed: " + consumer, e);
+			}
+		}
+		this.delivered.addAndGet(batch.size());
+	}
+
+}
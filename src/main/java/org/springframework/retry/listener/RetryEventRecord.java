@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * An immutable snapshot of a retry listener event, as delivered by a
+ * {@link RetryEventPipeline}.
+ *
+ * @since 1.3
+ */
+public class RetryEventRecord {
+
+	private final RetryEvent type;
+
+	private final String name;
+
+	private final int retryCount;
+
+	private final Throwable throwable;
+
+	private final long timestamp;
+
+	private final long duration;
+
+	private final boolean exhausted;
+
+	private final boolean recovered;
+
+	/**
+	 * Create a record of an event.
+	 * @param type the event ({@link RetryEvent#OPEN}, {@link RetryEvent#ERROR} or
+	 * {@link RetryEvent#CLOSE})
+	 * @param context the retry context, read now
+	 * @param throwable the exception of the event (may be null)
+	 * @param duration the time since the start of the retry in nanoseconds
+	 */
+	public RetryEventRecord(RetryEvent type, RetryContext context, Throwable throwable,
+			long duration) {
+		this.type = type;
+		this.name = (String) context.getAttribute(RetryContext.NAME);
+		this.retryCount = context.getRetryCount();
+		this.throwable = throwable;
+		this.timestamp = System.currentTimeMillis();
+		this.duration = duration;
+		this.exhausted = context.hasAttribute(RetryContext.EXHAUSTED);
+		this.recovered = context.hasAttribute(RetryContext.RECOVERED);
+	}
+
+	/**
+	 * @return the event
+	 */
+	public RetryEvent getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return the {@link RetryContext#NAME name} of the retry (may be null)
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the number of failed attempts so far
+	 */
+	public int getRetryCount() {
+		return this.retryCount;
+	}
+
+	/**
+	 * @return the exception of an error, or the last exception on close (null if the
+	 * retry succeeded)
+	 */
+	public Throwable getThrowable() {
+		return this.throwable;
+	}
+
+	/**
+	 * @return the time of the event in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * @return the time from the start of the retry to the event in nanoseconds
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+
+	/**
+	 * @return true if the retry was exhausted (on close)
+	 */
+	public boolean isExhausted() {
+		return this.exhausted;
+	}
+
+	/**
+	 * @return true if the retry was exhausted and recovered (on close)
+	 */
+	public boolean isRecovered() {
+		return this.recovered;
+	}
+
+	/**
+	 * @return true on a close of a retry whose last attempt succeeded
+	 */
+	public boolean isSuccessful() {
+		return this.type == RetryEvent.CLOSE && this.throwable == null;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryEventRecord[type=" + this.type + ", name=" + this.name
+				+ ", retryCount=" + this.retryCount + "]";
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * An immutable set of {@link RetryListener}s with a precomputed array per event, so that
+ * each notification only visits the listeners that need it. A
+ * {@link SelectiveRetryListener} gets the events it supports, a
+ * {@link RetryListenerSupport} only the ones whose method it overrides, and any other
+ * listener gets them all. {@code open} is called in the order of registration and
+ * {@code onError} and {@code close} in the reverse order, as before.
+ *
+ * @since 1.3
+ */
+public final class RetryListenerDispatcher {
+
+	/**
+	 * A dispatcher without listeners.
+	 */
+	public static final RetryListenerDispatcher EMPTY = new RetryListenerDispatcher(
+			new RetryListener[0]);
+
+	private final RetryListener[] listeners;
+
+	private final RetryListener[] openListeners;
+
+	private final RetryListener[] errorListeners;
+
+	private final RetryListener[] closeListeners;
+
+	private final RetryListener[] successListeners;
+
+	/**
+	 * Create a dispatcher for the listeners.
+	 * @param listeners the listeners in order of registration
+	 */
+	public RetryListenerDispatcher(RetryListener[] listeners) {
+		this.listeners = listeners.clone();
+		List<RetryListener> open = new ArrayList<RetryListener>();
+		List<RetryListener> error = new ArrayList<RetryListener>();
+		List<RetryListener> close = new ArrayList<RetryListener>();
+		List<RetryListener> success = new ArrayList<RetryListener>();
+		for (RetryListener listener : this.listeners) {
+			if (supports(listener, RetryEvent.OPEN)) {
+				open.add(listener);
+			}
+			if (supports(listener, RetryEvent.ERROR)) {
+				error.add(listener);
+			}
+			if (supports(listener, RetryEvent.CLOSE)) {
+				close.add(listener);
+				success.add(listener);
+			}
+			else if (supports(listener, RetryEvent.SUCCESS)) {
+				success.add(listener);
+			}
+		}
+		this.openListeners = open.toArray(new RetryListener[open.size()]);
+		this.errorListeners = error.toArray(new RetryListener[error.size()]);
+		this.closeListeners = close.toArray(new RetryListener[close.size()]);
+		this.successListeners = success.toArray(new RetryListener[success.size()]);
+	}
+
+	/**
+	 * All the listeners.
+	 * @return a copy of the listeners in order of registration
+	 */
+	public RetryListener[] getListeners() {
+		return this.listeners.clone();
+	}
+
+	/**
+	 * A dispatcher with one more listener.
+	 * @param listener the listener to add
+	 * @return a new dispatcher
+	 */
+	public RetryListenerDispatcher withListener(RetryListener listener) {
+		RetryListener[] listeners = new RetryListener[this.listeners.length + 1];
+		System.arraycopy(this.listeners, 0, listeners, 0, this.listeners.length);
+		listeners[this.listeners.length] = listener;
+		return new RetryListenerDispatcher(listeners);
+	}
+
+	/**
+	 * Notify the listeners that need it of the start of a retry.
+	 * @param context the current retry context
+	 * @param callback the current callback
+	 * @param <T> the type of object returned by the callback
+	 * @param <E> the type of exception it declares may be thrown
+	 * @return false as soon as a listener vetoes the retry
+	 */
+	public <T, E extends Throwable> boolean open(RetryContext context,
+			RetryCallback<T, E> callback) {
+		RetryListener[] listeners = this.openListeners;
+		for (int i = 0; i < listeners.length; i++) {
+			if (!listeners[i].open(context, callback)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Notify the listeners that need it of a failed attempt.
+	 * @param context the current retry context
+	 * @param callback the current callback
+	 * @param throwable the last exception that was thrown by the callback
+	 * @param <T> the type of object returned by the callback
+	 * @param <E> the type of exception it declares may be thrown
+	 */
+	public <T, E extends Throwable> void onError(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		RetryListener[] listeners = this.errorListeners;
+		for (int i = listeners.length; i-- > 0;) {
+			listeners[i].onError(context, callback, throwable);
+		}
+	}
+
+	/**
+	 * Notify the listeners that need it of the end of a retry.
+	 * @param context the current retry context
+	 * @param callback the current callback
+	 * @param throwable the last exception that was thrown by the callback, or null if
+	 * the retry succeeded
+	 * @param <T> the type of object returned by the callback
+	 * @param <E> the type of exception it declares may be thrown
+	 */
+	public <T, E extends Throwable> void close(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		RetryListener[] listeners = throwable == null ? this.successListeners
+				: this.closeListeners;
+		for (int i = listeners.length; i-- > 0;) {
+			listeners[i].close(context, callback, throwable);
+		}
+	}
+
+	private static boolean supports(RetryListener listener, RetryEvent event) {
+		if (listener instanceof SelectiveRetryListener) {
+			return ((SelectiveRetryListener) listener).supportsEvent(event);
+		}
+		if (listener instanceof RetryListenerSupport) {
+			// the methods of the support class do nothing (and open returns true)
+			String name = event == RetryEvent.OPEN ? "open"
+					: event == RetryEvent.ERROR ? "onError" : "close";
+			return isOverridden(listener.getClass(), name);
+		}
+		return true;
+	}
+
+	private static boolean isOverridden(Class<?> type, String name) {
+		for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+			if (method.getName().equals(name)
+					&& method.getDeclaringClass() != RetryListenerSupport.class
+					&& !method.isBridge()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import org.springframework.retry.RetryListener;
+
+/**
+ * A {@link RetryListener} that declares which events it needs, so that the retry
+ * operations can skip it (and skip a whole phase when no listener needs it) for the
+ * others. A listener that is not notified of {@link RetryEvent#OPEN} is treated as if it
+ * allowed the retry to proceed.
+ *
+ * @since 1.3
+ * @see RetryListenerDispatcher
+ */
+public interface SelectiveRetryListener extends RetryListener {
+
+	/**
+	 * Whether the listener should be notified of the event. Called once, when the
+	 * listener is registered, so the answer must not change.
+	 * @param event the event
+	 * @return true if the listener needs the event
+	 */
+	boolean supportsEvent(RetryEvent event);
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.metrics;
+
+/**
+ * Records durations for a timer registered in a {@link RetryMeterRegistry}.
+ *
+ * @since 1.3
+ */
+public interface MeterTimer {
+
+	/**
+	 * Record one duration.
+	 * @param nanos the duration in nanoseconds
+	 */
+	void record(long nanos);
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.metrics;
+
+/**
+ * A value read by a {@link RetryMeterRegistry} each time its meters are published, e.g.
+ * the count of a function counter or the level of a gauge. Implementations should be
+ * cheap to call and must not block.
+ *
+ * @since 1.3
+ */
+public interface MeterValue {
+
+	/**
+	 * The current value.
+	 * @return the value
+	 */
+	double value();
+
+}
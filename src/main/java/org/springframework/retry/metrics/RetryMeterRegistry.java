@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.metrics;
+
+import java.util.Map;
+
+/**
+ * The registry that retry meters are published to. This is a deliberately small
+ * abstraction so that spring-retry does not depend on a particular metrics library: an
+ * adapter for Micrometer, for instance, maps {@link #counter} to a
+ * {@code FunctionCounter}, {@link #gauge} to a {@code Gauge} and {@link #timer} to a
+ * {@code Timer}. Counters and gauges are pulled from their {@link MeterValue} when the
+ * registry publishes, so nothing is computed or allocated on the retry path for them.
+ * <p>
+ * Each meter is registered once per name and set of tags.
+ *
+ * @since 1.3
+ * @see RetryMetricsBinder
+ */
+public interface RetryMeterRegistry {
+
+	/**
+	 * Register a monotonically increasing count.
+	 * @param name the name of the meter
+	 * @param tags the tags of the meter
+	 * @param value the source of the count
+	 */
+	void counter(String name, Map<String, String> tags, MeterValue value);
+
+	/**
+	 * Register a value that can go up and down.
+	 * @param name the name of the meter
+	 * @param tags the tags of the meter
+	 * @param value the source of the value
+	 */
+	void gauge(String name, Map<String, String> tags, MeterValue value);
+
+	/**
+	 * Register a timer.
+	 * @param name the name of the meter
+	 * @param tags the tags of the meter
+	 * @return a timer to record durations with
+	 */
+	MeterTimer timer(String name, Map<String, String> tags);
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryStatistics;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.stats.DefaultRetryStatistics;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.stats.StatisticsRepository;
+
+/**
+ * Publishes the {@link RetryStatistics} of a {@link StatisticsRepository}, the duration
+ * of retry operations and the state of circuit breakers to a {@link RetryMeterRegistry}.
+ * Register it as a listener next to a {@link StatisticsListener} for the same
+ * repository. For each {@link RetryContext#NAME label} it registers:
+ * <ul>
+ * <li>function counters {@code retry.started}, {@code retry.completed},
+ * {@code retry.recovered}, {@code retry.aborted} and {@code retry.errors} (plus
+ * {@code retry.hedges}, {@code retry.hedges.won} and {@code retry.bulkhead.rejected} for
+ * {@link DefaultRetryStatistics}), which read the atomic counters of the statistics
+ * directly;</li>
+ * <li>a timer {@code retry.duration}, tagged with an {@code outcome} of
+ * {@code success}, {@code recovered} or {@code failure}, for the time from opening to
+ * closing each retry context;</li>
+ * <li>gauges {@code retry.circuit.open} (1 when open) and {@code retry.circuit.short}
+ * for operations behind a circuit breaker, as of the last call to close.</li>
+ * </ul>
+ * All meters carry a {@code name} tag with the label. They are registered the first time
+ * a label is seen, or by {@link #bindAll()} for statistics recorded before the binder was
+ * in place; after that, reading them takes no locks and allocates nothing.
+ *
+ * @since 1.3
+ */
+public class RetryMetricsBinder extends RetryListenerSupport {
+
+	/**
+	 * The tag holding the label of the retry operation.
+	 */
+	public static final String NAME_TAG = "name";
+
+	/**
+	 * The tag holding the outcome of a timed retry operation.
+	 */
+	public static final String OUTCOME_TAG = "outcome";
+
+	private static final String START = "context.metrics.start";
+
+	private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<String, Meters>();
+
+	private final StatisticsRepository repository;
+
+	private final RetryMeterRegistry registry;
+
+	/**
+	 * Create a binder publishing the statistics of the repository to the registry.
+	 * @param repository the statistics repository
+	 * @param registry the meter registry
+	 */
+	public RetryMetricsBinder(StatisticsRepository repository,
+			RetryMeterRegistry registry) {
+		this.repository = repository;
+		this.registry = registry;
+	}
+
+	/**
+	 * Register the meters for every statistics in the repository that are not published
+	 * yet.
+	 */
+	public void bindAll() {
+		for (RetryStatistics stats : this.repository.findAll()) {
+			getMeters(stats.getName()).bind(stats);
+		}
+	}
+
+	@Override
+	public <T, E extends Throwable> boolean open(RetryContext context,
+			RetryCallback<T, E> callback) {
+		context.setAttribute(START, System.nanoTime());
+		return true;
+	}
+
+	@Override
+	public <T, E extends Throwable> void close(RetryContext context,
+			RetryCallback<T, E> callback, Throwable throwable) {
+		String name = (String) context.getAttribute(RetryContext.NAME);
+		if (name == null) {
+			return;
+		}
+		Meters meters = getMeters(name);
+		Long start = (Long) context.getAttribute(START);
+		if (start != null) {
+			MeterTimer timer;
+			if (context.hasAttribute(RetryContext.RECOVERED)) {
+				timer = meters.recovered;
+			}
+			else if (throwable == null) {
+				timer = meters.success;
+			}
+			else {
+				timer = meters.failure;
+			}
+			timer.record(System.nanoTime() - start);
+		}
+		Boolean open = (Boolean) context.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_OPEN);
+		if (open != null) {
+			meters.circuitOpen = open;
+		}
+		Integer shortCount = (Integer) context
+				.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_SHORT_COUNT);
+		if (shortCount != null) {
+			meters.shortCount = shortCount;
+		}
+		if (!meters.isBound()) {
+			// the statistics listener may not have seen this label yet
+			meters.bind(this.repository.findOne(name));
+		}
+	}
+
+	private Meters getMeters(String name) {
+		Meters meters = this.meters.get(name);
+		if (meters == null) {
+			synchronized (this.meters) {
+				meters = this.meters.get(name);
+				if (meters == null) {
+					// registered before it is published, so only once per label
+					meters = new Meters(name);
+					meters.register();
+					this.meters.put(name, meters);
+				}
+			}
+		}
+		return meters;
+	}
+
+	private static Map<String, String> tags(String name, String outcome) {
+		Map<String, String> tags = new LinkedHashMap<String, String>();
+		tags.put(NAME_TAG, name);
+		tags.put(OUTCOME_TAG, outcome);
+		return Collections.unmodifiableMap(tags);
+	}
+
+	/**
+	 * The meters of one label.
+	 */
+	private final class Meters {
+
+		private final AtomicBoolean bound = new AtomicBoolean();
+
+		private final Map<String, String> tags;
+
+		private MeterTimer success;
+
+		private MeterTimer recovered;
+
+		private MeterTimer failure;
+
+		private volatile boolean circuitOpen;
+
+		private volatile int shortCount;
+
+		private Meters(String name) {
+			this.tags = Collections.singletonMap(NAME_TAG, name);
+		}
+
+		private void register() {
+			RetryMeterRegistry registry = RetryMetricsBinder.this.registry;
+			String name = this.tags.get(NAME_TAG);
+			this.success = registry.timer("retry.duration", tags(name, "success"));
+			this.recovered = registry.timer("retry.duration", tags(name, "recovered"));
+			this.failure = registry.timer("retry.duration", tags(name, "failure"));
+			registry.gauge("retry.circuit.open", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return Meters.this.circuitOpen ? 1 : 0;
+				}
+			});
+			registry.gauge("retry.circuit.short", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return Meters.this.shortCount;
+				}
+			});
+		}
+
+		private boolean isBound() {
+			return this.bound.get();
+		}
+
+		private void bind(final RetryStatistics stats) {
+			if (stats == null || !this.bound.compareAndSet(false, true)) {
+				return;
+			}
+			RetryMeterRegistry registry = RetryMetricsBinder.this.registry;
+			registry.counter("retry.started", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return stats.getStartedCount();
+				}
+			});
+			registry.counter("retry.completed", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return stats.getCompleteCount();
+				}
+			});
+			registry.counter("retry.recovered", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return stats.getRecoveryCount();
+				}
+			});
+			registry.counter("retry.aborted", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return stats.getAbortCount();
+				}
+			});
+			registry.counter("retry.errors", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return stats.getErrorCount();
+				}
+			});
+			if (!(stats instanceof DefaultRetryStatistics)) {
+				return;
+			}
+			final DefaultRetryStatistics defaults = (DefaultRetryStatistics) stats;
+			registry.counter("retry.hedges", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return defaults.getHedgeCount();
+				}
+			});
+			registry.counter("retry.hedges.won", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return defaults.getHedgeWonCount();
+				}
+			});
+			registry.counter("retry.bulkhead.rejected", this.tags, new MeterValue() {
+				@Override
+				public double value() {
+					return defaults.getBulkheadRejectionCount();
+				}
+			});
+		}
+
+	}
+
+}
@@ -44,6 +44,12 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 
 	private long openTimeout = 5000;
 
+	private final AtomicInteger generation = new AtomicInteger();
+
+	private volatile Boolean forced;
+
+	private volatile CircuitBreakerRetryContext current;
+
 	public CircuitBreakerRetryPolicy() {
 		this(new SimpleRetryPolicy());
 	}
@@ -71,9 +77,90 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 		this.openTimeout = timeout;
 	}
 
+	/**
+	 * Hold the circuit open, so that every call is short circuited, until
+	 * {@link #reset()} is called.
+	 * @since 1.3
+	 */
+	public void forceOpen() {
+		this.forced = Boolean.TRUE;
+	}
+
+	/**
+	 * Hold the circuit closed, so that every call goes through to the delegate policy
+	 * however many fail, until {@link #reset()} is called.
+	 * @since 1.3
+	 */
+	public void forceClose() {
+		this.forced = Boolean.FALSE;
+	}
+
+	/**
+	 * Release a forced state and close the circuit, so that failures are counted afresh
+	 * from the next call.
+	 * @since 1.3
+	 */
+	public void reset() {
+		this.forced = null;
+		this.generation.incrementAndGet();
+	}
+
+	/**
+	 * Whether the circuit is open, either forced or because of recent failures, as of
+	 * the last call.
+	 * @return true if calls are being short circuited
+	 * @since 1.3
+	 */
+	public boolean isOpen() {
+		Boolean forced = this.forced;
+		if (forced != null) {
+			return forced;
+		}
+		CircuitBreakerRetryContext circuit = this.current;
+		return circuit != null && circuit.generation == this.generation.get()
+				&& circuit.open;
+	}
+
+	/**
+	 * Whether the circuit is held open or closed by {@link #forceOpen()} or
+	 * {@link #forceClose()}.
+	 * @return true if the state is forced
+	 * @since 1.3
+	 */
+	public boolean isForced() {
+		return this.forced != null;
+	}
+
+	/**
+	 * The number of calls short circuited since the circuit last opened.
+	 * @return the short circuit count
+	 * @since 1.3
+	 */
+	public int getShortCircuitCount() {
+		CircuitBreakerRetryContext circuit = this.current;
+		if (circuit == null || circuit.generation != this.generation.get()) {
+			return 0;
+		}
+		return circuit.shortCircuitCount.get();
+	}
+
 	@Override
 	public boolean canRetry(RetryContext context) {
 		CircuitBreakerRetryContext circuit = (CircuitBreakerRetryContext) context;
+		circuit.restartIfStale(this.generation.get());
+		Boolean forced = this.forced;
+		if (forced != null) {
+			circuit.setOpen(forced);
+			if (forced) {
+				circuit.incrementShortCircuitCount();
+				return false;
+			}
+			circuit.reset();
+			if (!this.delegate.canRetry(circuit.context)) {
+				circuit.restart();
+			}
+			return this.delegate.canRetry(circuit.context);
+		}
 		if (circuit.isOpen()) {
 			circuit.incrementShortCircuitCount();
 			return false;
@@ -86,8 +173,11 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 
 	@Override
 	public RetryContext open(RetryContext parent) {
-		return new CircuitBreakerRetryContext(parent, this.delegate, this.resetTimeout,
-				this.openTimeout);
+		CircuitBreakerRetryContext circuit = new CircuitBreakerRetryContext(parent,
+				this.delegate, this.resetTimeout, this.openTimeout);
+		circuit.generation = this.generation.get();
+		this.current = circuit;
+		return circuit;
 	}
 
 	@Override
@@ -117,6 +207,10 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 
 		private final AtomicInteger shortCircuitCount = new AtomicInteger();
 
+		private volatile boolean open;
+
+		private volatile int generation;
+
 		public CircuitBreakerRetryContext(RetryContext parent, RetryPolicy policy,
 				long timeout, long openWindow) {
 			super(parent);
@@ -137,6 +231,24 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 			setAttribute(CIRCUIT_SHORT_COUNT, shortCircuitCount.get());
 		}
 
+		private void setOpen(boolean open) {
+			this.open = open;
+			setAttribute(CIRCUIT_OPEN, open);
+		}
+
+		private void restart() {
+			this.context = createDelegateContext(this.policy, getParent());
+			this.start = System.currentTimeMillis();
+		}
+
+		private void restartIfStale(int generation) {
+			if (this.generation != generation) {
+				this.generation = generation;
+				restart();
+				setOpen(false);
+			}
+		}
+
 		private RetryContext createDelegateContext(RetryPolicy policy,
 				RetryContext parent) {
 			RetryContext context = policy.open(parent);
@@ -155,9 +267,9 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 					retryable = this.policy.canRetry(this.context);
 				}
 				else if (time < this.openWindow) {
-					if ((Boolean) getAttribute(CIRCUIT_OPEN) == false) {
+					if (!this.open) {
 						logger.trace("Opening circuit");
-						setAttribute(CIRCUIT_OPEN, true);
+						setOpen(true);
 					}
 					this.start = System.currentTimeMillis();
 					return true;
@@ -173,7 +285,7 @@ public class CircuitBreakerRetryPolicy implements RetryPolicy {
 			if (logger.isTraceEnabled()) {
 				logger.trace("Open: " + !retryable);
 			}
-			setAttribute(CIRCUIT_OPEN, !retryable);
+			setOpen(!retryable);
 			return !retryable;
 		}
 
@@ -156,6 +156,18 @@ public class CompositeRetryPolicy implements RetryPolicy {
 			super(parent);
 			this.contexts = contexts.toArray(new RetryContext[contexts.size()]);
 			this.policies = policies;
+			// expose the earliest deadline of the delegates to callbacks and backoff
+			Long deadline = null;
+			for (RetryContext context : this.contexts) {
+				Object value = context.getAttribute(DEADLINE);
+				if (value instanceof Long
+						&& (deadline == null || (Long) value < deadline)) {
+					deadline = (Long) value;
+				}
+			}
+			if (deadline != null) {
+				setAttribute(DEADLINE, deadline);
+			}
 		}
 
 	}
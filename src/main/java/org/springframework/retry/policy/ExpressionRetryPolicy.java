@@ -15,7 +15,10 @@
  */
 package org.springframework.retry.policy;
 
+import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,10 +28,14 @@ import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.expression.Expression;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.retry.RetryContext;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Subclass of {@link SimpleRetryPolicy} that delegates to super.canRetry() and, if true,
@@ -46,10 +53,14 @@ public class ExpressionRetryPolicy extends SimpleRetryPolicy implements BeanFact
 
 	private static final TemplateParserContext PARSER_CONTEXT = new TemplateParserContext();
 
-	private final Expression expression;
+	private Expression expression;
 
 	private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
 
+	private final ConcurrentMap<ResultKey, Boolean> results = new ConcurrentHashMap<ResultKey, Boolean>();
+
+	private int resultCacheSize;
+
 	/**
 	 * Construct an instance with the provided {@link Expression}.
 	 * @param expression the expression
@@ -109,6 +120,46 @@ public class ExpressionRetryPolicy extends SimpleRetryPolicy implements BeanFact
 		return this;
 	}
 
+	/**
+	 * Re-parse the expression so that it is compiled to byte code by the SpEL compiler
+	 * in the given mode. Only applies to plain (non-template) SpEL expressions; other
+	 * expressions are left untouched. With {@link SpelCompilerMode#IMMEDIATE} the
+	 * expression is compiled as soon as it has been interpreted once and a failure of
+	 * the compiled form (e.g. because a different exception type is thrown) is
+	 * propagated; with {@link SpelCompilerMode#MIXED} the expression reverts to
+	 * interpreted mode in that case.
+	 * @param compilerMode the compiler mode
+	 * @return this
+	 */
+	public ExpressionRetryPolicy withCompilerMode(SpelCompilerMode compilerMode) {
+		Assert.notNull(compilerMode, "'compilerMode' cannot be null");
+		if (this.expression instanceof SpelExpression) {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(compilerMode,
+							ExpressionRetryPolicy.class.getClassLoader()));
+			this.expression = parser
+					.parseExpression(this.expression.getExpressionString());
+			this.results.clear();
+		}
+		return this;
+	}
+
+	/**
+	 * Cache the result of the expression keyed by the exception class and message. Only
+	 * use this if the expression is pure, i.e. its result depends on nothing but the
+	 * type and message of the exception (e.g. {@code message.contains('timeout')}).
+	 * Once the cache holds {@code maxEntries} results, further results are evaluated
+	 * but not cached.
+	 * @param maxEntries the maximum number of cached results (0 disables the cache)
+	 * @return this
+	 */
+	public ExpressionRetryPolicy withResultCache(int maxEntries) {
+		Assert.isTrue(maxEntries >= 0, "'maxEntries' cannot be negative");
+		this.resultCacheSize = maxEntries;
+		this.results.clear();
+		return this;
+	}
+
 	@Override
 	public boolean canRetry(RetryContext context) {
 		Throwable lastThrowable = context.getLastThrowable();
@@ -116,11 +167,27 @@ public class ExpressionRetryPolicy extends SimpleRetryPolicy implements BeanFact
 			return super.canRetry(context);
 		}
 		else {
-			return super.canRetry(context) && this.expression
-					.getValue(this.evaluationContext, lastThrowable, Boolean.class);
+			return super.canRetry(context) && evaluate(lastThrowable);
 		}
 	}
 
+	private boolean evaluate(Throwable lastThrowable) {
+		if (this.resultCacheSize == 0) {
+			return this.expression.getValue(this.evaluationContext, lastThrowable,
+					Boolean.class);
+		}
+		ResultKey key = new ResultKey(lastThrowable);
+		Boolean result = this.results.get(key);
+		if (result == null) {
+			result = this.expression.getValue(this.evaluationContext, lastThrowable,
+					Boolean.class);
+			if (result != null && this.results.size() < this.resultCacheSize) {
+				this.results.put(key, result);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Get expression based on the expression string. At the moment supports both literal
 	 * and template expressions. Template expressions are deprecated.
@@ -146,4 +213,41 @@ public class ExpressionRetryPolicy extends SimpleRetryPolicy implements BeanFact
 				&& expression.contains(PARSER_CONTEXT.getExpressionSuffix());
 	}
 
+	/**
+	 * Cache key for the result of a pure expression.
+	 */
+	private static final class ResultKey implements Serializable {
+
+		private final Class<?> type;
+
+		private final String message;
+
+		private final int hash;
+
+		private ResultKey(Throwable throwable) {
+			this.type = throwable.getClass();
+			this.message = throwable.getMessage();
+			this.hash = 31 * this.type.hashCode() + ObjectUtils.nullSafeHashCode(this.message);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ResultKey)) {
+				return false;
+			}
+			ResultKey other = (ResultKey) obj;
+			return this.type == other.type
+					&& ObjectUtils.nullSafeEquals(this.message, other.message);
+		}
+
+	}
+
 }
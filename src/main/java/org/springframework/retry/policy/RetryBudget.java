@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.policy;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * A retry budget shared by all the callers of a dependency: a token bucket that is
+ * refilled by successful first attempts and drained by retries, so that retries can only
+ * add a bounded fraction of load on top of the first attempts (e.g. 10% with a
+ * {@link #setRetryRatio(double) retryRatio} of 0.1). In addition a small number of
+ * retries per second is always allowed, so that callers with little traffic can still
+ * retry.
+ * <p>
+ * All state is kept in atomic counters, so the budget can be shared by any number of
+ * threads without locking. Use it through a {@link RetryBudgetPolicy}.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class RetryBudget implements Serializable {
+
+	/**
+	 * The default ratio of retries to successful first attempts (0.1).
+	 */
+	public static final double DEFAULT_RETRY_RATIO = 0.1;
+
+	/**
+	 * The default maximum number of retries that can be saved up (100).
+	 */
+	public static final int DEFAULT_MAX_TOKENS = 100;
+
+	/**
+	 * The default number of retries per second allowed regardless of the balance (10).
+	 */
+	public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+
+	/**
+	 * Balances are kept in thousandths of a token.
+	 */
+	private static final long SCALE = 1000;
+
+	private final AtomicLong balance = new AtomicLong();
+
+	/**
+	 * The current second (high 32 bits) and the number of retries taken from the
+	 * per-second allowance in that second (low 32 bits).
+	 */
+	private final AtomicLong reserve = new AtomicLong();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	private volatile long deposit = (long) (DEFAULT_RETRY_RATIO * SCALE);
+
+	private volatile long maxBalance = DEFAULT_MAX_TOKENS * SCALE;
+
+	private volatile int minRetriesPerSecond = DEFAULT_MIN_RETRIES_PER_SECOND;
+
+	/**
+	 * The number of retries earned by each successful first attempt. Default
+	 * {@value #DEFAULT_RETRY_RATIO}.
+	 * @param retryRatio the ratio of retries to first attempts
+	 */
+	public void setRetryRatio(double retryRatio) {
+		Assert.isTrue(retryRatio >= 0, "retryRatio must not be negative");
+		this.deposit = (long) (retryRatio * SCALE);
+	}
+
+	/**
+	 * The maximum number of retries that can be saved up while things go well. Default
+	 * {@value #DEFAULT_MAX_TOKENS}.
+	 * @param maxTokens the capacity of the bucket
+	 */
+	public void setMaxTokens(int maxTokens) {
+		Assert.isTrue(maxTokens >= 0, "maxTokens must not be negative");
+		this.maxBalance = maxTokens * SCALE;
+	}
+
+	/**
+	 * The number of retries per second that are allowed even when the balance is
+	 * exhausted. Default {@value #DEFAULT_MIN_RETRIES_PER_SECOND}.
+	 * @param minRetriesPerSecond the floor of retries per second
+	 */
+	public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+		Assert.isTrue(minRetriesPerSecond >= 0,
+				"minRetriesPerSecond must not be negative");
+		this.minRetriesPerSecond = minRetriesPerSecond;
+	}
+
+	/**
+	 * Credit the budget for a first attempt that succeeded.
+	 */
+	public void recordSuccess() {
+		long deposit = this.deposit;
+		long max = this.maxBalance;
+		while (true) {
+			long current = this.balance.get();
+			if (current >= max) {
+				return;
+			}
+			if (this.balance.compareAndSet(current, Math.min(max, current + deposit))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Take one retry from the budget if there is one.
+	 * @return true if the retry may proceed
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			long current = this.balance.get();
+			if (current < SCALE) {
+				break;
+			}
+			if (this.balance.compareAndSet(current, current - SCALE)) {
+				return true;
+			}
+		}
+		if (tryAcquireReserve()) {
+			return true;
+		}
+		this.rejected.incrementAndGet();
+		return false;
+	}
+
+	private boolean tryAcquireReserve() {
+		int min = this.minRetriesPerSecond;
+		if (min == 0) {
+			return false;
+		}
+		long second = System.currentTimeMillis() / 1000;
+		while (true) {
+			long current = this.reserve.get();
+			long used = (current >>> 32) == second ? current & 0xFFFFFFFFL : 0;
+			if (used >= min) {
+				return false;
+			}
+			if (this.reserve.compareAndSet(current, (second << 32) | (used + 1))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * The number of retries currently available (not counting the per-second
+	 * allowance).
+	 * @return the balance of the budget
+	 */
+	public double getBalance() {
+		return (double) this.balance.get() / SCALE;
+	}
+
+	/**
+	 * The number of retries that have been refused by this budget.
+	 * @return the count of rejected retries
+	 */
+	public long getRejectedCount() {
+		return this.rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return "RetryBudget[balance=" + getBalance() + ", rejected="
+				+ getRejectedCount() + "]";
+	}
+
+}
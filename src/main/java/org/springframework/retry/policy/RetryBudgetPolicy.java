@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.policy;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryPolicy} that limits retries with a shared {@link RetryBudget}. A retry is
+ * only allowed if the delegate policy allows it and the budget has a token to spare.
+ * First attempts are always allowed, and each first attempt that succeeds refills the
+ * budget. Share one budget (and usually one policy) between all the callers of a
+ * dependency, so that when it fails broadly the retries cannot multiply the load on it.
+ * <p>
+ * The policy can also be used on its own in a {@link CompositeRetryPolicy}, but since
+ * the composite consults all its policies a token may then be spent on a retry that
+ * another policy refuses; wrapping the other policy avoids that.
+ *
+ * @since 1.3
+ */
+@SuppressWarnings("serial")
+public class RetryBudgetPolicy implements RetryPolicy {
+
+	private final RetryBudget budget;
+
+	private final RetryPolicy delegate;
+
+	/**
+	 * Create a policy that only checks the budget (for use in a
+	 * {@link CompositeRetryPolicy}).
+	 * @param budget the shared budget
+	 */
+	public RetryBudgetPolicy(RetryBudget budget) {
+		this(budget, new AlwaysRetryPolicy());
+	}
+
+	/**
+	 * Create a policy that checks the budget when the delegate allows a retry.
+	 * @param budget the shared budget
+	 * @param delegate the policy deciding whether a retry is wanted
+	 */
+	public RetryBudgetPolicy(RetryBudget budget, RetryPolicy delegate) {
+		Assert.notNull(budget, "'budget' cannot be null");
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.budget = budget;
+		this.delegate = delegate;
+	}
+
+	/**
+	 * The shared budget.
+	 * @return the budget
+	 */
+	public RetryBudget getBudget() {
+		return this.budget;
+	}
+
+	@Override
+	public boolean canRetry(RetryContext context) {
+		RetryBudgetContext budgetContext = (RetryBudgetContext) context;
+		if (!this.delegate.canRetry(budgetContext.context)) {
+			return false;
+		}
+		int count = budgetContext.getRetryCount();
+		if (count == 0) {
+			return true;
+		}
+		// canRetry() may be called more than once per attempt
+		if (budgetContext.decidedFor != count) {
+			budgetContext.allowed = this.budget.tryAcquire();
+			budgetContext.decidedFor = count;
+		}
+		return budgetContext.allowed;
+	}
+
+	@Override
+	public RetryContext open(RetryContext parent) {
+		return new RetryBudgetContext(parent, this.delegate.open(parent));
+	}
+
+	@Override
+	public void close(RetryContext context) {
+		RetryBudgetContext budgetContext = (RetryBudgetContext) context;
+		if (budgetContext.getRetryCount() == 0) {
+			this.budget.recordSuccess();
+		}
+		this.delegate.close(budgetContext.context);
+	}
+
+	@Override
+	public void registerThrowable(RetryContext context, Throwable throwable) {
+		RetryBudgetContext budgetContext = (RetryBudgetContext) context;
+		budgetContext.registerThrowable(throwable);
+		this.delegate.registerThrowable(budgetContext.context, throwable);
+	}
+
+	@Override
+	public String toString() {
+		return "RetryBudgetPolicy[budget=" + this.budget + ", delegate=" + this.delegate
+				+ "]";
+	}
+
+	private static class RetryBudgetContext extends RetryContextSupport {
+
+		private final RetryContext context;
+
+		private int decidedFor;
+
+		private boolean allowed;
+
+		RetryBudgetContext(RetryContext parent, RetryContext context) {
+			super(parent);
+			this.context = context;
+			if (context.hasAttribute(DEADLINE)) {
+				setAttribute(DEADLINE, context.getAttribute(DEADLINE));
+			}
+		}
+
+	}
+
+}
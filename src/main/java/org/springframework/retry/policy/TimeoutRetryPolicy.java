@@ -19,10 +19,20 @@ package org.springframework.retry.policy;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetryDeadlines;
 
 /**
  * A {@link RetryPolicy} that allows a retry only if it hasn't timed out. The clock is
- * started on a call to {@link #open(RetryContext)}.
+ * started on a call to {@link #open(RetryContext)}. The resulting deadline is exposed as
+ * the {@link RetryContext#DEADLINE} attribute and a nested retry never outlives the
+ * deadline of an enclosing one (see {@link RetryDeadlines}).
+ * <p>
+ * The policy itself cannot shorten a back off. Templates built with
+ * {@link org.springframework.retry.support.RetryTemplateBuilder#withinMillis(long)} and
+ * the back off of {@code @Retryable} methods sleep through a
+ * {@link org.springframework.retry.backoff.DeadlineSleeper}, which skips a back off that
+ * would reach the deadline. When configuring a template directly, give its back off
+ * policy a {@code DeadlineSleeper} to get the same behaviour.
  *
  * @author Dave Syer
  *
@@ -77,18 +87,19 @@ public class TimeoutRetryPolicy implements RetryPolicy {
 
 	private static class TimeoutRetryContext extends RetryContextSupport {
 
-		private long timeout;
-
-		private long start;
+		private final long deadline;
 
 		public TimeoutRetryContext(RetryContext parent, long timeout) {
 			super(parent);
-			this.start = System.currentTimeMillis();
-			this.timeout = timeout;
+			long start = System.currentTimeMillis();
+			long deadline = timeout < RetryDeadlines.NONE - start ? start + timeout
+					: RetryDeadlines.NONE;
+			this.deadline = Math.min(deadline, RetryDeadlines.getDeadline(parent));
+			setAttribute(DEADLINE, this.deadline);
 		}
 
 		public boolean isAlive() {
-			return (System.currentTimeMillis() - start) <= timeout;
+			return System.currentTimeMillis() <= this.deadline;
 		}
 
 	}
@@ -41,6 +41,12 @@ public class DefaultRetryStatistics extends AttributeAccessorSupport
 
 	private AtomicInteger abortCount = new AtomicInteger();
 
+	private AtomicInteger hedgeCount = new AtomicInteger();
+
+	private AtomicInteger hedgeWonCount = new AtomicInteger();
+
+	private AtomicInteger bulkheadRejectionCount = new AtomicInteger();
+
 	DefaultRetryStatistics() {
 	}
 
@@ -78,6 +84,33 @@ public class DefaultRetryStatistics extends AttributeAccessorSupport
 		return recoveryCount.get();
 	}
 
+	/**
+	 * Get the number of extra attempts started by hedging.
+	 * @return the number of hedges
+	 * @since 1.3
+	 */
+	public int getHedgeCount() {
+		return hedgeCount.get();
+	}
+
+	/**
+	 * Get the number of results delivered by a hedged attempt.
+	 * @return the number of hedges that won
+	 * @since 1.3
+	 */
+	public int getHedgeWonCount() {
+		return hedgeWonCount.get();
+	}
+
+	/**
+	 * Get the number of attempts refused by a bulkhead.
+	 * @return the number of bulkhead rejections
+	 * @since 1.3
+	 */
+	public int getBulkheadRejectionCount() {
+		return bulkheadRejectionCount.get();
+	}
+
 	public void setName(String name) {
 		this.name = name;
 	}
@@ -107,11 +140,38 @@ public class DefaultRetryStatistics extends AttributeAccessorSupport
 		this.abortCount.incrementAndGet();
 	}
 
+	/**
+	 * Count the extra attempts started by hedging.
+	 * @param count the number of hedged attempts
+	 * @since 1.3
+	 */
+	public void incrementHedgeCount(int count) {
+		this.hedgeCount.addAndGet(count);
+	}
+
+	/**
+	 * Count a result delivered by a hedged attempt.
+	 * @since 1.3
+	 */
+	public void incrementHedgeWonCount() {
+		this.hedgeWonCount.incrementAndGet();
+	}
+
+	/**
+	 * Count an attempt refused by a bulkhead.
+	 * @since 1.3
+	 */
+	public void incrementBulkheadRejectionCount() {
+		this.bulkheadRejectionCount.incrementAndGet();
+	}
+
 	@Override
 	public String toString() {
 		return "DefaultRetryStatistics [name=" + name + ", startedCount=" + startedCount
 				+ ", completeCount=" + completeCount + ", recoveryCount=" + recoveryCount
-				+ ", errorCount=" + errorCount + ", abortCount=" + abortCount + "]";
+				+ ", errorCount=" + errorCount + ", abortCount=" + abortCount
+				+ ", hedgeCount=" + hedgeCount + ", hedgeWonCount=" + hedgeWonCount
+				+ ", bulkheadRejectionCount=" + bulkheadRejectionCount + "]";
 	}
 
 }
@@ -71,6 +71,46 @@ public class DefaultStatisticsRepository implements StatisticsRepository {
 		getStatistics(name).incrementAbortCount();
 	}
 
+	/**
+	 * Count the extra attempts started by hedging. Only recorded if the statistics are
+	 * {@link DefaultRetryStatistics}.
+	 * @param name the name of the retry block
+	 * @param count the number of hedged attempts
+	 * @since 1.3
+	 */
+	public void addHedges(String name, int count) {
+		MutableRetryStatistics stats = getStatistics(name);
+		if (stats instanceof DefaultRetryStatistics) {
+			((DefaultRetryStatistics) stats).incrementHedgeCount(count);
+		}
+	}
+
+	/**
+	 * Count a result delivered by a hedged attempt. Only recorded if the statistics are
+	 * {@link DefaultRetryStatistics}.
+	 * @param name the name of the retry block
+	 * @since 1.3
+	 */
+	public void addHedgeWon(String name) {
+		MutableRetryStatistics stats = getStatistics(name);
+		if (stats instanceof DefaultRetryStatistics) {
+			((DefaultRetryStatistics) stats).incrementHedgeWonCount();
+		}
+	}
+
+	/**
+	 * Count an attempt refused by a bulkhead. Only recorded if the statistics are
+	 * {@link DefaultRetryStatistics}.
+	 * @param name the name of the retry block
+	 * @since 1.3
+	 */
+	public void addBulkheadRejection(String name) {
+		MutableRetryStatistics stats = getStatistics(name);
+		if (stats instanceof DefaultRetryStatistics) {
+			((DefaultRetryStatistics) stats).incrementBulkheadRejectionCount();
+		}
+	}
+
 	private MutableRetryStatistics getStatistics(String name) {
 		MutableRetryStatistics stats;
 		if (!map.containsKey(name)) {
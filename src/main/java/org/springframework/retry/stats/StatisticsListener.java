@@ -39,31 +39,51 @@ public class StatisticsListener extends RetryListenerSupport {
 	public <T, E extends Throwable> void close(RetryContext context,
 			RetryCallback<T, E> callback, Throwable throwable) {
 		String name = getName(context);
-		if (name != null) {
-			if (!isExhausted(context) || isGlobal(context)) {
-				// If exhausted and stateful then the retry callback was not called. If
-				// exhausted and stateless it was called, but the started counter was
-				// already incremented.
-				repository.addStarted(name);
-			}
-			if (isRecovered(context)) {
-				repository.addRecovery(name);
+		if (name == null) {
+			return;
+		}
+		boolean exhausted = isExhausted(context);
+		if (!exhausted || isGlobal(context)) {
+			// If exhausted and stateful then the retry callback was not called. If
+			// exhausted and stateless it was called, but the started counter was
+			// already incremented.
+			repository.addStarted(name);
+		}
+		if (isRecovered(context)) {
+			repository.addRecovery(name);
+		}
+		else if (exhausted) {
+			repository.addAbort(name);
+		}
+		else if (isClosed(context)) {
+			repository.addComplete(name);
+		}
+		if (repository instanceof DefaultStatisticsRepository) {
+			DefaultStatisticsRepository defaults = (DefaultStatisticsRepository) repository;
+			Integer hedges = (Integer) context.getAttribute(RetryContext.HEDGE_COUNT);
+			if (hedges != null) {
+				defaults.addHedges(name, hedges);
 			}
-			else if (isExhausted(context)) {
-				repository.addAbort(name);
+			if (context.hasAttribute(RetryContext.HEDGE_WON)) {
+				defaults.addHedgeWon(name);
 			}
-			else if (isClosed(context)) {
-				repository.addComplete(name);
+		}
+		Object open = context.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_OPEN);
+		Object shortCount = context
+				.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_SHORT_COUNT);
+		if (open == null && shortCount == null) {
+			// only circuit breakers need the statistics themselves
+			return;
+		}
+		RetryStatistics stats = repository.findOne(name);
+		if (stats instanceof AttributeAccessor) {
+			AttributeAccessor accessor = (AttributeAccessor) stats;
+			if (open != null) {
+				accessor.setAttribute(CircuitBreakerRetryPolicy.CIRCUIT_OPEN, open);
 			}
-			RetryStatistics stats = repository.findOne(name);
-			if (stats instanceof AttributeAccessor) {
-				AttributeAccessor accessor = (AttributeAccessor) stats;
-				for (String key : new String[] { CircuitBreakerRetryPolicy.CIRCUIT_OPEN,
-						CircuitBreakerRetryPolicy.CIRCUIT_SHORT_COUNT }) {
-					if (context.hasAttribute(key)) {
-						accessor.setAttribute(key, context.getAttribute(key));
-					}
-				}
+			if (shortCount != null) {
+				accessor.setAttribute(CircuitBreakerRetryPolicy.CIRCUIT_SHORT_COUNT,
+						shortCount);
 			}
 		}
 	}
@@ -79,6 +99,10 @@ public class StatisticsListener extends RetryListenerSupport {
 				repository.addStarted(name);
 			}
 			repository.addError(name);
+			if (context.hasAttribute(RetryContext.BULKHEAD_REJECTED)
+					&& repository instanceof DefaultStatisticsRepository) {
+				((DefaultStatisticsRepository) repository).addBulkheadRejection(name);
+			}
 		}
 	}
 
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.bulkhead.BulkheadFullException;
+import org.springframework.retry.bulkhead.BulkheadPolicy;
+import org.springframework.retry.listener.RetryListenerDispatcher;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Non-blocking counterpart of {@link RetryTemplate} for asynchronous operations. The
+ * callback starts an attempt and returns a {@link ListenableFuture} for its outcome; if
+ * the attempt fails and the {@link RetryPolicy} allows it, the callback is called again
+ * (re-subscribing, in reactive terms) after the delay of the {@link BackOffPolicy},
+ * scheduled on a {@link ScheduledExecutorService} instead of sleeping. No thread is
+ * blocked between attempts, so the same retry and back off configuration can be used on
+ * an event loop as in blocking code.
+ * <p>
+ * The delay is taken from a {@link SleepingBackOffPolicy} by giving a copy of it a
+ * {@link Sleeper} that records the period instead of sleeping, so the policy should be
+ * fully configured before it is {@link #setBackOffPolicy(BackOffPolicy) set}. Other back
+ * off policies are applied as they are (and may block) and the next attempt is
+ * scheduled straight away.
+ * <p>
+ * {@link RetryListener}s are called as for a {@link RetryTemplate}: {@code open} on the
+ * calling thread, {@code onError} and {@code close} on the thread that completes the
+ * attempt. The {@link RetrySynchronizationManager} is not used, since attempts do not run
+ * on the calling thread, but the retry context of the caller (if any) is the parent of
+ * the new context. A single value publisher (or any other asynchronous source) can be
+ * adapted to a {@link ListenableFuture} with a {@link SettableListenableFuture}.
+ *
+ * @since 1.3
+ */
+public class AsyncRetryTemplate {
+
+	private static final ThreadLocal<Long> delay = new ThreadLocal<Long>();
+
+	private static final Sleeper RECORDER = new DelayRecorder();
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final ScheduledExecutorService scheduler;
+
+	private volatile RetryPolicy retryPolicy = new SimpleRetryPolicy(3);
+
+	private volatile BackOffPolicy backOffPolicy = new NoBackOffPolicy();
+
+	private volatile RetryListenerDispatcher listeners = RetryListenerDispatcher.EMPTY;
+
+	private volatile BulkheadPolicy bulkheadPolicy;
+
+	/**
+	 * Create a template that schedules attempts on the given scheduler. Attempts run on
+	 * the scheduler threads, so they should only start the asynchronous operation and
+	 * not block.
+	 * @param scheduler the scheduler
+	 */
+	public AsyncRetryTemplate(ScheduledExecutorService scheduler) {
+		Assert.notNull(scheduler, "'scheduler' cannot be null");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Setter for {@link RetryPolicy}. Default a {@link SimpleRetryPolicy} with 3
+	 * attempts.
+	 * @param retryPolicy the {@link RetryPolicy}
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		Assert.notNull(retryPolicy, "'retryPolicy' cannot be null");
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Setter for {@link BackOffPolicy}. Default a {@link NoBackOffPolicy}.
+	 * @param backOffPolicy the {@link BackOffPolicy}
+	 */
+	public void setBackOffPolicy(BackOffPolicy backOffPolicy) {
+		Assert.notNull(backOffPolicy, "'backOffPolicy' cannot be null");
+		if (backOffPolicy instanceof SleepingBackOffPolicy) {
+			backOffPolicy = ((SleepingBackOffPolicy<?>) backOffPolicy)
+					.withSleeper(RECORDER);
+		}
+		this.backOffPolicy = backOffPolicy;
+	}
+
+	/**
+	 * Setter for {@link BulkheadPolicy}. When set, each attempt must acquire a permit
+	 * from the bulkhead, and fails with a {@link BulkheadFullException} if it cannot. The
+	 * permit is held until the future of the attempt completes. A bulkhead that waits for
+	 * a permit blocks the thread starting the attempt (a scheduler thread for retries).
+	 * @param bulkheadPolicy the {@link BulkheadPolicy} (null for no limit)
+	 */
+	public void setBulkheadPolicy(BulkheadPolicy bulkheadPolicy) {
+		this.bulkheadPolicy = bulkheadPolicy;
+	}
+
+	/**
+	 * Setter for listeners. The listeners are executed before and after a retry block
+	 * (i.e. before and after all the attempts), and on an error (every attempt).
+	 * @param listeners the {@link RetryListener}s
+	 * @see RetryListener
+	 */
+	public void setListeners(RetryListener[] listeners) {
+		this.listeners = new RetryListenerDispatcher(listeners);
+	}
+
+	/**
+	 * Execute the callback until its future succeeds or the retry is exhausted.
+	 * @param retryCallback the callback starting each attempt
+	 * @param <T> the type of the result
+	 * @param <E> the type of exception the callback may throw
+	 * @return a future for the result of the first successful attempt, or failed with
+	 * the last exception
+	 */
+	public <T, E extends Throwable> ListenableFuture<T> execute(
+			RetryCallback<? extends ListenableFuture<T>, E> retryCallback) {
+		return execute(retryCallback, null);
+	}
+
+	/**
+	 * Execute the callback until its future succeeds, with a fallback on exhausted retry
+	 * to the {@link RecoveryCallback}.
+	 * @param retryCallback the callback starting each attempt
+	 * @param recoveryCallback the recovery callback (may be null)
+	 * @param <T> the type of the result
+	 * @param <E> the type of exception the callback may throw
+	 * @return a future for the result of the first successful attempt, or of the
+	 * recovery callback if the retry is exhausted
+	 */
+	public <T, E extends Throwable> ListenableFuture<T> execute(
+			RetryCallback<? extends ListenableFuture<T>, E> retryCallback,
+			RecoveryCallback<T> recoveryCallback) {
+		RetryPolicy retryPolicy = this.retryPolicy;
+		RetryContext context = retryPolicy.open(RetrySynchronizationManager.getContext());
+		Execution<T, E> execution = new Execution<T, E>(retryPolicy, this.backOffPolicy,
+				this.bulkheadPolicy, this.listeners, context, retryCallback,
+				recoveryCallback);
+		if (!execution.listeners.open(context, retryCallback)) {
+			execution.finish(null, new TerminatedRetryException(
+					"Retry terminated abnormally by interceptor before first attempt"));
+		}
+		else {
+			execution.backOffContext = execution.backOffPolicy.start(context);
+			execution.run();
+		}
+		return execution.result;
+	}
+
+	/**
+	 * The state of one retry sequence; each attempt runs {@link #run()} and the outcome
+	 * of its future comes back to this callback.
+	 */
+	private final class Execution<T, E extends Throwable>
+			implements Runnable, ListenableFutureCallback<T> {
+
+		private final SettableListenableFuture<T> result = new SettableListenableFuture<T>();
+
+		private final RetryPolicy retryPolicy;
+
+		private final BackOffPolicy backOffPolicy;
+
+		private final BulkheadPolicy bulkheadPolicy;
+
+		private final RetryListenerDispatcher listeners;
+
+		private final RetryContext context;
+
+		private final RetryCallback<? extends ListenableFuture<T>, E> retryCallback;
+
+		private final RecoveryCallback<T> recoveryCallback;
+
+		private BackOffContext backOffContext;
+
+		private volatile boolean permit;
+
+		private volatile long attemptStart;
+
+		private Execution(RetryPolicy retryPolicy, BackOffPolicy backOffPolicy,
+				BulkheadPolicy bulkheadPolicy, RetryListenerDispatcher listeners,
+				RetryContext context,
+				RetryCallback<? extends ListenableFuture<T>, E> retryCallback,
+				RecoveryCallback<T> recoveryCallback) {
+			this.retryPolicy = retryPolicy;
+			this.backOffPolicy = backOffPolicy;
+			this.bulkheadPolicy = bulkheadPolicy;
+			this.listeners = listeners;
+			this.context = context;
+			this.retryCallback = retryCallback;
+			this.recoveryCallback = recoveryCallback;
+		}
+
+		@Override
+		public void run() {
+			if (this.result.isCancelled()) {
+				finish(null, this.context.getLastThrowable());
+				return;
+			}
+			if (this.bulkheadPolicy != null) {
+				if (!this.bulkheadPolicy.acquire()) {
+					this.context.setAttribute(RetryContext.BULKHEAD_REJECTED, true);
+					onFailure(new BulkheadFullException(
+							"Bulkhead full: " + this.bulkheadPolicy));
+					return;
+				}
+				this.context.removeAttribute(RetryContext.BULKHEAD_REJECTED);
+				this.attemptStart = System.nanoTime();
+				this.permit = true;
+			}
+			ListenableFuture<T> attempt;
+			try {
+				attempt = this.retryCallback.doWithRetry(this.context);
+			}
+			catch (Throwable e) {
+				onFailure(e);
+				return;
+			}
+			if (attempt == null) {
+				onSuccess(null);
+			}
+			else {
+				attempt.addCallback(this);
+			}
+		}
+
+		@Override
+		public void onSuccess(T value) {
+			release(true);
+			finish(value, null);
+		}
+
+		@Override
+		public void onFailure(Throwable ex) {
+			release(false);
+			this.retryPolicy.registerThrowable(this.context, ex);
+			this.listeners.onError(this.context, this.retryCallback, ex);
+			if (this.result.isCancelled() || !this.retryPolicy.canRetry(this.context)
+					|| this.context.isExhaustedOnly()) {
+				exhausted(ex);
+				return;
+			}
+			long period;
+			try {
+				delay.remove();
+				this.backOffPolicy.backOff(this.backOffContext);
+				Long recorded = delay.get();
+				period = recorded == null ? 0 : recorded;
+			}
+			catch (Throwable e) {
+				finish(null, e);
+				return;
+			}
+			finally {
+				delay.remove();
+			}
+			if (AsyncRetryTemplate.this.logger.isDebugEnabled()) {
+				AsyncRetryTemplate.this.logger.debug("Retry: count="
+						+ this.context.getRetryCount() + " in " + period + "ms");
+			}
+			AsyncRetryTemplate.this.scheduler.schedule(this, period,
+					TimeUnit.MILLISECONDS);
+		}
+
+		private void release(boolean success) {
+			if (this.permit) {
+				this.permit = false;
+				this.bulkheadPolicy.release(success,
+						System.nanoTime() - this.attemptStart);
+			}
+		}
+
+		private void exhausted(Throwable ex) {
+			this.context.setAttribute(RetryContext.EXHAUSTED, true);
+			if (this.recoveryCallback == null || this.result.isCancelled()) {
+				finish(null, ex);
+				return;
+			}
+			T recovered;
+			try {
+				recovered = this.recoveryCallback.recover(this.context);
+			}
+			catch (Throwable e) {
+				finish(null, e);
+				return;
+			}
+			this.context.setAttribute(RetryContext.RECOVERED, true);
+			finish(recovered, null);
+		}
+
+		private void finish(T value, Throwable error) {
+			try {
+				this.retryPolicy.close(this.context);
+				this.context.setAttribute(RetryContext.CLOSED, true);
+			}
+			finally {
+				try {
+					this.listeners.close(this.context, this.retryCallback, error);
+				}
+				finally {
+					if (error != null) {
+						this.result.setException(error);
+					}
+					else {
+						this.result.set(value);
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * A {@link Sleeper} that records the back off period of the current thread instead
+	 * of sleeping.
+	 */
+	@SuppressWarnings("serial")
+	private static final class DelayRecorder implements Sleeper {
+
+		@Override
+		public void sleep(long backOffPeriod) {
+			delay.set(backOffPeriod);
+		}
+
+		private Object readResolve() {
+			return RECORDER;
+		}
+
+	}
+
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.retry.BatchResult;
+import org.springframework.retry.BatchRetryCallback;
+import org.springframework.retry.BatchRetryOperations;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryException;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.listener.RetryListenerDispatcher;
+import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.RetryCacheCapacityExceededException;
+import org.springframework.retry.policy.RetryContextCache;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link BatchRetryOperations} that gives every item its own {@link RetryContext} from
+ * the {@link RetryPolicy}, and calls the {@link BatchRetryCallback} again with only the
+ * items that failed, until they all succeed or their retry is exhausted. An item whose
+ * retry is exhausted is reported in the {@link BatchResult#getFailures() failures} of the
+ * result with its last exception. Between attempts the {@link BackOffPolicy} is applied
+ * once for the whole batch.
+ * <p>
+ * The contexts of failed items are kept in a {@link RetryContextCache} keyed by the item,
+ * as for stateful retry in a {@link RetryTemplate}, until the item succeeds or is
+ * exhausted. The items must therefore have consistent {@link Object#equals(Object)
+ * equals} and {@link Object#hashCode() hashCode} implementations. The capacity of the
+ * cache limits the number of items that can be failing at the same time: an item that
+ * does not fit is reported as a failure straight away. If the execution is aborted
+ * (e.g. a listener vetoes it or the back off is interrupted) the contexts of the items
+ * not yet reported are closed and removed from the cache.
+ * <p>
+ * {@link RetryListener}s see the batch as a whole: they are opened and closed once per
+ * execution, and notified once for every attempt in which an item failed. An
+ * {@link Error} thrown by the callback is not retried but propagated to the caller.
+ *
+ * @since 1.3
+ */
+public class BatchRetryTemplate implements BatchRetryOperations {
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private volatile RetryPolicy retryPolicy = new SimpleRetryPolicy(3);
+
+	private volatile BackOffPolicy backOffPolicy = new NoBackOffPolicy();
+
+	private volatile RetryContextCache retryContextCache = new MapRetryContextCache();
+
+	private volatile RetryListenerDispatcher listeners = RetryListenerDispatcher.EMPTY;
+
+	/**
+	 * Setter for the {@link RetryPolicy} applied to each item. Default a
+	 * {@link SimpleRetryPolicy} with 3 attempts.
+	 * @param retryPolicy the {@link RetryPolicy}
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		Assert.notNull(retryPolicy, "'retryPolicy' cannot be null");
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Setter for the {@link BackOffPolicy} applied between attempts. Default a
+	 * {@link NoBackOffPolicy}.
+	 * @param backOffPolicy the {@link BackOffPolicy}
+	 */
+	public void setBackOffPolicy(BackOffPolicy backOffPolicy) {
+		Assert.notNull(backOffPolicy, "'backOffPolicy' cannot be null");
+		this.backOffPolicy = backOffPolicy;
+	}
+
+	/**
+	 * Public setter for the {@link RetryContextCache} holding the contexts of the failed
+	 * items. Default a {@link MapRetryContextCache}.
+	 * @param retryContextCache the {@link RetryContextCache} to set.
+	 */
+	public void setRetryContextCache(RetryContextCache retryContextCache) {
+		Assert.notNull(retryContextCache, "'retryContextCache' cannot be null");
+		this.retryContextCache = retryContextCache;
+	}
+
+	/**
+	 * Setter for listeners. The listeners are executed before and after the batch (i.e.
+	 * before and after all the attempts), and after every attempt in which an item
+	 * failed. The callback they are passed cannot be called directly.
+	 * @param listeners the {@link RetryListener}s
+	 * @see RetryListener
+	 */
+	public void setListeners(RetryListener[] listeners) {
+		this.listeners = new RetryListenerDispatcher(listeners);
+	}
+
+	@Override
+	public <I, R> BatchResult<I, R> execute(Collection<? extends I> items,
+			BatchRetryCallback<I, R> batchCallback) {
+
+		RetryPolicy retryPolicy = this.retryPolicy;
+		BackOffPolicy backOffPolicy = this.backOffPolicy;
+		RetryListenerDispatcher listeners = this.listeners;
+
+		RetryContextSupport batchContext = new RetryContextSupport(
+				RetrySynchronizationManager.getContext());
+		Map<I, RetryContext> pending = new LinkedHashMap<I, RetryContext>();
+		AttemptCallback<I, R> attemptCallback = new AttemptCallback<I, R>(batchCallback,
+				pending);
+
+		BatchResult<I, R> result = new BatchResult<I, R>();
+		BackOffContext backOffContext = null;
+		Throwable lastException = null;
+		RetrySynchronizationManager.register(batchContext);
+		try {
+			if (!listeners.open(batchContext, attemptCallback)) {
+				throw new TerminatedRetryException(
+						"Retry terminated abnormally by interceptor before first attempt");
+			}
+			for (I item : items) {
+				if (!pending.containsKey(item)) {
+					pending.put(item, open(retryPolicy, item, batchContext));
+				}
+			}
+			while (!pending.isEmpty()) {
+				BatchResult<I, R> attempt = new BatchResult<I, R>();
+				Exception error = null;
+				try {
+					attemptCallback.doWithRetry(attempt);
+				}
+				catch (Exception e) {
+					error = e;
+				}
+				catch (Error e) {
+					lastException = e;
+					batchContext.registerThrowable(e);
+					listeners.onError(batchContext, attemptCallback, e);
+					throw e;
+				}
+				Throwable lastFailure = merge(retryPolicy, pending, attempt, error,
+						result);
+				if (lastFailure != null) {
+					lastException = lastFailure;
+					batchContext.registerThrowable(lastFailure);
+					listeners.onError(batchContext, attemptCallback, lastFailure);
+				}
+				if (!pending.isEmpty()) {
+					if (this.logger.isDebugEnabled()) {
+						this.logger.debug("Retrying " + pending.size() + " item(s), attempt="
+								+ batchContext.getRetryCount());
+					}
+					if (backOffContext == null) {
+						backOffContext = backOffPolicy.start(batchContext);
+					}
+					backOffPolicy.backOff(backOffContext);
+				}
+			}
+		}
+		finally {
+			for (Map.Entry<I, RetryContext> entry : pending.entrySet()) {
+				// aborted: the items were not reported, so their retry ends here
+				close(retryPolicy, entry.getKey(), entry.getValue());
+			}
+			listeners.close(batchContext, attemptCallback, lastException);
+			RetrySynchronizationManager.clear();
+		}
+		return result;
+
+	}
+
+	private <I, R> Throwable merge(RetryPolicy retryPolicy,
+			Map<I, RetryContext> pending, BatchResult<I, R> attempt, Throwable error,
+			BatchResult<I, R> result) {
+		Map<I, R> results = attempt.getResults();
+		Map<I, Throwable> failures = attempt.getFailures();
+		Throwable lastFailure = null;
+		for (Iterator<Map.Entry<I, RetryContext>> iterator = pending.entrySet()
+				.iterator(); iterator.hasNext();) {
+			Map.Entry<I, RetryContext> entry = iterator.next();
+			I item = entry.getKey();
+			RetryContext context = entry.getValue();
+			if (results.containsKey(item)) {
+				result.success(item, results.get(item));
+				close(retryPolicy, item, context);
+				iterator.remove();
+				continue;
+			}
+			Throwable failure = failures.get(item);
+			if (failure == null) {
+				failure = error != null ? error
+						: new RetryException("No outcome reported for item: " + item);
+			}
+			lastFailure = failure;
+			retryPolicy.registerThrowable(context, failure);
+			if (!retryPolicy.canRetry(context) || context.isExhaustedOnly()
+					|| !cache(item, context)) {
+				context.setAttribute(RetryContext.EXHAUSTED, true);
+				result.failure(item, failure);
+				close(retryPolicy, item, context);
+				iterator.remove();
+			}
+		}
+		return lastFailure;
+	}
+
+	/**
+	 * Keep the context of an item that is going to be retried, unless the cache is full,
+	 * in which case the retry of the item is treated as exhausted.
+	 */
+	private boolean cache(Object item, RetryContext context) {
+		try {
+			this.retryContextCache.put(item, context);
+			return true;
+		}
+		catch (RetryCacheCapacityExceededException e) {
+			this.logger.warn("Cannot retry item: " + item, e);
+			return false;
+		}
+	}
+
+	private RetryContext open(RetryPolicy retryPolicy, Object item, RetryContext parent) {
+		if (this.retryContextCache.containsKey(item)) {
+			RetryContext context = this.retryContextCache.get(item);
+			if (context != null) {
+				context.removeAttribute(RetryContext.CLOSED);
+				context.removeAttribute(RetryContext.EXHAUSTED);
+				return context;
+			}
+		}
+		return retryPolicy.open(parent);
+	}
+
+	private void close(RetryPolicy retryPolicy, Object item, RetryContext context) {
+		this.retryContextCache.remove(item);
+		retryPolicy.close(context);
+		context.setAttribute(RetryContext.CLOSED, true);
+	}
+
+	/**
+	 * Runs one attempt of the {@link BatchRetryCallback} over the items still pending.
+	 * This is also the {@link RetryCallback} passed to the listeners, and calling it
+	 * returns the outcomes of a new attempt.
+	 */
+	private static final class AttemptCallback<I, R>
+			implements RetryCallback<BatchResult<I, R>, Exception> {
+
+		private final BatchRetryCallback<I, R> batchCallback;
+
+		private final Map<I, RetryContext> pending;
+
+		private AttemptCallback(BatchRetryCallback<I, R> batchCallback,
+				Map<I, RetryContext> pending) {
+			this.batchCallback = batchCallback;
+			this.pending = pending;
+		}
+
+		@Override
+		public BatchResult<I, R> doWithRetry(RetryContext context) throws Exception {
+			BatchResult<I, R> result = new BatchResult<I, R>();
+			doWithRetry(result);
+			return result;
+		}
+
+		private void doWithRetry(BatchResult<I, R> result) throws Exception {
+			this.batchCallback.doWithRetry(Collections.unmodifiableMap(this.pending),
+					result);
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.retry.ExhaustedRetryException;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryOperations} that runs each whole retry sequence (attempts, back offs and
+ * recovery) of a delegate on a thread from an {@link Executor}, while the caller waits
+ * for the outcome. The result is returned and the exceptions are rethrown exactly as by
+ * the delegate, and the retry context of the caller (if any) is the parent of the
+ * sequence, so nested retries behave as usual.
+ * <p>
+ * The main use is to keep blocking back offs off threads that should not block: on a
+ * JVM with virtual threads pass a virtual thread per task executor (e.g.
+ * {@code Executors.newVirtualThreadPerTaskExecutor()}) and a
+ * {@link org.springframework.retry.backoff.ParkingSleeper} to the back off policy of the
+ * delegate, and each retry sequence then sleeps on its own virtual thread.
+ *
+ * @since 1.3
+ */
+public class ExecutorRetryOperations implements RetryOperations {
+
+	private final RetryOperations delegate;
+
+	private final Executor executor;
+
+	/**
+	 * Create an instance that runs the retries of the delegate on the executor.
+	 * @param delegate the retry operations to delegate to
+	 * @param executor the executor for the retry sequences
+	 */
+	public ExecutorRetryOperations(RetryOperations delegate, Executor executor) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		Assert.notNull(executor, "'executor' cannot be null");
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(final RetryCallback<T, E> retryCallback)
+			throws E {
+		return this.<T, E>submit(new Execution<T>() {
+
+			@Override
+			public T execute() throws Throwable {
+				return ExecutorRetryOperations.this.delegate.execute(retryCallback);
+			}
+
+		});
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(final RetryCallback<T, E> retryCallback,
+			final RecoveryCallback<T> recoveryCallback) throws E {
+		return this.<T, E>submit(new Execution<T>() {
+
+			@Override
+			public T execute() throws Throwable {
+				return ExecutorRetryOperations.this.delegate.execute(retryCallback,
+						recoveryCallback);
+			}
+
+		});
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(final RetryCallback<T, E> retryCallback,
+			final RetryState retryState) throws E, ExhaustedRetryException {
+		return this.<T, E>submit(new Execution<T>() {
+
+			@Override
+			public T execute() throws Throwable {
+				return ExecutorRetryOperations.this.delegate.execute(retryCallback,
+						retryState);
+			}
+
+		});
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(final RetryCallback<T, E> retryCallback,
+			final RecoveryCallback<T> recoveryCallback, final RetryState retryState)
+			throws E {
+		return this.<T, E>submit(new Execution<T>() {
+
+			@Override
+			public T execute() throws Throwable {
+				return ExecutorRetryOperations.this.delegate.execute(retryCallback,
+						recoveryCallback, retryState);
+			}
+
+		});
+	}
+
+	private <T, E extends Throwable> T submit(final Execution<T> execution) throws E {
+		final RetryContext parent = RetrySynchronizationManager.getContext();
+		FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+
+			@Override
+			public T call() throws Exception {
+				RetryContext previous = RetrySynchronizationManager.register(parent);
+				try {
+					return execution.execute();
+				}
+				catch (Exception e) {
+					throw e;
+				}
+				catch (Error e) {
+					throw e;
+				}
+				catch (Throwable e) {
+					throw new IllegalStateException(e);
+				}
+				finally {
+					RetrySynchronizationManager.register(previous);
+				}
+			}
+
+		});
+		this.executor.execute(task);
+		try {
+			return task.get();
+		}
+		catch (InterruptedException e) {
+			task.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new TerminatedRetryException("Interrupted while waiting for retry", e);
+		}
+		catch (ExecutionException e) {
+			throw ExecutorRetryOperations.<E>rethrow(e.getCause());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> RuntimeException rethrow(Throwable cause)
+			throws E {
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		// a checked exception can only have come from the callback
+		throw (E) cause;
+	}
+
+	private interface Execution<T> {
+
+		T execute() throws Throwable;
+
+	}
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.util.Assert;
+
+/**
+ * A discrete-event simulation of a fleet of clients calling a shared dependency with the
+ * same {@link RetryPolicy} and back off, to see how much load the retries add when the
+ * dependency fails and how long it takes to recover. Where {@link RetrySimulator} shows
+ * the sleeps of one client, this shows the effect of all of them together.
+ * <p>
+ * Each client makes a request every {@link #setRequestInterval(long) requestInterval}
+ * (starting at a random offset), and each request is a retry sequence driven by the
+ * retry policy and back off policy in simulated time. The dependency serves up to
+ * {@link #setCapacity(double) capacity} attempts per second; attempts beyond that in a
+ * {@link #setTick(long) tick} fail. Otherwise an attempt fails with the
+ * {@link #setBaseFailureProbability(double) base probability}, or the
+ * {@link #setOutageFailureProbability(double) outage probability} during the
+ * {@link #setOutage(long, long) outage}, unless a custom {@link FailureCurve} is set.
+ * Each client may also have a {@link #setCircuitBreaker(int, long, long) circuit
+ * breaker}, modelled on {@link org.springframework.retry.policy.CircuitBreakerRetryPolicy}
+ * but in simulated time.
+ * <p>
+ * The simulation runs on the calling thread and, for a given {@link #setSeed(long)
+ * seed}, gives the same results every time as long as the retry and back off policies
+ * do not depend on the clock or on their own random numbers. Use
+ * {@link #setJitter(boolean) jitter} rather than a random back off policy to simulate
+ * randomised back off repeatably. Policies that depend on the clock (like
+ * {@link org.springframework.retry.policy.TimeoutRetryPolicy}) are not suitable.
+ *
+ * @since 1.3
+ */
+public class FleetRetrySimulator {
+
+	private static final Exception FAILURE = new SimulatedFailure();
+
+	private final int clients;
+
+	private final RetryPolicy retryPolicy;
+
+	private final SleepingBackOffPolicy<?> backOffPolicy;
+
+	private long requestInterval = 1000;
+
+	private double capacity;
+
+	private double baseFailureProbability;
+
+	private double outageFailureProbability = 1;
+
+	private long outageStart;
+
+	private long outageDuration;
+
+	private FailureCurve failureCurve;
+
+	private int circuitMaxFailures;
+
+	private long circuitOpenTimeout;
+
+	private long circuitResetTimeout;
+
+	private boolean jitter;
+
+	private long tick = 1000;
+
+	private double recoveryThreshold = 0.95;
+
+	private long seed;
+
+	/**
+	 * Create a simulator for a fleet of clients.
+	 * @param clients the number of clients
+	 * @param retryPolicy the retry policy of every client
+	 * @param backOffPolicy the back off policy of every client (null for none)
+	 */
+	public FleetRetrySimulator(int clients, RetryPolicy retryPolicy,
+			SleepingBackOffPolicy<?> backOffPolicy) {
+		Assert.isTrue(clients > 0, "clients must be positive");
+		Assert.notNull(retryPolicy, "RetryPolicy must not be null");
+		this.clients = clients;
+		this.retryPolicy = retryPolicy;
+		this.backOffPolicy = backOffPolicy;
+	}
+
+	/**
+	 * The time between the requests of each client. Default 1000ms.
+	 * @param requestInterval the interval in milliseconds
+	 */
+	public void setRequestInterval(long requestInterval) {
+		Assert.isTrue(requestInterval > 0, "requestInterval must be positive");
+		this.requestInterval = requestInterval;
+	}
+
+	/**
+	 * The number of attempts per second the dependency can serve. Default 0 (unlimited).
+	 * @param capacity the capacity in attempts per second
+	 */
+	public void setCapacity(double capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * The probability that an attempt fails outside the outage. Default 0.
+	 * @param baseFailureProbability the probability between 0 and 1
+	 */
+	public void setBaseFailureProbability(double baseFailureProbability) {
+		this.baseFailureProbability = baseFailureProbability;
+	}
+
+	/**
+	 * The probability that an attempt fails during the outage. Default 1.
+	 * @param outageFailureProbability the probability between 0 and 1
+	 */
+	public void setOutageFailureProbability(double outageFailureProbability) {
+		this.outageFailureProbability = outageFailureProbability;
+	}
+
+	/**
+	 * A period when the dependency fails with the outage failure probability. Default
+	 * none.
+	 * @param start the start of the outage in milliseconds of simulated time
+	 * @param duration the length of the outage in milliseconds
+	 */
+	public void setOutage(long start, long duration) {
+		Assert.isTrue(start >= 0 && duration >= 0, "start and duration must not be negative");
+		this.outageStart = start;
+		this.outageDuration = duration;
+	}
+
+	/**
+	 * A custom failure curve, replacing the base and outage failure probabilities. The
+	 * capacity still applies.
+	 * @param failureCurve the failure curve
+	 */
+	public void setFailureCurve(FailureCurve failureCurve) {
+		this.failureCurve = failureCurve;
+	}
+
+	/**
+	 * Give each client a circuit breaker that opens when {@code maxFailures} attempts
+	 * fail within {@code openTimeout}, and closes again after {@code resetTimeout}.
+	 * While it is open requests and retries are refused without reaching the dependency.
+	 * @param maxFailures the number of failures that open the circuit
+	 * @param openTimeout the window for counting failures in milliseconds
+	 * @param resetTimeout the time the circuit stays open in milliseconds
+	 */
+	public void setCircuitBreaker(int maxFailures, long openTimeout, long resetTimeout) {
+		Assert.isTrue(maxFailures > 0, "maxFailures must be positive");
+		this.circuitMaxFailures = maxFailures;
+		this.circuitOpenTimeout = openTimeout;
+		this.circuitResetTimeout = resetTimeout;
+	}
+
+	/**
+	 * Randomise each back off uniformly between 0 and the interval from the back off
+	 * policy ("full jitter"), using the seeded random numbers of the simulation. Default
+	 * false.
+	 * @param jitter whether to apply jitter
+	 */
+	public void setJitter(boolean jitter) {
+		this.jitter = jitter;
+	}
+
+	/**
+	 * The length of the intervals that load is measured and reported in. Default 1000ms.
+	 * @param tick the tick in milliseconds
+	 */
+	public void setTick(long tick) {
+		Assert.isTrue(tick > 0, "tick must be positive");
+		this.tick = tick;
+	}
+
+	/**
+	 * The proportion of attempts in a tick that must succeed for the dependency to count
+	 * as recovered. Default 0.95.
+	 * @param recoveryThreshold the proportion between 0 and 1
+	 */
+	public void setRecoveryThreshold(double recoveryThreshold) {
+		this.recoveryThreshold = recoveryThreshold;
+	}
+
+	/**
+	 * The seed of the random numbers of the simulation. Default 0.
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Run the simulation.
+	 * @param duration the simulated time in milliseconds
+	 * @return the results
+	 */
+	public FleetSimulation simulate(long duration) {
+		Assert.isTrue(duration > 0, "duration must be positive");
+		Random random = new Random(this.seed);
+		DelaySleeper sleeper = new DelaySleeper();
+		SleepingBackOffPolicy<?> backOffPolicy = this.backOffPolicy == null ? null
+				: this.backOffPolicy.withSleeper(sleeper);
+		int ticks = (int) ((duration + this.tick - 1) / this.tick);
+		long[] requests = new long[ticks];
+		long[] attempts = new long[ticks];
+		long[] successes = new long[ticks];
+		long succeeded = 0;
+		long exhausted = 0;
+		long shortCircuited = 0;
+		double capacityPerTick = this.capacity * this.tick / 1000;
+		PriorityQueue<Event> events = new PriorityQueue<Event>();
+		long order = 0;
+		for (int i = 0; i < this.clients; i++) {
+			long start = (long) (random.nextDouble() * this.requestInterval);
+			events.add(new Event(start, order++, new Client()));
+		}
+		while (!events.isEmpty()) {
+			Event event = events.poll();
+			if (event.time >= duration) {
+				close(event);
+				break;
+			}
+			int index = (int) (event.time / this.tick);
+			Client client = event.client;
+			if (event.context == null) {
+				requests[index]++;
+				events.add(new Event(event.time + this.requestInterval, order++, client));
+				event.context = this.retryPolicy.open(null);
+				if (backOffPolicy != null) {
+					event.backOffContext = backOffPolicy.start(event.context);
+				}
+			}
+			if (event.time < client.openUntil) {
+				shortCircuited++;
+				close(event);
+				continue;
+			}
+			attempts[index]++;
+			double load = capacityPerTick > 0 ? attempts[index] / capacityPerTick : 0;
+			if (random.nextDouble() >= getFailureProbability(event.time, load)) {
+				successes[index]++;
+				succeeded++;
+				client.failures = 0;
+				close(event);
+				continue;
+			}
+			this.retryPolicy.registerThrowable(event.context, FAILURE);
+			if (this.circuitMaxFailures > 0 && client.fail(event.time)) {
+				// the fallback of the circuit takes over
+				exhausted++;
+				close(event);
+				continue;
+			}
+			if (!this.retryPolicy.canRetry(event.context)) {
+				exhausted++;
+				close(event);
+				continue;
+			}
+			long delay = 0;
+			if (backOffPolicy != null) {
+				backOffPolicy.backOff(event.backOffContext);
+				delay = sleeper.delay;
+				sleeper.delay = 0;
+			}
+			if (this.jitter && delay > 0) {
+				delay = (long) (random.nextDouble() * (delay + 1));
+			}
+			event.time += delay;
+			event.order = order++;
+			events.add(event);
+		}
+		for (Event event : events) {
+			close(event);
+		}
+		return new FleetSimulation(this.tick, requests, attempts, successes, succeeded,
+				exhausted, shortCircuited, getRecoveryTime(attempts, successes));
+	}
+
+	/**
+	 * End the retry sequence of the event, if it has started, as a template would.
+	 */
+	private void close(Event event) {
+		if (event.context != null) {
+			this.retryPolicy.close(event.context);
+		}
+	}
+
+	private double getFailureProbability(long time, double load) {
+		if (load > 1) {
+			return 1;
+		}
+		if (this.failureCurve != null) {
+			return this.failureCurve.getFailureProbability(time, load);
+		}
+		if (time >= this.outageStart && time < this.outageStart + this.outageDuration) {
+			return this.outageFailureProbability;
+		}
+		return this.baseFailureProbability;
+	}
+
+	private long getRecoveryTime(long[] attempts, long[] successes) {
+		if (this.outageDuration == 0) {
+			return 0;
+		}
+		long end = this.outageStart + this.outageDuration;
+		for (int i = (int) ((end + this.tick - 1) / this.tick); i < attempts.length; i++) {
+			if (attempts[i] > 0 && successes[i] >= this.recoveryThreshold * attempts[i]) {
+				return i * this.tick - end;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The probability that an attempt fails, as a function of time and load.
+	 */
+	public interface FailureCurve {
+
+		/**
+		 * The probability that an attempt fails.
+		 * @param time the simulated time in milliseconds
+		 * @param load the attempts so far in the current tick as a proportion of the
+		 * capacity per tick (0 if the capacity is unlimited)
+		 * @return the probability between 0 and 1
+		 */
+		double getFailureProbability(long time, double load);
+
+	}
+
+	private class Client {
+
+		private long openUntil = Long.MIN_VALUE;
+
+		private long windowStart;
+
+		private int failures;
+
+		/**
+		 * Count a failure and open the circuit if there were too many recently.
+		 * @return true if the circuit opened
+		 */
+		private boolean fail(long time) {
+			if (this.failures == 0 || time - this.windowStart > circuitOpenTimeout) {
+				this.windowStart = time;
+				this.failures = 0;
+			}
+			if (++this.failures < circuitMaxFailures) {
+				return false;
+			}
+			this.openUntil = time + circuitResetTimeout;
+			this.failures = 0;
+			return true;
+		}
+
+	}
+
+	private static class Event implements Comparable<Event> {
+
+		private final Client client;
+
+		private long time;
+
+		private long order;
+
+		private RetryContext context;
+
+		private BackOffContext backOffContext;
+
+		private Event(long time, long order, Client client) {
+			this.time = time;
+			this.order = order;
+			this.client = client;
+		}
+
+		@Override
+		public int compareTo(Event other) {
+			if (this.time != other.time) {
+				return this.time < other.time ? -1 : 1;
+			}
+			return this.order < other.order ? -1 : (this.order == other.order ? 0 : 1);
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class DelaySleeper implements Sleeper {
+
+		private long delay;
+
+		@Override
+		public void sleep(long backOffPeriod) {
+			this.delay = backOffPeriod;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class SimulatedFailure extends Exception {
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+/**
+ * The results of a {@link FleetRetrySimulator}: the load offered to the dependency over
+ * time and how much of it was caused by retries.
+ *
+ * @since 1.3
+ */
+public class FleetSimulation {
+
+	private final long tick;
+
+	private final long[] requests;
+
+	private final long[] attempts;
+
+	private final long[] successes;
+
+	private final long succeededRequests;
+
+	private final long exhaustedRequests;
+
+	private final long shortCircuitedRequests;
+
+	private final long recoveryTime;
+
+	FleetSimulation(long tick, long[] requests, long[] attempts, long[] successes,
+			long succeededRequests, long exhaustedRequests, long shortCircuitedRequests,
+			long recoveryTime) {
+		this.tick = tick;
+		this.requests = requests;
+		this.attempts = attempts;
+		this.successes = successes;
+		this.succeededRequests = succeededRequests;
+		this.exhaustedRequests = exhaustedRequests;
+		this.shortCircuitedRequests = shortCircuitedRequests;
+		this.recoveryTime = recoveryTime;
+	}
+
+	/**
+	 * The length of the intervals the time series are counted in.
+	 * @return the tick in milliseconds
+	 */
+	public long getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * The number of requests made by the clients in each tick.
+	 * @return the requests per tick
+	 */
+	public long[] getRequests() {
+		return this.requests;
+	}
+
+	/**
+	 * The number of attempts (first attempts and retries) that reached the dependency in
+	 * each tick, i.e. the offered load.
+	 * @return the attempts per tick
+	 */
+	public long[] getAttempts() {
+		return this.attempts;
+	}
+
+	/**
+	 * The number of attempts that succeeded in each tick.
+	 * @return the successful attempts per tick
+	 */
+	public long[] getSuccesses() {
+		return this.successes;
+	}
+
+	public long getTotalRequests() {
+		return sum(this.requests);
+	}
+
+	public long getTotalAttempts() {
+		return sum(this.attempts);
+	}
+
+	/**
+	 * The number of requests that ended with a successful attempt.
+	 * @return the succeeded count
+	 */
+	public long getSucceededRequests() {
+		return this.succeededRequests;
+	}
+
+	/**
+	 * The number of requests whose retries were exhausted.
+	 * @return the exhausted count
+	 */
+	public long getExhaustedRequests() {
+		return this.exhaustedRequests;
+	}
+
+	/**
+	 * The number of requests (or retries) refused by an open circuit breaker.
+	 * @return the short circuited count
+	 */
+	public long getShortCircuitedRequests() {
+		return this.shortCircuitedRequests;
+	}
+
+	/**
+	 * The number of attempts per request over the whole simulation.
+	 * @return the amplification factor
+	 */
+	public double getAmplification() {
+		long requests = getTotalRequests();
+		return requests == 0 ? 0 : (double) getTotalAttempts() / requests;
+	}
+
+	/**
+	 * The highest load offered to the dependency in any tick.
+	 * @return the peak load in attempts per second
+	 */
+	public double getPeakOfferedLoad() {
+		long peak = 0;
+		for (long count : this.attempts) {
+			peak = Math.max(peak, count);
+		}
+		return peak * 1000. / this.tick;
+	}
+
+	/**
+	 * The time from the end of the outage until the dependency served the offered load
+	 * successfully again, to the nearest tick. It is 0 without an outage, and negative if
+	 * the dependency had not recovered by the end of the simulation.
+	 * @return the recovery time in milliseconds
+	 */
+	public long getRecoveryTime() {
+		return this.recoveryTime;
+	}
+
+	private static long sum(long[] counts) {
+		long sum = 0;
+		for (long count : counts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		return "FleetSimulation[requests=" + getTotalRequests() + ", attempts="
+				+ getTotalAttempts() + ", succeeded=" + this.succeededRequests
+				+ ", exhausted=" + this.exhaustedRequests + ", shortCircuited="
+				+ this.shortCircuitedRequests + ", amplification=" + getAmplification()
+				+ ", peakOfferedLoad=" + getPeakOfferedLoad() + ", recoveryTime="
+				+ this.recoveryTime + "]";
+	}
+
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryException;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.listener.RetryListenerDispatcher;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryOperations} that hedges instead of waiting for a failure: the callback
+ * is started on an {@link Executor} and, if it has not completed after the hedge delay,
+ * another attempt is started in parallel (and so on up to the maximum number of
+ * attempts). The first successful result is returned and the attempts still running are
+ * cancelled. An attempt that fails makes room for the next one straight away, without
+ * waiting for the hedge delay, as long as the {@link RetryPolicy} allows a retry: a
+ * failure it does not retry (e.g. a non-retryable exception) cancels the attempts still
+ * running. If all attempts fail the recovery callback is applied, or the last exception
+ * is rethrown.
+ * <p>
+ * The hedge delay is either fixed or, with {@link #setHedgeQuantile(double)}, the given
+ * quantile (e.g. 0.95) of the latencies of recent successful attempts, so that only the
+ * slowest calls are hedged. Hedging only pays off for idempotent callbacks whose latency
+ * varies independently between attempts, e.g. reads from replicated stores.
+ * <p>
+ * {@link RetryListener}s are notified as for a {@link RetryTemplate}, always on the
+ * calling thread, with the context opened by the retry policy. Each attempt is passed a
+ * context of its own, whose parent is that context, so that attempts running at the
+ * same time do not share attributes. The number of hedges fired and whether a hedge won are recorded in the
+ * {@link RetryContext#HEDGE_COUNT} and {@link RetryContext#HEDGE_WON} context attributes (picked up by the
+ * {@link org.springframework.retry.stats.StatisticsListener}). A stateful retry rethrows
+ * to the caller after every failure, which hedging cannot do, so it is delegated to a
+ * {@link RetryTemplate} with the same retry policy and listeners, with no hedging.
+ *
+ * @since 1.3
+ */
+public class HedgingRetryTemplate implements RetryOperations {
+
+	/**
+	 * The default maximum number of attempts, including the first (2).
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 2;
+
+	/**
+	 * The default hedge delay in milliseconds (100).
+	 */
+	public static final long DEFAULT_HEDGE_DELAY = 100L;
+
+	private static final int SAMPLES = 128;
+
+	private static final int MIN_SAMPLES = 16;
+
+	private static final Log logger = LogFactory.getLog(HedgingRetryTemplate.class);
+
+	private volatile Executor executor = new SimpleAsyncTaskExecutor("hedge-");
+
+	private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	private volatile RetryPolicy retryPolicy = new SimpleRetryPolicy(
+			DEFAULT_MAX_ATTEMPTS);
+
+	private volatile long hedgeDelay = DEFAULT_HEDGE_DELAY;
+
+	private volatile double hedgeQuantile;
+
+	private volatile RetryListenerDispatcher listeners = RetryListenerDispatcher.EMPTY;
+
+	private volatile String label;
+
+	private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+
+	private final AtomicInteger sampleCount = new AtomicInteger();
+
+	private volatile long observedDelay = -1;
+
+	private final RetryTemplate statefulTemplate = new RetryTemplate();
+
+	public HedgingRetryTemplate() {
+		this.statefulTemplate.setRetryPolicy(this.retryPolicy);
+	}
+
+	/**
+	 * The executor for the attempts. Default a {@link SimpleAsyncTaskExecutor}; a
+	 * bounded pool is usually a better choice in production.
+	 * @param executor the executor
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "'executor' cannot be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * The maximum number of attempts, including the first and the hedges. Default
+	 * {@value #DEFAULT_MAX_ATTEMPTS}. Also replaces the retry policy with a
+	 * {@link SimpleRetryPolicy} with this number of attempts, so call
+	 * {@link #setRetryPolicy(RetryPolicy)} afterwards to classify exceptions.
+	 * @param maxAttempts the maximum number of attempts
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		Assert.isTrue(maxAttempts > 0, "'maxAttempts' must be positive");
+		this.maxAttempts = maxAttempts;
+		setRetryPolicy(new SimpleRetryPolicy(maxAttempts));
+	}
+
+	/**
+	 * Setter for the {@link RetryPolicy} that decides whether a failed attempt is
+	 * replaced and whether a hedge is started. The number of attempts is still limited
+	 * by {@link #setMaxAttempts(int)}. Default a {@link SimpleRetryPolicy} with
+	 * {@value #DEFAULT_MAX_ATTEMPTS} attempts.
+	 * @param retryPolicy the {@link RetryPolicy}
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		Assert.notNull(retryPolicy, "'retryPolicy' cannot be null");
+		this.retryPolicy = retryPolicy;
+		this.statefulTemplate.setRetryPolicy(retryPolicy);
+	}
+
+	/**
+	 * The time to wait for an attempt before starting the next one. With a
+	 * {@link #setHedgeQuantile(double) quantile} this is only used until enough
+	 * latencies have been observed. Default {@value #DEFAULT_HEDGE_DELAY}ms.
+	 * @param hedgeDelay the hedge delay in milliseconds
+	 */
+	public void setHedgeDelay(long hedgeDelay) {
+		Assert.isTrue(hedgeDelay >= 0, "'hedgeDelay' cannot be negative");
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	/**
+	 * Derive the hedge delay from the latencies of the most recent successful attempts,
+	 * e.g. 0.95 to hedge the slowest 5% of calls. Default 0 (use the fixed delay).
+	 * @param hedgeQuantile the quantile in (0, 1), or 0 to disable
+	 */
+	public void setHedgeQuantile(double hedgeQuantile) {
+		Assert.isTrue(hedgeQuantile >= 0 && hedgeQuantile < 1,
+				"'hedgeQuantile' must be in [0, 1)");
+		this.hedgeQuantile = hedgeQuantile;
+		this.observedDelay = -1;
+	}
+
+	/**
+	 * A label for the retry context, reported to listeners as the
+	 * {@link RetryContext#NAME} attribute.
+	 * @param label the label
+	 */
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Setter for listeners. The listeners are executed before and after the attempts and
+	 * on every failed attempt.
+	 * @param listeners the {@link RetryListener}s
+	 */
+	public void setListeners(RetryListener[] listeners) {
+		this.listeners = new RetryListenerDispatcher(listeners);
+		this.statefulTemplate.setListeners(listeners);
+	}
+
+	/**
+	 * Register an additional listener.
+	 * @param listener the {@link RetryListener}
+	 * @see #setListeners(RetryListener[])
+	 */
+	public void registerListener(RetryListener listener) {
+		this.listeners = this.listeners.withListener(listener);
+		this.statefulTemplate.registerListener(listener);
+	}
+
+	/**
+	 * The hedge delay that the next execution will use.
+	 * @return the hedge delay in milliseconds
+	 */
+	public long getHedgeDelay() {
+		long observed = this.observedDelay;
+		return observed >= 0 ? observed : this.hedgeDelay;
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback)
+			throws E {
+		return execute(retryCallback, (RecoveryCallback<T>) null);
+	}
+
+	@Override
+	public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback,
+			RecoveryCallback<T> recoveryCallback) throws E {
+		RetryPolicy retryPolicy = this.retryPolicy;
+		RetryContext context = retryPolicy
+				.open(RetrySynchronizationManager.getContext());
+		if (this.label != null) {
+			context.setAttribute(RetryContext.NAME, this.label);
+		}
+		RetrySynchronizationManager.register(context);
+		Throwable lastException = null;
+		try {
+			if (!doOpenInterceptors(retryCallback, context)) {
+				throw new TerminatedRetryException(
+						"Retry terminated abnormally by interceptor before first attempt");
+			}
+			return doExecute(retryCallback, recoveryCallback, retryPolicy, context);
+		}
+		catch (Throwable e) {
+			lastException = e;
+			throw HedgingRetryTemplate.<E>wrapIfNecessary(e);
+		}
+		finally {
+			retryPolicy.close(context);
+			context.setAttribute(RetryContext.CLOSED, true);
+			doCloseInterceptors(retryCallback, context, lastException);
+			RetrySynchronizationManager.clear();
+		}
+	}
+
+	/**
+	 * Execute a stateful retry on the calling thread, without hedging.
+	 */
+	@Override
+	public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback,
+			RetryState retryState) throws E {
+		return execute(retryCallback, null, retryState);
+	}
+
+	/**
+	 * Execute a stateful retry on the calling thread, without hedging.
+	 */
+	@Override
+	public <T, E extends Throwable> T execute(RetryCallback<T, E> retryCallback,
+			RecoveryCallback<T> recoveryCallback, RetryState retryState) throws E {
+		return this.statefulTemplate.execute(new LabelledCallback<T, E>(retryCallback,
+				this.label), recoveryCallback, retryState);
+	}
+
+	private <T, E extends Throwable> T doExecute(RetryCallback<T, E> retryCallback,
+			RecoveryCallback<T> recoveryCallback, RetryPolicy retryPolicy,
+			RetryContext context) throws Throwable {
+		CompletionService<T> completion = new ExecutorCompletionService<T>(
+				this.executor);
+		List<Attempt<T, E>> attempts = new ArrayList<Attempt<T, E>>();
+		int maxAttempts = this.maxAttempts;
+		long delay = getHedgeDelay();
+		int running = 0;
+		int hedges = 0;
+		try {
+			while (true) {
+				if (running == 0) {
+					if (attempts.size() >= maxAttempts) {
+						break;
+					}
+					start(completion, attempts, retryCallback, context);
+					running++;
+				}
+				Future<T> done = attempts.size() < maxAttempts
+						&& retryPolicy.canRetry(context)
+								? completion.poll(delay, TimeUnit.MILLISECONDS)
+								: completion.take();
+				if (done == null) {
+					start(completion, attempts, retryCallback, context);
+					running++;
+					hedges++;
+					context.setAttribute(RetryContext.HEDGE_COUNT, hedges);
+					continue;
+				}
+				running--;
+				Attempt<T, E> attempt = find(attempts, done);
+				try {
+					T result = done.get();
+					if (attempt.index > 0) {
+						context.setAttribute(RetryContext.HEDGE_WON, true);
+					}
+					else {
+						record(attempt.elapsed());
+					}
+					return result;
+				}
+				catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					retryPolicy.registerThrowable(context, cause);
+					doOnErrorInterceptors(retryCallback, context, cause);
+					if (!retryPolicy.canRetry(context) || context.isExhaustedOnly()) {
+						break;
+					}
+					if (running > 0 && attempts.size() < maxAttempts) {
+						// replace the failed attempt without waiting for the delay
+						start(completion, attempts, retryCallback, context);
+						running++;
+					}
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TerminatedRetryException("Interrupted while waiting for attempts",
+					e);
+		}
+		finally {
+			for (Attempt<T, E> attempt : attempts) {
+				attempt.future.cancel(true);
+			}
+		}
+		context.setAttribute(RetryContext.EXHAUSTED, true);
+		if (recoveryCallback != null) {
+			T recovered = recoveryCallback.recover(context);
+			context.setAttribute(RetryContext.RECOVERED, true);
+			return recovered;
+		}
+		throw context.getLastThrowable();
+	}
+
+	private <T, E extends Throwable> void start(CompletionService<T> completion,
+			List<Attempt<T, E>> attempts, RetryCallback<T, E> retryCallback,
+			RetryContext context) {
+		Attempt<T, E> attempt = new Attempt<T, E>(attempts.size(), retryCallback,
+				context);
+		attempt.future = completion.submit(attempt);
+		attempts.add(attempt);
+	}
+
+	private <T, E extends Throwable> Attempt<T, E> find(List<Attempt<T, E>> attempts,
+			Future<T> future) {
+		for (Attempt<T, E> attempt : attempts) {
+			if (attempt.future == future) {
+				return attempt;
+			}
+		}
+		throw new IllegalStateException("Unknown attempt: " + future);
+	}
+
+	/**
+	 * Record the latency of a successful first attempt and, every so often, recompute the
+	 * hedge delay from the recent samples.
+	 */
+	private void record(long latency) {
+		double quantile = this.hedgeQuantile;
+		if (quantile <= 0) {
+			return;
+		}
+		int count = this.sampleCount.incrementAndGet();
+		this.latencies.set((count - 1) % SAMPLES, latency);
+		if (count >= MIN_SAMPLES && count % MIN_SAMPLES == 0) {
+			int size = Math.min(count, SAMPLES);
+			long[] samples = new long[size];
+			for (int i = 0; i < size; i++) {
+				samples[i] = this.latencies.get(i);
+			}
+			Arrays.sort(samples);
+			this.observedDelay = samples[(int) Math.min(size - 1,
+					Math.floor(quantile * size))];
+			if (logger.isDebugEnabled()) {
+				logger.debug("Hedge delay for " + this.label + ": " + this.observedDelay);
+			}
+		}
+	}
+
+	private <T, E extends Throwable> boolean doOpenInterceptors(
+			RetryCallback<T, E> callback, RetryContext context) {
+		return this.listeners.open(context, callback);
+	}
+
+	private <T, E extends Throwable> void doCloseInterceptors(
+			RetryCallback<T, E> callback, RetryContext context, Throwable lastException) {
+		this.listeners.close(context, callback, lastException);
+	}
+
+	private <T, E extends Throwable> void doOnErrorInterceptors(
+			RetryCallback<T, E> callback, RetryContext context, Throwable throwable) {
+		this.listeners.onError(context, callback, throwable);
+	}
+
+	private static <E extends Throwable> E wrapIfNecessary(Throwable throwable)
+			throws RetryException {
+		if (throwable instanceof Error) {
+			throw (Error) throwable;
+		}
+		else if (throwable instanceof Exception) {
+			@SuppressWarnings("unchecked")
+			E rethrow = (E) throwable;
+			return rethrow;
+		}
+		else {
+			throw new RetryException("Exception in retry", throwable);
+		}
+	}
+
+	/**
+	 * Sets the label of the template on the context of a stateful retry.
+	 */
+	private static final class LabelledCallback<T, E extends Throwable>
+			implements RetryCallback<T, E> {
+
+		private final RetryCallback<T, E> delegate;
+
+		private final String label;
+
+		private LabelledCallback(RetryCallback<T, E> delegate, String label) {
+			this.delegate = delegate;
+			this.label = label;
+		}
+
+		@Override
+		public T doWithRetry(RetryContext context) throws E {
+			if (this.label != null) {
+				context.setAttribute(RetryContext.NAME, this.label);
+			}
+			return this.delegate.doWithRetry(context);
+		}
+
+	}
+
+	/**
+	 * A single attempt, run on the executor with its own context registered.
+	 */
+	private static final class Attempt<T, E extends Throwable> implements Callable<T> {
+
+		private final int index;
+
+		private final RetryCallback<T, E> callback;
+
+		private final RetryContext context;
+
+		private final long start = System.currentTimeMillis();
+
+		private volatile long end;
+
+		private Future<T> future;
+
+		private Attempt(int index, RetryCallback<T, E> callback, RetryContext parent) {
+			this.index = index;
+			this.callback = callback;
+			this.context = new RetryContextSupport(parent);
+		}
+
+		@Override
+		public T call() throws Exception {
+			RetryContext previous = RetrySynchronizationManager.register(this.context);
+			try {
+				return this.callback.doWithRetry(this.context);
+			}
+			catch (Exception e) {
+				throw e;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new RetryException("Exception in retry", e);
+			}
+			finally {
+				this.end = System.currentTimeMillis();
+				RetrySynchronizationManager.register(previous);
+			}
+		}
+
+		private long elapsed() {
+			return this.end - this.start;
+		}
+
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * A histogram of non-negative long values (e.g. sleeps in milliseconds) in constant
+ * memory. Values up to {@code 2^(precision+1)} are counted exactly; larger values fall
+ * into buckets whose width is {@code 2^-precision} of the value, so percentiles are
+ * accurate to that relative error whatever the number of values recorded. The counts
+ * are kept in a {@code long[]} that grows with the logarithm of the largest value.
+ * <p>
+ * Histograms with the same precision can be {@link #merge(LongHistogram) merged}, so
+ * that values can be recorded on several threads and combined at the end. A histogram
+ * is not thread safe.
+ *
+ * @since 1.3
+ */
+public class LongHistogram {
+
+	/**
+	 * The default precision in bits (8, for an error of at most 0.4%).
+	 */
+	public static final int DEFAULT_PRECISION = 8;
+
+	private final int precision;
+
+	private final int subBuckets;
+
+	private long[] counts;
+
+	private long count;
+
+	private long sum;
+
+	private long min = Long.MAX_VALUE;
+
+	private long max = Long.MIN_VALUE;
+
+	public LongHistogram() {
+		this(DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Create a histogram with the given precision.
+	 * @param precision the number of significant bits kept for large values (1 to 20)
+	 */
+	public LongHistogram(int precision) {
+		Assert.isTrue(precision > 0 && precision <= 20, "precision must be in [1, 20]");
+		this.precision = precision;
+		this.subBuckets = 1 << precision;
+		this.counts = new long[2 * this.subBuckets];
+	}
+
+	/**
+	 * Record a value.
+	 * @param value the value to record (not negative)
+	 */
+	public void record(long value) {
+		Assert.isTrue(value >= 0, "value must not be negative");
+		int index = indexOf(value);
+		if (index >= this.counts.length) {
+			this.counts = Arrays.copyOf(this.counts,
+					Math.max(index + 1, this.counts.length + this.subBuckets));
+		}
+		this.counts[index]++;
+		this.count++;
+		this.sum += value;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+	}
+
+	/**
+	 * Add the values recorded by another histogram to this one.
+	 * @param other a histogram with the same precision
+	 */
+	public void merge(LongHistogram other) {
+		Assert.isTrue(other.precision == this.precision,
+				"Histograms must have the same precision");
+		if (other.counts.length > this.counts.length) {
+			this.counts = Arrays.copyOf(this.counts, other.counts.length);
+		}
+		for (int i = 0; i < other.counts.length; i++) {
+			this.counts[i] += other.counts[i];
+		}
+		this.count += other.count;
+		this.sum += other.sum;
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+	}
+
+	/**
+	 * The value below which the given proportion of the values lie: the smallest
+	 * recorded value such that at least {@code p} of all values are no greater (within
+	 * the precision of the histogram).
+	 * @param p the proportion, between 0 and 1
+	 * @return the percentile (0 if nothing was recorded)
+	 */
+	public long getPercentile(double p) {
+		Assert.isTrue(p >= 0 && p <= 1, "p must be in [0, 1]");
+		if (this.count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(p * this.count));
+		long seen = 0;
+		for (int i = 0; i < this.counts.length; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {
+				// don't report a value outside the range actually seen
+				return Math.max(this.min, Math.min(this.max, valueOf(i)));
+			}
+		}
+		return this.max;
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * The smallest value recorded.
+	 * @return the minimum (0 if nothing was recorded)
+	 */
+	public long getMin() {
+		return this.count == 0 ? 0 : this.min;
+	}
+
+	/**
+	 * The largest value recorded.
+	 * @return the maximum (0 if nothing was recorded)
+	 */
+	public long getMax() {
+		return this.count == 0 ? 0 : this.max;
+	}
+
+	/**
+	 * The mean of the values recorded (exact, not bucketed).
+	 * @return the mean (0 if nothing was recorded)
+	 */
+	public double getMean() {
+		return this.count == 0 ? 0 : (double) this.sum / this.count;
+	}
+
+	private int indexOf(long value) {
+		int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - this.precision);
+		return shift * this.subBuckets + (int) (value >>> shift);
+	}
+
+	/**
+	 * The middle of the range of values counted at the index.
+	 */
+	private long valueOf(int index) {
+		if (index < 2 * this.subBuckets) {
+			return index;
+		}
+		int shift = index / this.subBuckets - 1;
+		long lower = (long) (index - shift * this.subBuckets) << shift;
+		return lower + ((1L << shift) - 1) / 2;
+	}
+
+	@Override
+	public String toString() {
+		return "LongHistogram[count=" + this.count + ", min=" + getMin() + ", max="
+				+ getMax() + ", mean=" + getMean() + "]";
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetrySimulator} for large numbers of sequences: the sequences are shared out
+ * between worker threads (one per core by default), each of which reuses a single
+ * {@link RetryTemplate} and streams the sleeps into a {@link LongHistogram}, and the
+ * partial results are merged at the end. Memory use does not depend on the number of
+ * sequences, so millions can be simulated for capacity planning.
+ * <p>
+ * Each attempt fails with a configurable {@link #setFailureProbability(double)
+ * probability} (by default every attempt fails, as in {@link RetrySimulator}).
+ *
+ * @since 1.3
+ */
+public class ParallelRetrySimulator {
+
+	private static final SimulatedFailure FAILURE = new SimulatedFailure();
+
+	private final SleepingBackOffPolicy<?> backOffPolicy;
+
+	private final RetryPolicy retryPolicy;
+
+	private double failureProbability = 1;
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private int precision = LongHistogram.DEFAULT_PRECISION;
+
+	private Long seed;
+
+	public ParallelRetrySimulator(SleepingBackOffPolicy<?> backOffPolicy,
+			RetryPolicy retryPolicy) {
+		this.backOffPolicy = backOffPolicy;
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * The probability that an attempt fails. Default 1.
+	 * @param failureProbability the probability between 0 and 1
+	 */
+	public void setFailureProbability(double failureProbability) {
+		Assert.isTrue(failureProbability >= 0 && failureProbability <= 1,
+				"failureProbability must be in [0, 1]");
+		this.failureProbability = failureProbability;
+	}
+
+	/**
+	 * The number of worker threads. Default the number of available processors.
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * The precision of the histograms of the results. Default
+	 * {@value LongHistogram#DEFAULT_PRECISION} bits.
+	 * @param precision the precision in bits
+	 * @see LongHistogram#LongHistogram(int)
+	 */
+	public void setPrecision(int precision) {
+		this.precision = precision;
+	}
+
+	/**
+	 * A seed for the failures of the attempts, to make simulations repeatable (as far as
+	 * the back off policy is). Default a different seed for each simulation.
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Execute the given number of sequences.
+	 * @param numSimulations the number of sequences to run
+	 * @return a summary of all the sequences
+	 */
+	public RetrySimulationSummary executeSimulation(long numSimulations) {
+		Assert.isTrue(numSimulations > 0, "numSimulations must be positive");
+		int workers = (int) Math.min(this.parallelism, numSimulations);
+		long seed = this.seed != null ? this.seed : System.nanoTime();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"retry-simulator-");
+		threadFactory.setDaemon(true);
+		ExecutorService executor = Executors.newFixedThreadPool(workers, threadFactory);
+		try {
+			List<Future<RetrySimulationSummary>> futures = new ArrayList<Future<RetrySimulationSummary>>();
+			for (int i = 0; i < workers; i++) {
+				long share = numSimulations / workers + (i < numSimulations % workers ? 1 : 0);
+				futures.add(executor.submit(new Worker(share, new Random(seed + i))));
+			}
+			RetrySimulationSummary summary = new RetrySimulationSummary(this.precision);
+			for (Future<RetrySimulationSummary> future : futures) {
+				summary.merge(future.get());
+			}
+			return summary;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while simulating", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Simulation failed", e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private class Worker implements Callable<RetrySimulationSummary> {
+
+		private final long sequences;
+
+		private final Random random;
+
+		private Worker(long sequences, Random random) {
+			this.sequences = sequences;
+			this.random = random;
+		}
+
+		@Override
+		public RetrySimulationSummary call() throws Exception {
+			RetrySimulationSummary summary = new RetrySimulationSummary(
+					ParallelRetrySimulator.this.precision);
+			RecordingSleeper sleeper = new RecordingSleeper(summary.getSleeps());
+			RetryTemplate template = new RetryTemplate();
+			template.setBackOffPolicy(
+					ParallelRetrySimulator.this.backOffPolicy.withSleeper(sleeper));
+			template.setRetryPolicy(ParallelRetrySimulator.this.retryPolicy);
+			SimulatedCallback callback = new SimulatedCallback(this.random,
+					ParallelRetrySimulator.this.failureProbability);
+			for (long i = 0; i < this.sequences; i++) {
+				sleeper.total = 0;
+				callback.attempts = 0;
+				boolean success;
+				try {
+					template.execute(callback);
+					success = true;
+				}
+				catch (SimulatedFailure e) {
+					success = false;
+				}
+				summary.addSequence(callback.attempts, sleeper.total, success);
+			}
+			return summary;
+		}
+
+	}
+
+	private static class SimulatedCallback implements RetryCallback<Object, Exception> {
+
+		private final Random random;
+
+		private final double failureProbability;
+
+		private int attempts;
+
+		private SimulatedCallback(Random random, double failureProbability) {
+			this.random = random;
+			this.failureProbability = failureProbability;
+		}
+
+		@Override
+		public Object doWithRetry(RetryContext context) throws Exception {
+			this.attempts++;
+			if (this.random.nextDouble() < this.failureProbability) {
+				throw FAILURE;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * A shared exception without a stack trace, so failing is cheap.
+	 */
+	@SuppressWarnings("serial")
+	private static class SimulatedFailure extends Exception {
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class RecordingSleeper implements Sleeper {
+
+		private final LongHistogram sleeps;
+
+		private long total;
+
+		private RecordingSleeper(LongHistogram sleeps) {
+			this.sleeps = sleeps;
+		}
+
+		@Override
+		public void sleep(long backOffPeriod) throws InterruptedException {
+			this.sleeps.record(backOffPeriod);
+			this.total += backOffPeriod;
+		}
+
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+
+/**
+ * Access to the time budget of an ongoing retry, as set in the
+ * {@link RetryContext#DEADLINE} attribute of a context or of any of its parents (the
+ * earliest one wins). A {@link RetryCallback} can use it to bound its own timeouts, e.g.
+ * <pre class="code">
+ * long remaining = RetryDeadlines.getRemaining(context);
+ * </pre>
+ *
+ * @since 1.3
+ * @see org.springframework.retry.policy.TimeoutRetryPolicy
+ */
+public final class RetryDeadlines {
+
+	/**
+	 * The remaining time reported when there is no deadline.
+	 */
+	public static final long NONE = Long.MAX_VALUE;
+
+	private RetryDeadlines() {
+	}
+
+	/**
+	 * The earliest deadline of the context and its parents.
+	 * @param context the retry context (may be null)
+	 * @return the deadline in milliseconds since the epoch, or {@link #NONE}
+	 */
+	public static long getDeadline(RetryContext context) {
+		long deadline = NONE;
+		for (RetryContext current = context; current != null; current = current
+				.getParent()) {
+			Object value = current.getAttribute(RetryContext.DEADLINE);
+			if (value instanceof Long) {
+				deadline = Math.min(deadline, (Long) value);
+			}
+		}
+		return deadline;
+	}
+
+	/**
+	 * The time left before the earliest deadline of the context and its parents.
+	 * @param context the retry context (may be null)
+	 * @return the remaining time in milliseconds (0 if the deadline has passed), or
+	 * {@link #NONE}
+	 */
+	public static long getRemaining(RetryContext context) {
+		long deadline = getDeadline(context);
+		if (deadline == NONE) {
+			return NONE;
+		}
+		return Math.max(0, deadline - System.currentTimeMillis());
+	}
+
+	/**
+	 * The time left for the retry in progress on the current thread.
+	 * @return the remaining time in milliseconds, or {@link #NONE}
+	 * @see RetrySynchronizationManager#getContext()
+	 */
+	public static long getRemaining() {
+		return getRemaining(RetrySynchronizationManager.getContext());
+	}
+
+}
@@ -29,6 +29,8 @@ public class RetrySimulation {
 
 	private final List<Long> sleepHistogram = new ArrayList<Long>();
 
+	private boolean sorted = true;
+
 	public RetrySimulation() {
 	}
 
@@ -38,6 +40,7 @@ public class RetrySimulation {
 	 */
 	public void addSequence(List<Long> sleeps) {
 		sleepHistogram.addAll(sleeps);
+		sorted = false;
 		sleepSequences.add(new SleepSequence(sleeps));
 	}
 
@@ -54,7 +57,10 @@ public class RetrySimulation {
 	}
 
 	public double getPercentile(double p) {
-		Collections.sort(sleepHistogram);
+		if (!sorted) {
+			Collections.sort(sleepHistogram);
+			sorted = true;
+		}
 		int size = sleepHistogram.size();
 		double pos = p * (size - 1);
 		int i0 = (int) pos;
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of a {@link ParallelRetrySimulator}, summarised in histograms rather than
+ * kept per sequence, so that its size does not depend on the number of sequences.
+ *
+ * @since 1.3
+ */
+public class RetrySimulationSummary {
+
+	private final LongHistogram sleeps;
+
+	private final LongHistogram totalSleeps;
+
+	private final LongHistogram attempts;
+
+	private long successCount;
+
+	RetrySimulationSummary(int precision) {
+		this.sleeps = new LongHistogram(precision);
+		this.totalSleeps = new LongHistogram(precision);
+		this.attempts = new LongHistogram(precision);
+	}
+
+	void addSequence(int attempts, long totalSleep, boolean success) {
+		this.attempts.record(attempts);
+		this.totalSleeps.record(totalSleep);
+		if (success) {
+			this.successCount++;
+		}
+	}
+
+	void merge(RetrySimulationSummary other) {
+		this.sleeps.merge(other.sleeps);
+		this.totalSleeps.merge(other.totalSleeps);
+		this.attempts.merge(other.attempts);
+		this.successCount += other.successCount;
+	}
+
+	/**
+	 * The individual sleeps of all sequences.
+	 * @return the sleep histogram
+	 */
+	public LongHistogram getSleeps() {
+		return this.sleeps;
+	}
+
+	/**
+	 * The total time slept by each sequence.
+	 * @return the histogram of total sleeps
+	 */
+	public LongHistogram getTotalSleeps() {
+		return this.totalSleeps;
+	}
+
+	/**
+	 * The number of attempts made by each sequence, i.e. the load the sequence put on
+	 * the operation being retried.
+	 * @return the histogram of attempts
+	 */
+	public LongHistogram getAttempts() {
+		return this.attempts;
+	}
+
+	public long getSequenceCount() {
+		return this.attempts.getCount();
+	}
+
+	/**
+	 * The number of sequences that ended with a successful attempt.
+	 * @return the success count
+	 */
+	public long getSuccessCount() {
+		return this.successCount;
+	}
+
+	/**
+	 * The number of sequences that failed on every attempt.
+	 * @return the exhausted count
+	 */
+	public long getExhaustedCount() {
+		return getSequenceCount() - this.successCount;
+	}
+
+	/**
+	 * The deciles of the individual sleeps, as in {@link RetrySimulation#getPercentiles()}.
+	 * @return the 10th to 90th percentiles of the sleeps
+	 */
+	public List<Long> getPercentiles() {
+		List<Long> res = new ArrayList<Long>();
+		for (int percentile = 10; percentile < 100; percentile += 10) {
+			res.add(this.sleeps.getPercentile(percentile / 100.));
+		}
+		return res;
+	}
+
+	@Override
+	public String toString() {
+		return "RetrySimulationSummary[sequences=" + getSequenceCount() + ", successes="
+				+ this.successCount + ", sleeps=" + this.sleeps + ", totalSleeps="
+				+ this.totalSleeps + ", attempts=" + this.attempts + "]";
+	}
+
+}
@@ -45,6 +45,7 @@ import org.springframework.retry.backoff.SleepingBackOffPolicy;
  * provides random values and must be looked at over a series of trials.
  *
  * @author Jon Travis
+ * @see ParallelRetrySimulator
  */
 public class RetrySimulator {
 
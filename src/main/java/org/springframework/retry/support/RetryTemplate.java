@@ -37,9 +37,16 @@ import org.springframework.retry.backoff.BackOffContext;
 import org.springframework.retry.backoff.BackOffInterruptedException;
 import org.springframework.retry.backoff.BackOffPolicy;
 import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.bulkhead.BulkheadFullException;
+import org.springframework.retry.bulkhead.BulkheadPolicy;
+import org.springframework.retry.listener.RetryListenerDispatcher;
 import org.springframework.retry.policy.MapRetryContextCache;
 import org.springframework.retry.policy.RetryContextCache;
 import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.trace.AttemptOutcome;
+import org.springframework.retry.trace.NoOpRetryTracer;
+import org.springframework.retry.trace.RetryAttemptSpan;
+import org.springframework.retry.trace.RetryTracer;
 
 /**
  * Template class that simplifies the execution of operations with retry semantics.
@@ -92,6 +99,12 @@ public class RetryTemplate implements RetryOperations {
 
 	private volatile RetryListener[] listeners = new RetryListener[0];
 
+	private volatile RetryListenerDispatcher dispatcher = RetryListenerDispatcher.EMPTY;
+
+	private volatile BulkheadPolicy bulkheadPolicy;
+
+	private volatile RetryTracer tracer = NoOpRetryTracer.INSTANCE;
+
 	private RetryContextCache retryContextCache = new MapRetryContextCache();
 
 	private boolean throwLastExceptionOnExhausted;
@@ -135,12 +148,15 @@ public class RetryTemplate implements RetryOperations {
 	/**
 	 * Setter for listeners. The listeners are executed before and after a retry block
 	 * (i.e. before and after all the attempts), and on an error (every attempt).
+	 * Listeners that only need some of these events can say so by implementing
+	 * {@link org.springframework.retry.listener.SelectiveRetryListener}.
 	 * @param listeners the {@link RetryListener}s
 	 * @see RetryListener
 	 */
 	public void setListeners(RetryListener[] listeners) {
 		this.listeners = Arrays.asList(listeners)
 				.toArray(new RetryListener[listeners.length]);
+		this.dispatcher = new RetryListenerDispatcher(this.listeners);
 	}
 
 	/**
@@ -153,6 +169,7 @@ public class RetryTemplate implements RetryOperations {
 				Arrays.asList(this.listeners));
 		list.add(listener);
 		this.listeners = list.toArray(new RetryListener[list.size()]);
+		this.dispatcher = new RetryListenerDispatcher(this.listeners);
 	}
 
 	/**
@@ -163,6 +180,27 @@ public class RetryTemplate implements RetryOperations {
 		this.backOffPolicy = backOffPolicy;
 	}
 
+	/**
+	 * Setter for {@link BulkheadPolicy}. When set, each attempt must acquire a permit
+	 * from the bulkhead, and fails with a {@link BulkheadFullException} if it cannot.
+	 * @param bulkheadPolicy the {@link BulkheadPolicy} (null for no limit)
+	 * @since 1.3
+	 */
+	public void setBulkheadPolicy(BulkheadPolicy bulkheadPolicy) {
+		this.bulkheadPolicy = bulkheadPolicy;
+	}
+
+	/**
+	 * Setter for {@link RetryTracer}. The tracer is asked once per call whether to trace
+	 * it, and receives a {@link RetryAttemptSpan} for each attempt of the calls it
+	 * samples.
+	 * @param tracer the {@link RetryTracer} (null for none)
+	 * @since 1.3
+	 */
+	public void setTracer(RetryTracer tracer) {
+		this.tracer = tracer != null ? tracer : NoOpRetryTracer.INSTANCE;
+	}
+
 	/**
 	 * Setter for {@link RetryPolicy}.
 	 * @param retryPolicy the {@link RetryPolicy}
@@ -253,6 +291,8 @@ public class RetryTemplate implements RetryOperations {
 
 		RetryPolicy retryPolicy = this.retryPolicy;
 		BackOffPolicy backOffPolicy = this.backOffPolicy;
+		BulkheadPolicy bulkheadPolicy = this.bulkheadPolicy;
+		RetryTracer tracer = this.tracer;
 
 		// Allow the retry policy to initialise itself...
 		RetryContext context = open(retryPolicy, state);
@@ -292,6 +332,11 @@ public class RetryTemplate implements RetryOperations {
 				}
 			}
 
+			boolean traced = isSampled(tracer, context);
+			long backOff = 0;
+			long start = 0;
+			int attempt = 0;
+
 			/*
 			 * We allow the whole loop to be skipped if the policy or context already
 			 * forbid the first try. This is used in the case of external retry to allow a
@@ -307,7 +352,22 @@ public class RetryTemplate implements RetryOperations {
 					// Reset the last exception, so if we are successful
 					// the close interceptors will not think we failed...
 					lastException = null;
-					return retryCallback.doWithRetry(context);
+					if (traced) {
+						attempt = context.getRetryCount() + 1;
+						start = System.nanoTime();
+					}
+					T result;
+					if (bulkheadPolicy != null) {
+						result = doWithBulkhead(bulkheadPolicy, retryCallback, context);
+					}
+					else {
+						result = retryCallback.doWithRetry(context);
+					}
+					if (traced) {
+						trace(tracer, context, attempt, backOff, start, null,
+								AttemptOutcome.SUCCESS);
+					}
+					return result;
 				}
 				catch (Throwable e) {
 
@@ -324,7 +384,15 @@ public class RetryTemplate implements RetryOperations {
 						doOnErrorInterceptors(retryCallback, context, e);
 					}
 
-					if (canRetry(retryPolicy, context) && !context.isExhaustedOnly()) {
+					boolean retry = canRetry(retryPolicy, context)
+							&& !context.isExhaustedOnly();
+					if (traced) {
+						trace(tracer, context, attempt, backOff, start, e,
+								retry ? AttemptOutcome.RETRY : AttemptOutcome.EXHAUSTED);
+					}
+
+					if (retry) {
+						long sleep = traced ? System.nanoTime() : 0;
 						try {
 							backOffPolicy.backOff(backOffContext);
 						}
@@ -338,6 +406,9 @@ public class RetryTemplate implements RetryOperations {
 							}
 							throw ex;
 						}
+						if (traced) {
+							backOff = System.nanoTime() - sleep;
+						}
 					}
 
 					if (this.logger.isDebugEnabled()) {
@@ -385,6 +456,56 @@ public class RetryTemplate implements RetryOperations {
 
 	}
 
+	/**
+	 * Ask the tracer whether to trace the retry. A failing tracer is logged and the retry
+	 * is not traced, so that it can never prevent the first attempt.
+	 */
+	private boolean isSampled(RetryTracer tracer, RetryContext context) {
+		try {
+			return tracer.isSampled(context);
+		}
+		catch (RuntimeException e) {
+			this.logger.warn("Retry tracer failed: " + tracer, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Report an attempt to the tracer. A failing tracer is logged and otherwise ignored,
+	 * so that it can never turn a successful attempt into a retry.
+	 */
+	private void trace(RetryTracer tracer, RetryContext context, int attempt,
+			long backOff, long start, Throwable throwable, AttemptOutcome outcome) {
+		try {
+			tracer.attempt(context,
+					new RetryAttemptSpan((String) context.getAttribute(RetryContext.NAME),
+							attempt, backOff, System.nanoTime() - start,
+							throwable == null ? null : throwable.getClass(), outcome));
+		}
+		catch (RuntimeException e) {
+			this.logger.warn("Retry tracer failed: " + tracer, e);
+		}
+	}
+
+	private <T, E extends Throwable> T doWithBulkhead(BulkheadPolicy bulkheadPolicy,
+			RetryCallback<T, E> retryCallback, RetryContext context) throws E {
+		if (!bulkheadPolicy.acquire()) {
+			context.setAttribute(RetryContext.BULKHEAD_REJECTED, true);
+			throw new BulkheadFullException("Bulkhead full: " + bulkheadPolicy);
+		}
+		context.removeAttribute(RetryContext.BULKHEAD_REJECTED);
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			T result = retryCallback.doWithRetry(context);
+			success = true;
+			return result;
+		}
+		finally {
+			bulkheadPolicy.release(success, System.nanoTime() - start);
+		}
+	}
+
 	/**
 	 * Decide whether to proceed with the ongoing retry attempt. This method is called
 	 * before the {@link RetryCallback} is executed, but after the backoff and open
@@ -568,29 +689,17 @@ public class RetryTemplate implements RetryOperations {
 
 	private <T, E extends Throwable> boolean doOpenInterceptors(
 			RetryCallback<T, E> callback, RetryContext context) {
-
-		boolean result = true;
-
-		for (RetryListener listener : this.listeners) {
-			result = result && listener.open(context, callback);
-		}
-
-		return result;
-
+		return this.dispatcher.open(context, callback);
 	}
 
 	private <T, E extends Throwable> void doCloseInterceptors(
 			RetryCallback<T, E> callback, RetryContext context, Throwable lastException) {
-		for (int i = this.listeners.length; i-- > 0;) {
-			this.listeners[i].close(context, callback, lastException);
-		}
+		this.dispatcher.close(context, callback, lastException);
 	}
 
 	private <T, E extends Throwable> void doOnErrorInterceptors(
 			RetryCallback<T, E> callback, RetryContext context, Throwable throwable) {
-		for (int i = this.listeners.length; i-- > 0;) {
-			this.listeners[i].onError(context, callback, throwable);
-		}
+		this.dispatcher.onError(context, callback, throwable);
 	}
 
 	/**
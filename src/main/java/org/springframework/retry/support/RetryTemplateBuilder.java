@@ -23,16 +23,27 @@ import org.springframework.classify.BinaryExceptionClassifierBuilder;
 import org.springframework.retry.RetryListener;
 import org.springframework.retry.RetryPolicy;
 import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.DeadlineSleeper;
+import org.springframework.retry.backoff.DecorrelatedJitterBackOffPolicy;
+import org.springframework.retry.backoff.EqualJitterBackOffPolicy;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
 import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.FullJitterBackOffPolicy;
 import org.springframework.retry.backoff.NoBackOffPolicy;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
 import org.springframework.retry.backoff.UniformRandomBackOffPolicy;
+import org.springframework.retry.bulkhead.AdaptiveBulkheadPolicy;
+import org.springframework.retry.bulkhead.BulkheadFullException;
+import org.springframework.retry.bulkhead.BulkheadPolicy;
+import org.springframework.retry.bulkhead.SemaphoreBulkheadPolicy;
 import org.springframework.retry.policy.AlwaysRetryPolicy;
 import org.springframework.retry.policy.BinaryExceptionClassifierRetryPolicy;
 import org.springframework.retry.policy.CompositeRetryPolicy;
 import org.springframework.retry.policy.MaxAttemptsRetryPolicy;
 import org.springframework.retry.policy.TimeoutRetryPolicy;
+import org.springframework.retry.trace.RetryTracer;
+import org.springframework.retry.trace.SamplingRetryTracer;
 import org.springframework.util.Assert;
 
 /**
@@ -92,6 +103,12 @@ public class RetryTemplateBuilder {
 
 	private BackOffPolicy backOffPolicy;
 
+	private boolean customBackOffPolicy;
+
+	private BulkheadPolicy bulkheadPolicy;
+
+	private RetryTracer tracer;
+
 	private List<RetryListener> listeners;
 
 	private BinaryExceptionClassifierBuilder classifierBuilder;
@@ -118,6 +135,8 @@ public class RetryTemplateBuilder {
 
 	/**
 	 * Allows retry if there is no more than {@code timeout} millis since first attempt.
+	 * Back offs configured by this builder stop the retry instead of sleeping past the
+	 * timeout, and callbacks can find the time left with {@link RetryDeadlines}.
 	 * <p>
 	 * Invocation of this method does not discard default exception classification rule,
 	 * that is "retry only on {@link Exception} and it's subclasses".
@@ -203,13 +222,71 @@ public class RetryTemplateBuilder {
 	 */
 	public RetryTemplateBuilder exponentialBackoff(long initialInterval,
 			double multiplier, long maxInterval, boolean withRandom) {
+		return exponentialBackoff(withRandom ? new ExponentialRandomBackOffPolicy()
+				: new ExponentialBackOffPolicy(), initialInterval, multiplier,
+				maxInterval);
+	}
+
+	/**
+	 * Use exponential backoff policy with "full jitter": each backoff period is a random
+	 * value between 0 and
+	 * <p>
+	 * {@code Math.min(initialInterval * Math.pow(multiplier, retryNum), maxInterval)}
+	 * <p>
+	 * (for first attempt retryNum = 0)
+	 * @param initialInterval in milliseconds
+	 * @param multiplier see the formula above
+	 * @param maxInterval in milliseconds
+	 * @return this
+	 * @see FullJitterBackOffPolicy
+	 */
+	public RetryTemplateBuilder fullJitterBackoff(long initialInterval,
+			double multiplier, long maxInterval) {
+		return exponentialBackoff(new FullJitterBackOffPolicy(), initialInterval,
+				multiplier, maxInterval);
+	}
+
+	/**
+	 * Use exponential backoff policy with "equal jitter": each backoff period is half of
+	 * <p>
+	 * {@code Math.min(initialInterval * Math.pow(multiplier, retryNum), maxInterval)}
+	 * <p>
+	 * (for first attempt retryNum = 0) plus a random value up to the other half.
+	 * @param initialInterval in milliseconds
+	 * @param multiplier see the formula above
+	 * @param maxInterval in milliseconds
+	 * @return this
+	 * @see EqualJitterBackOffPolicy
+	 */
+	public RetryTemplateBuilder equalJitterBackoff(long initialInterval,
+			double multiplier, long maxInterval) {
+		return exponentialBackoff(new EqualJitterBackOffPolicy(), initialInterval,
+				multiplier, maxInterval);
+	}
+
+	/**
+	 * Use exponential backoff policy with "decorrelated jitter": each backoff period is a
+	 * random value between {@code initialInterval} and the previous period times
+	 * {@code multiplier}, capped at {@code maxInterval}.
+	 * @param initialInterval in milliseconds
+	 * @param multiplier growth of the upper bound, 3 is the usual choice
+	 * @param maxInterval in milliseconds
+	 * @return this
+	 * @see DecorrelatedJitterBackOffPolicy
+	 */
+	public RetryTemplateBuilder decorrelatedJitterBackoff(long initialInterval,
+			double multiplier, long maxInterval) {
+		return exponentialBackoff(new DecorrelatedJitterBackOffPolicy(),
+				initialInterval, multiplier, maxInterval);
+	}
+
+	private RetryTemplateBuilder exponentialBackoff(ExponentialBackOffPolicy policy,
+			long initialInterval, double multiplier, long maxInterval) {
 		Assert.isNull(this.backOffPolicy, "You have already selected backoff policy");
 		Assert.isTrue(initialInterval >= 1, "Initial interval should be >= 1");
 		Assert.isTrue(multiplier > 1, "Multiplier should be > 1");
 		Assert.isTrue(maxInterval > initialInterval,
 				"Max interval should be > than initial interval");
-		ExponentialBackOffPolicy policy = withRandom
-				? new ExponentialRandomBackOffPolicy() : new ExponentialBackOffPolicy();
 		policy.setInitialInterval(initialInterval);
 		policy.setMultiplier(multiplier);
 		policy.setMaxInterval(maxInterval);
@@ -272,6 +349,7 @@ public class RetryTemplateBuilder {
 		Assert.isNull(this.backOffPolicy, "You have already selected backoff policy");
 		Assert.notNull(backOffPolicy, "You should provide non null custom policy");
 		this.backOffPolicy = backOffPolicy;
+		this.customBackOffPolicy = true;
 		return this;
 	}
 
@@ -365,6 +443,39 @@ public class RetryTemplateBuilder {
 		return this;
 	}
 
+	/* ---------------- Configure bulkhead -------------- */
+
+	/**
+	 * Limit the number of concurrent attempts with the provided bulkhead. Attempts that
+	 * are refused fail with a {@link BulkheadFullException}, which is retried like any
+	 * other exception if the classifier allows it.
+	 * @param bulkheadPolicy the bulkhead, usually shared by all callers of a dependency
+	 * @return this
+	 * @see SemaphoreBulkheadPolicy
+	 * @see AdaptiveBulkheadPolicy
+	 */
+	public RetryTemplateBuilder bulkhead(BulkheadPolicy bulkheadPolicy) {
+		Assert.isNull(this.bulkheadPolicy, "You have already selected bulkhead policy");
+		Assert.notNull(bulkheadPolicy, "Bulkhead policy should not be null");
+		this.bulkheadPolicy = bulkheadPolicy;
+		return this;
+	}
+
+	/* ---------------- Configure tracing -------------- */
+
+	/**
+	 * Trace the attempts of the calls sampled by the provided tracer.
+	 * @param tracer the tracer
+	 * @return this
+	 * @see SamplingRetryTracer
+	 */
+	public RetryTemplateBuilder withTracer(RetryTracer tracer) {
+		Assert.isNull(this.tracer, "You have already selected a tracer");
+		Assert.notNull(tracer, "Tracer should not be null");
+		this.tracer = tracer;
+		return this;
+	}
+
 	/* ---------------- Building -------------- */
 
 	/**
@@ -401,8 +512,22 @@ public class RetryTemplateBuilder {
 		if (this.backOffPolicy == null) {
 			this.backOffPolicy = new NoBackOffPolicy();
 		}
+		if (this.baseRetryPolicy instanceof TimeoutRetryPolicy
+				&& this.backOffPolicy instanceof SleepingBackOffPolicy
+				&& !this.customBackOffPolicy) {
+			this.backOffPolicy = ((SleepingBackOffPolicy<?>) this.backOffPolicy)
+					.withSleeper(new DeadlineSleeper());
+		}
 		retryTemplate.setBackOffPolicy(this.backOffPolicy);
 
+		// Bulkhead
+
+		retryTemplate.setBulkheadPolicy(this.bulkheadPolicy);
+
+		// Tracer
+
+		retryTemplate.setTracer(this.tracer);
+
 		// Listeners
 
 		if (this.listeners != null) {
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+/**
+ * The outcome of one attempt of a retry operation.
+ *
+ * @since 1.3
+ */
+public enum AttemptOutcome {
+
+	/**
+	 * The attempt succeeded.
+	 */
+	SUCCESS,
+
+	/**
+	 * The attempt failed and the retry policy allows another attempt.
+	 */
+	RETRY,
+
+	/**
+	 * The attempt failed and the retry policy allows no more attempts.
+	 */
+	EXHAUSTED
+
+}
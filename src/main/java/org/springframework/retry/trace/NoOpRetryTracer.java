@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * A {@link RetryTracer} that samples nothing. This is the default of a
+ * {@link org.springframework.retry.support.RetryTemplate}; while it is the only tracer in
+ * use the JIT can inline it and remove the tracing code altogether.
+ *
+ * @since 1.3
+ */
+public final class NoOpRetryTracer implements RetryTracer {
+
+	/**
+	 * The shared instance.
+	 */
+	public static final NoOpRetryTracer INSTANCE = new NoOpRetryTracer();
+
+	private NoOpRetryTracer() {
+	}
+
+	@Override
+	public boolean isSampled(RetryContext context) {
+		return false;
+	}
+
+	@Override
+	public void attempt(RetryContext context, RetryAttemptSpan span) {
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+/**
+ * A record of one attempt of a retry operation, passed to a {@link RetryTracer} for
+ * operations that it samples.
+ *
+ * @since 1.3
+ */
+public final class RetryAttemptSpan {
+
+	private final String label;
+
+	private final int attempt;
+
+	private final long backOff;
+
+	private final long duration;
+
+	private final Class<? extends Throwable> exceptionClass;
+
+	private final AttemptOutcome outcome;
+
+	/**
+	 * Create a span.
+	 * @param label the {@link org.springframework.retry.RetryContext#NAME label} of the
+	 * operation (may be null)
+	 * @param attempt the attempt number, starting at 1
+	 * @param backOff the time slept in back off before the attempt in nanoseconds
+	 * @param duration the duration of the attempt in nanoseconds
+	 * @param exceptionClass the class of the exception thrown by the attempt (null if
+	 * it succeeded)
+	 * @param outcome the outcome of the attempt
+	 */
+	public RetryAttemptSpan(String label, int attempt, long backOff, long duration,
+			Class<? extends Throwable> exceptionClass, AttemptOutcome outcome) {
+		this.label = label;
+		this.attempt = attempt;
+		this.backOff = backOff;
+		this.duration = duration;
+		this.exceptionClass = exceptionClass;
+		this.outcome = outcome;
+	}
+
+	public String getLabel() {
+		return this.label;
+	}
+
+	public int getAttempt() {
+		return this.attempt;
+	}
+
+	/**
+	 * The time slept in back off between the previous attempt of the same call and this
+	 * one.
+	 * @return the back off in nanoseconds
+	 */
+	public long getBackOff() {
+		return this.backOff;
+	}
+
+	/**
+	 * The time spent in the retry callback.
+	 * @return the duration in nanoseconds
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+
+	public Class<? extends Throwable> getExceptionClass() {
+		return this.exceptionClass;
+	}
+
+	public AttemptOutcome getOutcome() {
+		return this.outcome;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryAttemptSpan[label=" + this.label + ", attempt=" + this.attempt
+				+ ", backOff=" + this.backOff + ", duration=" + this.duration
+				+ ", exception=" + (this.exceptionClass == null ? null
+						: this.exceptionClass.getName())
+				+ ", outcome=" + this.outcome + "]";
+	}
+
+}
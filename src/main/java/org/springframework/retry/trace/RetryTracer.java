@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Strategy for recording the attempts of retry operations, e.g. as spans of a
+ * distributed trace. A {@link org.springframework.retry.support.RetryTemplate} asks the
+ * tracer once per call whether to trace it at all; only for sampled calls is a
+ * {@link RetryAttemptSpan} created and passed to {@link #attempt}, so a tracer that
+ * samples nothing (like {@link NoOpRetryTracer}) costs a single call per operation.
+ *
+ * @since 1.3
+ * @see SamplingRetryTracer
+ */
+public interface RetryTracer {
+
+	/**
+	 * Decide whether to trace the attempts made by a call to a retry operation.
+	 * @param context the current retry context
+	 * @return true to receive the attempts of this call
+	 */
+	boolean isSampled(RetryContext context);
+
+	/**
+	 * Record an attempt of a sampled call. Called on the thread that made the attempt
+	 * once its outcome is known, before any back off.
+	 * @param context the current retry context
+	 * @param span the attempt
+	 */
+	void attempt(RetryContext context, RetryAttemptSpan span);
+
+}
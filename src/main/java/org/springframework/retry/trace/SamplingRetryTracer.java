@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RetryTracer} that passes on the attempts of one in every
+ * {@link #SamplingRetryTracer(RetryTracer, int) interval} calls to another tracer. All
+ * the attempts of a sampled call are traced, so that the amplification of the call can
+ * be seen.
+ *
+ * @since 1.3
+ */
+public class SamplingRetryTracer implements RetryTracer {
+
+	private final AtomicLong calls = new AtomicLong();
+
+	private final RetryTracer delegate;
+
+	private final int interval;
+
+	/**
+	 * Create a tracer that samples one call in every interval.
+	 * @param delegate the tracer to pass sampled calls to
+	 * @param interval the sampling interval (1 to sample every call)
+	 */
+	public SamplingRetryTracer(RetryTracer delegate, int interval) {
+		Assert.notNull(delegate, "Delegate tracer must not be null");
+		Assert.isTrue(interval > 0, "Interval must be positive");
+		this.delegate = delegate;
+		this.interval = interval;
+	}
+
+	@Override
+	public boolean isSampled(RetryContext context) {
+		return this.calls.getAndIncrement() % this.interval == 0
+				&& this.delegate.isSampled(context);
+	}
+
+	@Override
+	public void attempt(RetryContext context, RetryAttemptSpan span) {
+		this.delegate.attempt(context, span);
+	}
+
+}
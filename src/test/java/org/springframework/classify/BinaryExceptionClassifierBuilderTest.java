@@ -60,6 +60,19 @@ public class BinaryExceptionClassifierBuilderTest {
 		Assert.assertFalse(classifier.classify(new RuntimeException()));
 	}
 
+	@Test
+	public void testWhiteListWithMemoizedCauseChains() {
+		BinaryExceptionClassifier classifier = BinaryExceptionClassifier.builder()
+				.retryOn(IOException.class).memoizingCauseChains().build();
+
+		for (int i = 0; i < 2; i++) {
+			Assert.assertTrue(
+					classifier.classify(new RuntimeException(new IOException())));
+			Assert.assertFalse(
+					classifier.classify(new RuntimeException(new RuntimeException())));
+		}
+	}
+
 	@Test
 	public void testBlackList() {
 		BinaryExceptionClassifier classifier = BinaryExceptionClassifier.builder()
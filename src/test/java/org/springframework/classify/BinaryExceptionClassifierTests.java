@@ -16,6 +16,7 @@
 
 package org.springframework.classify;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -122,6 +123,58 @@ public class BinaryExceptionClassifierTests {
 				new RuntimeException(new IllegalStateException("Foo")))));
 	}
 
+	@Test
+	public void testMemoizedCauseChains() {
+		Map<Class<? extends Throwable>, Boolean> map = new HashMap<Class<? extends Throwable>, Boolean>();
+		map.put(IllegalStateException.class, true);
+		map.put(BarException.class, false);
+		BinaryExceptionClassifier binaryExceptionClassifier = new BinaryExceptionClassifier(
+				map, true);
+		binaryExceptionClassifier.setTraverseCauses(true);
+		binaryExceptionClassifier.setMemoizeCauseChains(true);
+		for (int i = 0; i < 2; i++) {
+			assertTrue(binaryExceptionClassifier.classify(
+					new RuntimeException(new FooException("Foo", new BarException()))));
+			assertFalse(binaryExceptionClassifier
+					.classify(new RuntimeException(new BarException())));
+			assertTrue(binaryExceptionClassifier
+					.classify(new RuntimeException(new RuntimeException())));
+		}
+		assertEquals(3, ((Map<?, ?>) new DirectFieldAccessor(binaryExceptionClassifier)
+				.getPropertyValue("causeChains")).size());
+	}
+
+	@Test
+	public void testMemoizedCauseChainsMaxDepth() {
+		classifier = new BinaryExceptionClassifier(Collections
+				.<Class<? extends Throwable>>singleton(IllegalStateException.class));
+		classifier.setTraverseCauses(true);
+		classifier.setMemoizeCauseChains(true);
+		classifier.setMaxCauseDepth(2);
+		assertTrue(classifier.classify(
+				new RuntimeException(new IllegalStateException("Foo"))));
+		assertFalse(classifier.classify(new RuntimeException(
+				new RuntimeException(new IllegalStateException("Foo")))));
+	}
+
+	@Test
+	public void testMemoizedCauseChainsWithCycle() {
+		classifier = new BinaryExceptionClassifier(Collections
+				.<Class<? extends Throwable>>singleton(IllegalStateException.class));
+		classifier.setTraverseCauses(true);
+		classifier.setMemoizeCauseChains(true);
+		RuntimeException first = new RuntimeException();
+		RuntimeException second = new RuntimeException(first);
+		first.initCause(second);
+		assertFalse(classifier.classify(first));
+		RuntimeException top = new RuntimeException();
+		IllegalStateException loop = new IllegalStateException(
+				new RuntimeException(top));
+		top.initCause(loop);
+		assertTrue(classifier.classify(top));
+		assertTrue(classifier.classify(top));
+	}
+
 	@SuppressWarnings("serial")
 	private class FooException extends IllegalStateException {
 
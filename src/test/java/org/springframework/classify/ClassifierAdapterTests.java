@@ -17,9 +17,12 @@ package org.springframework.classify;
 
 import org.junit.Test;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.classify.annotation.Classifier;
+import org.springframework.classify.util.FastMethodInvoker;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Dave Syer
@@ -127,4 +130,28 @@ public class ClassifierAdapterTests {
 		assertEquals(23, adapter.classify("23").intValue());
 	}
 
+	@Test
+	public void testClassifyWithGeneratedInvoker() {
+		adapter.setDelegate(new PublicDelegate());
+		assertTrue(new DirectFieldAccessor(adapter)
+				.getPropertyValue("invoker") instanceof FastMethodInvoker);
+		assertEquals(23, adapter.classify("23").intValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testClassifyWithGeneratedInvokerAndWrongType() {
+		ClassifierAdapter<Integer, Integer> adapter = new ClassifierAdapter<Integer, Integer>(
+				new PublicDelegate());
+		adapter.classify(23);
+	}
+
+	public static class PublicDelegate {
+
+		@Classifier
+		public Integer getValue(String key) {
+			return Integer.parseInt(key);
+		}
+
+	}
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.classify;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledPatternMatcherTests {
+
+	private Map<String, String> map;
+
+	@Before
+	public void createMap() {
+		map = new HashMap<String, String>();
+		map.put("an*", "3");
+		map.put("a*", "2");
+		map.put("big*", "4");
+		map.put("bi?", "5");
+		map.put("*ing", "6");
+		map.put("*a*b*", "7");
+		map.put("a?c", "8");
+		map.put("abc", "9");
+		map.put("*", "1");
+	}
+
+	@Test
+	public void testMostSpecificWins() {
+		CompiledPatternMatcher<String> matcher = new CompiledPatternMatcher<String>(map);
+		assertEquals("9", matcher.match("abc"));
+		assertEquals("8", matcher.match("axc"));
+		assertEquals("3", matcher.match("and"));
+		assertEquals("4", matcher.match("bigger"));
+		assertEquals("5", matcher.match("bit"));
+		assertEquals("1", matcher.match(""));
+	}
+
+	@Test
+	public void testSameAsPatternMatcher() {
+		PatternMatcher<String> reference = new PatternMatcher<String>(map);
+		CompiledPatternMatcher<String> matcher = new CompiledPatternMatcher<String>(map,
+				16, 8);
+		Random random = new Random(0);
+		for (int i = 0; i < 10000; i++) {
+			StringBuilder line = new StringBuilder();
+			int length = random.nextInt(8);
+			for (int j = 0; j < length; j++) {
+				line.append("abcgint\u00e9".charAt(random.nextInt(8)));
+			}
+			assertEquals(line.toString(), reference.match(line.toString()),
+					matcher.match(line.toString()));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNoMatch() {
+		map.remove("*");
+		new CompiledPatternMatcher<String>(map).match("xyz");
+	}
+
+	@Test
+	public void testClassifier() {
+		PatternMatchingClassifier<String> classifier = new PatternMatchingClassifier<String>(
+				new CompiledPatternMatcher<String>(map, 10));
+		assertEquals("6", classifier.classify("sing"));
+		assertEquals("6", classifier.classify("sing"));
+		assertEquals("1", classifier.classify("bucket"));
+	}
+
+}
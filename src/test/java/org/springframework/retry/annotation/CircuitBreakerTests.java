@@ -16,8 +16,12 @@
 
 package org.springframework.retry.annotation;
 
+import java.lang.management.ManagementFactory;
 import java.util.Map;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.aopalliance.intercept.MethodInterceptor;
 import org.junit.Test;
 
@@ -28,7 +32,10 @@ import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.ExhaustedRetryException;
 import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.listener.RetryListenerSupport;
 import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
 import org.springframework.retry.support.RetrySynchronizationManager;
 
@@ -105,6 +112,120 @@ public class CircuitBreakerTests {
 		context.close();
 	}
 
+	@Test
+	public void mbeans() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				MBeanConfiguration.class);
+		LabelledService service = context.getBean(LabelledService.class);
+		service.service();
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName circuit = new ObjectName(
+				"org.springframework.retry:type=CircuitBreaker,name=\"labelled\"");
+		ObjectName stats = new ObjectName(
+				"org.springframework.retry:type=RetryStatistics,name=\"labelled\"");
+		assertFalse((Boolean) server.getAttribute(circuit, "Open"));
+		assertEquals(1, server.getAttribute(stats, "StartedCount"));
+		server.invoke(circuit, "forceOpen", null, null);
+		try {
+			service.service();
+			fail("Expected ExhaustedRetryException");
+		}
+		catch (ExhaustedRetryException e) {
+			// short circuited
+		}
+		assertEquals(1, service.getCount());
+		server.invoke(circuit, "reset", null, null);
+		service.service();
+		assertEquals(2, service.getCount());
+		context.close();
+		assertFalse(server.isRegistered(circuit));
+		assertFalse(server.isRegistered(stats));
+	}
+
+	@Test
+	public void mbeansWithListeners() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				ListenerMBeanConfiguration.class);
+		context.getBean(ListenedService.class).service();
+		assertEquals(1,
+				ManagementFactory.getPlatformMBeanServer()
+						.getAttribute(new ObjectName(
+								"org.springframework.retry:type=RetryStatistics,name=\"listened\""),
+								"StartedCount"));
+		context.close();
+	}
+
+	@Test
+	public void mbeansDisabled() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				NoMBeanConfiguration.class);
+		context.getBean(LabelledService.class).service();
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(
+				"org.springframework.retry:type=CircuitBreaker,name=\"labelled\"")));
+		context.close();
+	}
+
+	@Configuration
+	@EnableRetry
+	protected static class MBeanConfiguration {
+
+		@Bean
+		public LabelledService service() {
+			return new LabelledService();
+		}
+
+	}
+
+	@Configuration
+	@EnableRetry
+	protected static class ListenerMBeanConfiguration {
+
+		@Bean
+		public ListenedService service() {
+			return new ListenedService();
+		}
+
+		@Bean
+		public RetryListener listener() {
+			return new RetryListenerSupport();
+		}
+
+	}
+
+	@Configuration
+	@EnableRetry(exposeMBeans = false)
+	protected static class NoMBeanConfiguration {
+
+		@Bean
+		public LabelledService service() {
+			return new LabelledService();
+		}
+
+	}
+
+	protected static class ListenedService {
+
+		@Retryable(label = "listened", listeners = "listener")
+		public void service() {
+		}
+
+	}
+
+	protected static class LabelledService {
+
+		private int count = 0;
+
+		@CircuitBreaker(label = "labelled")
+		public void service() {
+			this.count++;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+
+	}
+
 	@Configuration
 	@EnableRetry
 	protected static class TestConfiguration {
@@ -19,6 +19,10 @@ package org.springframework.retry.annotation;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.junit.Test;
@@ -31,10 +35,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.RetryAfterBackOffPolicy;
 import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.UniformRandomBackOffPolicy;
+import org.springframework.retry.bulkhead.BulkheadFullException;
 import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.policy.RetryBudget;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -243,6 +253,115 @@ public class EnableRetryTests {
 		context.close();
 	}
 
+	@Test
+	public void testRetryBudget() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		BudgetService service = context.getBean(BudgetService.class);
+		RetryBudget budget = context.getBean(RetryBudget.class);
+		service.service(false);
+		assertEquals(1, service.getCount());
+		assertEquals(1, budget.getBalance(), 0.01);
+		try {
+			service.service(true);
+			fail("Expected RuntimeException");
+		}
+		catch (RuntimeException e) {
+			assertEquals("Planned", e.getMessage());
+		}
+		// one retry paid for by the first success, the next one is refused
+		assertEquals(3, service.getCount());
+		assertEquals(0, budget.getBalance(), 0.01);
+		assertEquals(1, budget.getRejectedCount());
+		context.close();
+	}
+
+	@Test
+	public void testRetryAfterExpression() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		ExpressionService service = context.getBean(ExpressionService.class);
+		service.service6();
+		assertEquals(2, service.getCount());
+		RetryConfiguration config = context.getBean(RetryConfiguration.class);
+		AnnotationAwareRetryOperationsInterceptor advice = (AnnotationAwareRetryOperationsInterceptor) new DirectFieldAccessor(
+				config).getPropertyValue("advice");
+		@SuppressWarnings("unchecked")
+		Map<Object, Map<Method, MethodInterceptor>> delegates = (Map<Object, Map<Method, MethodInterceptor>>) new DirectFieldAccessor(
+				advice).getPropertyValue("delegates");
+		MethodInterceptor interceptor = delegates.get(target(service))
+				.get(ExpressionService.class.getDeclaredMethod("service6"));
+		RetryTemplate template = (RetryTemplate) new DirectFieldAccessor(interceptor)
+				.getPropertyValue("retryOperations");
+		RetryAfterBackOffPolicy backOff = (RetryAfterBackOffPolicy) new DirectFieldAccessor(
+				template).getPropertyValue("backOffPolicy");
+		assertEquals(2000, backOff.getMaxInterval());
+		assertTrue(backOff.getDelegate() instanceof UniformRandomBackOffPolicy);
+		context.close();
+	}
+
+	@Test
+	public void testBulkhead() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		final BulkheadService service = context.getBean(BulkheadService.class);
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				service.service(entered, done);
+			}
+
+		});
+		thread.start();
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+		try {
+			service.other(new CountDownLatch(1), new CountDownLatch(0));
+			fail("Expected BulkheadFullException");
+		}
+		catch (BulkheadFullException e) {
+			// both methods share the same bulkhead
+		}
+		done.countDown();
+		thread.join(10000);
+		service.other(new CountDownLatch(1), new CountDownLatch(0));
+		assertEquals(2, service.getCount());
+		context.close();
+	}
+
+	@Test
+	public void testListenableFuture() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		AsyncService service = context.getBean(AsyncService.class);
+		assertEquals("foo", service.service().get(10, TimeUnit.SECONDS));
+		assertEquals(3, service.getCount());
+		assertEquals("recovered: Planned",
+				service.recoverable().get(10, TimeUnit.SECONDS));
+		assertEquals(5, service.getCount());
+		ScheduledExecutorService scheduler = (ScheduledExecutorService) new DirectFieldAccessor(
+				context.getBean(RetryConfiguration.class).getAdvice())
+						.getPropertyValue("scheduler");
+		assertNotNull(scheduler);
+		context.close();
+		assertTrue(scheduler.isShutdown());
+	}
+
+	@Test
+	public void testListenableFutureCancelled() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		AsyncService service = context.getBean(AsyncService.class);
+		ListenableFuture<String> result = service.failing();
+		assertTrue(result.cancel(false));
+		// the retry scheduled after the first attempt is abandoned
+		Thread.sleep(200);
+		assertEquals(1, service.getFailingCount());
+		context.close();
+	}
+
 	private Object target(Object target) {
 		if (!AopUtils.isAopProxy(target)) {
 			return target;
@@ -352,6 +471,29 @@ public class EnableRetryTests {
 			return Integer.valueOf(5);
 		}
 
+		@Bean
+		public RetryBudget retryBudget() {
+			RetryBudget budget = new RetryBudget();
+			budget.setRetryRatio(1);
+			budget.setMinRetriesPerSecond(0);
+			return budget;
+		}
+
+		@Bean
+		public BudgetService budgetService() {
+			return new BudgetService();
+		}
+
+		@Bean
+		public BulkheadService bulkheadService() {
+			return new BulkheadService();
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+
 		@Bean
 		public Foo foo() {
 			return new Foo();
@@ -369,6 +511,103 @@ public class EnableRetryTests {
 
 	}
 
+	protected static class BudgetService {
+
+		private int count = 0;
+
+		@Retryable(retryBudget = "retryBudget")
+		public void service(boolean fail) {
+			count++;
+			if (fail) {
+				throw new RuntimeException("Planned");
+			}
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+	}
+
+	@Bulkhead(maxConcurrentCalls = 1, name = "shared")
+	protected static class BulkheadService {
+
+		private int count = 0;
+
+		@Retryable(maxAttempts = 2, backoff = @Backoff(1))
+		public void service(CountDownLatch entered, CountDownLatch done) {
+			count++;
+			entered.countDown();
+			try {
+				done.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Retryable(maxAttempts = 2, backoff = @Backoff(1))
+		public void other(CountDownLatch entered, CountDownLatch done) {
+			service(entered, done);
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+	}
+
+	protected static class AsyncService {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private final AtomicInteger failing = new AtomicInteger();
+
+		@Retryable(backoff = @Backoff(10))
+		public ListenableFuture<String> service() {
+			SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+			if (count.incrementAndGet() < 3) {
+				future.setException(new RuntimeException("Planned"));
+			}
+			else {
+				future.set("foo");
+			}
+			return future;
+		}
+
+		@Retryable(maxAttempts = 2, backoff = @Backoff(10))
+		public ListenableFuture<String> recoverable() {
+			count.incrementAndGet();
+			SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+			future.setException(new RuntimeException("Planned"));
+			return future;
+		}
+
+		@Recover
+		public ListenableFuture<String> recover(RuntimeException cause) {
+			SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+			future.set("recovered: " + cause.getMessage());
+			return future;
+		}
+
+		@Retryable(maxAttempts = 10, backoff = @Backoff(20))
+		public ListenableFuture<String> failing() {
+			failing.incrementAndGet();
+			SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+			future.setException(new IllegalStateException("Planned"));
+			return future;
+		}
+
+		public int getCount() {
+			return count.get();
+		}
+
+		public int getFailingCount() {
+			return failing.get();
+		}
+
+	}
+
 	protected static class Service {
 
 		private int count = 0;
@@ -566,6 +805,13 @@ public class EnableRetryTests {
 			}
 		}
 
+		@Retryable(backoff = @Backoff(retryAfterExpression = "message == null ? null : new Long(message)", maxDelay = 2000))
+		public void service6() {
+			if (count++ < 1) {
+				throw new RuntimeException("5000");
+			}
+		}
+
 		public int getCount() {
 			return count;
 		}
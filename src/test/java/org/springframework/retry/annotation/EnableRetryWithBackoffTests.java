@@ -28,7 +28,10 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.support.RetryTemplate;
 
 /**
  * @author Dave Syer
@@ -89,6 +92,24 @@ public class EnableRetryWithBackoffTests {
 		context.close();
 	}
 
+	@Test
+	public void deadline() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				TestConfiguration.class);
+		final Service service = context.getBean(Service.class);
+		RetryTemplate template = RetryTemplate.builder().withinMillis(500).build();
+		template.execute(new RetryCallback<Object, RuntimeException>() {
+			@Override
+			public Object doWithRetry(RetryContext retryContext) {
+				service.service();
+				return null;
+			}
+		});
+		assertEquals(3, service.getCount());
+		assertEquals("[]", context.getBean(PeriodSleeper.class).getPeriods().toString());
+		context.close();
+	}
+
 	@Configuration
 	@EnableRetry
 	@EnableAspectJAutoProxy(proxyTargetClass = true)
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveBackOffPolicyTests {
+
+	private final DummySleeper sleeper = new DummySleeper();
+
+	private final DefaultStatisticsRepository repository = new DefaultStatisticsRepository();
+
+	@Test
+	public void testMinimalIntervalForIsolatedErrors() throws Exception {
+		AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy(this.repository)
+				.withSleeper(this.sleeper);
+		for (int i = 0; i < 100; i++) {
+			this.repository.addStarted("test");
+			this.repository.addComplete("test");
+		}
+		RetryContext context = new RetryContextSupport(null);
+		context.setAttribute(RetryContext.NAME, "test");
+		BackOffContext backOffContext = policy.start(context);
+		policy.backOff(backOffContext);
+		assertEquals(AdaptiveBackOffPolicy.DEFAULT_MIN_INTERVAL,
+				this.sleeper.getLastBackOff());
+	}
+
+	@Test
+	public void testLongerIntervalWhenFailingBroadly() throws Exception {
+		AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy(this.repository);
+		policy.setMinInterval(100);
+		policy.setMaxInterval(1100);
+		for (int i = 0; i < 10; i++) {
+			this.repository.addStarted("test");
+			this.repository.addAbort("test");
+		}
+		RetryContext context = new RetryContextSupport(null);
+		context.setAttribute(RetryContext.NAME, "test");
+		long interval = policy.getInterval(context);
+		assertTrue("Interval was " + interval, interval > 1000 && interval <= 1100);
+		for (int i = 0; i < 10; i++) {
+			this.repository.addStarted("test");
+			this.repository.addComplete("test");
+		}
+		long lower = policy.getInterval(context);
+		assertTrue("Interval was " + lower, lower < interval && lower > 100);
+	}
+
+	@Test
+	public void testFixedName() throws Exception {
+		AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy(this.repository);
+		policy.setName("other");
+		policy.setMinInterval(10);
+		policy.setMaxInterval(20);
+		policy.setSleeper(this.sleeper);
+		this.repository.addStarted("other");
+		this.repository.addAbort("other");
+		BackOffContext backOffContext = policy.start(new RetryContextSupport(null));
+		policy.backOff(backOffContext);
+		policy.backOff(backOffContext);
+		assertArrayEquals(new long[] { 20, 20 }, this.sleeper.getBackOffs());
+	}
+
+	@Test
+	public void testNoStatistics() throws Exception {
+		AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy();
+		assertEquals(AdaptiveBackOffPolicy.DEFAULT_MIN_INTERVAL, policy.getInterval(null));
+	}
+
+}
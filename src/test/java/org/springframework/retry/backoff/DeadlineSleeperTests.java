@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeadlineSleeperTests {
+
+	private final DummySleeper delegate = new DummySleeper();
+
+	private final DeadlineSleeper sleeper = new DeadlineSleeper(this.delegate);
+
+	@After
+	public void clear() {
+		RetrySynchronizationManager.register(null);
+	}
+
+	@Test
+	public void testNoRetryInProgress() throws Exception {
+		this.sleeper.sleep(5000);
+		assertEquals(5000, this.delegate.getLastBackOff());
+	}
+
+	@Test
+	public void testWithinDeadline() throws Exception {
+		RetryContextSupport context = new RetryContextSupport(null);
+		context.setAttribute(RetryContext.DEADLINE,
+				System.currentTimeMillis() + 60000);
+		RetrySynchronizationManager.register(context);
+		this.sleeper.sleep(5000);
+		assertEquals(5000, this.delegate.getLastBackOff());
+		assertFalse(context.isExhaustedOnly());
+	}
+
+	@Test
+	public void testBeyondInheritedDeadline() throws Exception {
+		RetryContextSupport parent = new RetryContextSupport(null);
+		parent.setAttribute(RetryContext.DEADLINE, System.currentTimeMillis() + 1000);
+		RetryContextSupport context = new RetryContextSupport(parent);
+		RetrySynchronizationManager.register(context);
+		this.sleeper.sleep(5000);
+		assertEquals(0, this.delegate.getBackOffs().length);
+		assertTrue(context.isExhaustedOnly());
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.retry.backoff;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -93,4 +94,67 @@ public class ExponentialBackOffPolicyTests {
 		}
 	}
 
+	@Test
+	public void testPrecomputedSameAsComputed() throws Exception {
+		long[][] settings = { { 40, 1000 }, { 100, 30000 }, { 1, 10 }, { 500, 50 } };
+		double[] multipliers = { 1.0, 1.2, 2.0, 3.5 };
+		for (long[] setting : settings) {
+			for (double multiplier : multipliers) {
+				ExponentialBackOffPolicy computed = new ExponentialBackOffPolicy();
+				computed.setInitialInterval(setting[0]);
+				computed.setMaxInterval(setting[1]);
+				computed.setMultiplier(multiplier);
+				ExponentialBackOffPolicy precomputed = computed
+						.withSleeper(new DummySleeper());
+				precomputed.setPrecomputed(true);
+				DummySleeper computedSleeper = new DummySleeper();
+				computed.setSleeper(computedSleeper);
+				DummySleeper precomputedSleeper = new DummySleeper();
+				precomputed.setSleeper(precomputedSleeper);
+				BackOffContext computedContext = computed.start(null);
+				BackOffContext precomputedContext = precomputed.start(null);
+				for (int x = 0; x < 30; x++) {
+					computed.backOff(computedContext);
+					precomputed.backOff(precomputedContext);
+				}
+				assertArrayEquals(computedSleeper.getBackOffs(),
+						precomputedSleeper.getBackOffs());
+			}
+		}
+	}
+
+	@Test
+	public void testPrecomputedLongSchedule() throws Exception {
+		ExponentialBackOffPolicy computed = new ExponentialBackOffPolicy();
+		computed.setInitialInterval(5000);
+		computed.setMaxInterval(3000000);
+		computed.setMultiplier(1.001);
+		ExponentialBackOffPolicy precomputed = computed.withSleeper(new DummySleeper());
+		precomputed.setPrecomputed(true);
+		DummySleeper computedSleeper = new DummySleeper();
+		computed.setSleeper(computedSleeper);
+		DummySleeper precomputedSleeper = new DummySleeper();
+		precomputed.setSleeper(precomputedSleeper);
+		BackOffContext computedContext = computed.start(null);
+		BackOffContext precomputedContext = precomputed.start(null);
+		for (int x = 0; x < 2000; x++) {
+			computed.backOff(computedContext);
+			precomputed.backOff(precomputedContext);
+		}
+		assertArrayEquals(computedSleeper.getBackOffs(),
+				precomputedSleeper.getBackOffs());
+		assertTrue(precomputedSleeper.getLastBackOff() > 13029);
+	}
+
+	@Test
+	public void testSchedule() throws Exception {
+		ExponentialBackOffPolicy strategy = new ExponentialBackOffPolicy();
+		strategy.setInitialInterval(100);
+		strategy.setMaxInterval(1000);
+		assertArrayEquals(new long[] { 100, 200, 400, 800, 1000 },
+				strategy.getSchedule());
+		strategy.setMaxInterval(300);
+		assertArrayEquals(new long[] { 100, 200, 300 }, strategy.getSchedule());
+	}
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JitterBackOffPolicyTests {
+
+	private static final int NUM_TRIALS = 1000;
+
+	@Test
+	public void testFullJitter() throws Exception {
+		DummySleeper sleeper = new DummySleeper();
+		ExponentialBackOffPolicy policy = configure(new FullJitterBackOffPolicy())
+				.withSleeper(sleeper);
+		assertTrue(policy instanceof FullJitterBackOffPolicy);
+		long[] ceilings = { 100, 200, 400, 800, 1000, 1000 };
+		for (int trial = 0; trial < NUM_TRIALS; trial++) {
+			BackOffContext context = policy.start(null);
+			for (long ceiling : ceilings) {
+				policy.backOff(context);
+				long sleep = sleeper.getLastBackOff();
+				assertTrue(sleep >= 0 && sleep <= ceiling);
+			}
+		}
+	}
+
+	@Test
+	public void testEqualJitter() throws Exception {
+		DummySleeper sleeper = new DummySleeper();
+		ExponentialBackOffPolicy policy = configure(new EqualJitterBackOffPolicy())
+				.withSleeper(sleeper);
+		assertTrue(policy instanceof EqualJitterBackOffPolicy);
+		long[] ceilings = { 100, 200, 400, 800, 1000, 1000 };
+		for (int trial = 0; trial < NUM_TRIALS; trial++) {
+			BackOffContext context = policy.start(null);
+			for (long ceiling : ceilings) {
+				policy.backOff(context);
+				long sleep = sleeper.getLastBackOff();
+				assertTrue(sleep >= ceiling / 2 && sleep <= ceiling);
+			}
+		}
+	}
+
+	@Test
+	public void testDecorrelatedJitter() throws Exception {
+		DummySleeper sleeper = new DummySleeper();
+		ExponentialBackOffPolicy policy = configure(
+				new DecorrelatedJitterBackOffPolicy()).withSleeper(sleeper);
+		policy.setMultiplier(3);
+		assertTrue(policy instanceof DecorrelatedJitterBackOffPolicy);
+		for (int trial = 0; trial < NUM_TRIALS; trial++) {
+			BackOffContext context = policy.start(null);
+			long previous = 100;
+			for (int i = 0; i < 6; i++) {
+				policy.backOff(context);
+				long sleep = sleeper.getLastBackOff();
+				assertTrue(sleep >= 100 && sleep <= Math.min(1000, previous * 3));
+				previous = sleep;
+			}
+		}
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals(
+				"FullJitterBackOffPolicy[initialInterval=100, multiplier=2.0, maxInterval=1000]",
+				configure(new FullJitterBackOffPolicy()).toString());
+	}
+
+	private ExponentialBackOffPolicy configure(ExponentialBackOffPolicy policy) {
+		policy.setInitialInterval(100);
+		policy.setMultiplier(2);
+		policy.setMaxInterval(1000);
+		return policy;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParkingSleeperTests {
+
+	private final ParkingSleeper sleeper = new ParkingSleeper();
+
+	@Test
+	public void testSingleBackOff() throws Exception {
+		long before = System.currentTimeMillis();
+		this.sleeper.sleep(50);
+		assertTrue(System.currentTimeMillis() - before >= 45);
+	}
+
+	@Test
+	public void testInterrupted() throws Exception {
+		Thread.currentThread().interrupt();
+		try {
+			this.sleeper.sleep(5000);
+			fail("Expected InterruptedException");
+		}
+		catch (InterruptedException e) {
+			assertFalse(Thread.currentThread().isInterrupted());
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.backoff;
+
+import org.junit.Test;
+
+import org.springframework.retry.context.RetryContextSupport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryAfterBackOffPolicyTests {
+
+	private DummySleeper sleeper = new DummySleeper();
+
+	@Test
+	public void testHintOrDelegate() throws Exception {
+		FixedBackOffPolicy delegate = new FixedBackOffPolicy();
+		delegate.setBackOffPeriod(100);
+		RetryAfterBackOffPolicy policy = new RetryAfterBackOffPolicy(
+				new ExpressionRetryAfterExtractor("message == null ? null : new Long(message)"),
+				delegate).withSleeper(this.sleeper);
+		RetryContextSupport context = new RetryContextSupport(null);
+		BackOffContext backOffContext = policy.start(context);
+		context.registerThrowable(new RuntimeException("2500"));
+		policy.backOff(backOffContext);
+		context.registerThrowable(new RuntimeException());
+		policy.backOff(backOffContext);
+		assertArrayEquals(new long[] { 2500, 100 }, this.sleeper.getBackOffs());
+	}
+
+	@Test
+	public void testFailingExtractorFallsBackToDelegate() throws Exception {
+		FixedBackOffPolicy delegate = new FixedBackOffPolicy();
+		delegate.setBackOffPeriod(100);
+		RetryAfterBackOffPolicy policy = new RetryAfterBackOffPolicy(
+				new ExpressionRetryAfterExtractor("new Long(message)"), delegate)
+						.withSleeper(this.sleeper);
+		RetryContextSupport context = new RetryContextSupport(null);
+		BackOffContext backOffContext = policy.start(context);
+		context.registerThrowable(new RuntimeException("soon"));
+		policy.backOff(backOffContext);
+		assertArrayEquals(new long[] { 100 }, this.sleeper.getBackOffs());
+	}
+
+	@Test
+	public void testClamped() throws Exception {
+		RetryAfterBackOffPolicy policy = new RetryAfterBackOffPolicy(
+				new RetryAfterExtractor() {
+
+					@Override
+					public Long getRetryAfter(Throwable throwable) {
+						return Long.valueOf(throwable.getMessage());
+					}
+
+				}, new NoBackOffPolicy());
+		policy.setMinInterval(10);
+		policy.setMaxInterval(1000);
+		policy.setSleeper(this.sleeper);
+		RetryContextSupport context = new RetryContextSupport(null);
+		BackOffContext backOffContext = policy.start(context);
+		context.registerThrowable(new RuntimeException("1"));
+		policy.backOff(backOffContext);
+		context.registerThrowable(new RuntimeException("60000"));
+		policy.backOff(backOffContext);
+		assertArrayEquals(new long[] { 10, 1000 }, this.sleeper.getBackOffs());
+	}
+
+	@Test
+	public void testDelegateStateKept() throws Exception {
+		ExponentialBackOffPolicy delegate = new ExponentialBackOffPolicy();
+		delegate.setInitialInterval(100);
+		delegate.setMultiplier(2);
+		RetryAfterBackOffPolicy policy = new RetryAfterBackOffPolicy(
+				new ExpressionRetryAfterExtractor("message == 'throttled' ? 500 : null"),
+				delegate).withSleeper(this.sleeper);
+		assertTrue(policy.getDelegate() instanceof ExponentialBackOffPolicy);
+		RetryContextSupport context = new RetryContextSupport(null);
+		BackOffContext backOffContext = policy.start(context);
+		context.registerThrowable(new RuntimeException("failed"));
+		policy.backOff(backOffContext);
+		context.registerThrowable(new RuntimeException("throttled"));
+		policy.backOff(backOffContext);
+		context.registerThrowable(new RuntimeException("failed"));
+		policy.backOff(backOffContext);
+		assertArrayEquals(new long[] { 100, 500, 200 }, this.sleeper.getBackOffs());
+	}
+
+}
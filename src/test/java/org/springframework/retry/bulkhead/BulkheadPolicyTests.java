@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.bulkhead;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.stats.DefaultRetryStatistics;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkheadPolicyTests {
+
+	@Test
+	public void testSemaphoreFailFast() {
+		SemaphoreBulkheadPolicy policy = new SemaphoreBulkheadPolicy(2);
+		assertTrue(policy.acquire());
+		assertTrue(policy.acquire());
+		assertFalse(policy.acquire());
+		assertEquals(2, policy.getInFlight());
+		assertEquals(1, policy.getRejectedCount());
+		policy.release(true, 0);
+		assertTrue(policy.acquire());
+	}
+
+	@Test
+	public void testSemaphoreBoundedWait() {
+		SemaphoreBulkheadPolicy policy = new SemaphoreBulkheadPolicy(1);
+		policy.setMaxWait(50);
+		assertTrue(policy.acquire());
+		long start = System.currentTimeMillis();
+		assertFalse(policy.acquire());
+		assertTrue(System.currentTimeMillis() - start >= 40);
+	}
+
+	@Test
+	public void testAdaptiveDecreaseOnFailure() {
+		AdaptiveBulkheadPolicy policy = new AdaptiveBulkheadPolicy(10);
+		policy.setBackoffRatio(0.5);
+		assertTrue(policy.acquire());
+		policy.release(false, 0);
+		assertEquals(5, policy.getLimit());
+		assertTrue(policy.acquire());
+		policy.release(false, 0);
+		assertTrue(policy.acquire());
+		policy.release(false, 0);
+		assertTrue(policy.acquire());
+		policy.release(false, 0);
+		assertEquals(1, policy.getLimit());
+		assertTrue(policy.acquire());
+		assertFalse(policy.acquire());
+		assertEquals(1, policy.getRejectedCount());
+	}
+
+	@Test
+	public void testAdaptiveIncreaseWhenBusy() {
+		AdaptiveBulkheadPolicy policy = new AdaptiveBulkheadPolicy(2);
+		for (int i = 0; i < 20; i++) {
+			assertTrue(policy.acquire());
+			assertTrue(policy.acquire());
+			policy.release(true, 0);
+			policy.release(true, 0);
+		}
+		assertTrue(policy.getLimit() > 2);
+		assertEquals(0, policy.getInFlight());
+	}
+
+	@Test
+	public void testAdaptiveLatencyThreshold() {
+		AdaptiveBulkheadPolicy policy = new AdaptiveBulkheadPolicy(10);
+		policy.setLatencyThreshold(100);
+		assertTrue(policy.acquire());
+		policy.release(true, 200 * 1000000L);
+		assertEquals(9, policy.getLimit());
+	}
+
+	@Test
+	public void testTemplateRejectsAttempts() {
+		SemaphoreBulkheadPolicy policy = new SemaphoreBulkheadPolicy(1);
+		DefaultStatisticsRepository repository = new DefaultStatisticsRepository();
+		RetryTemplate template = RetryTemplate.builder().maxAttempts(2).bulkhead(policy)
+				.withListener(new StatisticsListener(repository) {
+
+					@Override
+					public <T, E extends Throwable> boolean open(RetryContext context,
+							RetryCallback<T, E> callback) {
+						context.setAttribute(RetryContext.NAME, "test");
+						return true;
+					}
+
+				}).build();
+		RetryCallback<Object, RuntimeException> callback = new RetryCallback<Object, RuntimeException>() {
+
+			@Override
+			public Object doWithRetry(RetryContext context) {
+				return "foo";
+			}
+
+		};
+		assertTrue(policy.acquire());
+		try {
+			template.execute(callback);
+			fail("Expected BulkheadFullException");
+		}
+		catch (BulkheadFullException e) {
+			// expected
+		}
+		policy.release(true, 0);
+		DefaultRetryStatistics stats = (DefaultRetryStatistics) repository
+				.findOne("test");
+		assertEquals(2, stats.getBulkheadRejectionCount());
+		assertEquals("foo", template.execute(callback));
+		assertEquals(0, policy.getInFlight());
+	}
+
+}
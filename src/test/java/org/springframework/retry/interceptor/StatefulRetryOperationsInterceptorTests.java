@@ -16,11 +16,14 @@
 package org.springframework.retry.interceptor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +31,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -43,6 +54,7 @@ import org.springframework.retry.RecoveryCallback;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryOperations;
+import org.springframework.retry.TerminatedRetryException;
 import org.springframework.retry.listener.RetryListenerSupport;
 import org.springframework.retry.policy.AlwaysRetryPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
@@ -294,6 +306,33 @@ public class StatefulRetryOperationsInterceptorTests {
 		assertEquals("bar", captor.getValue().getKey());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDefaultKeyOfSeveralArguments() throws Throwable {
+		this.interceptor.setLabel("foo");
+		RetryOperations template = mock(RetryOperations.class);
+		this.interceptor.setRetryOperations(template);
+		MethodInvocation first = mock(MethodInvocation.class);
+		when(first.getArguments()).thenReturn(new Object[] { "bar", 1 });
+		MethodInvocation second = mock(MethodInvocation.class);
+		when(second.getArguments()).thenReturn(new Object[] { "bar", 1 });
+		MethodInvocation third = mock(MethodInvocation.class);
+		when(third.getArguments()).thenReturn(new Object[] { "bar", 2 });
+		this.interceptor.invoke(first);
+		this.interceptor.invoke(second);
+		this.interceptor.invoke(third);
+		ArgumentCaptor<DefaultRetryState> captor = ArgumentCaptor
+				.forClass(DefaultRetryState.class);
+		verify(template, times(3)).execute(any(RetryCallback.class),
+				any(RecoveryCallback.class), captor.capture());
+		List<DefaultRetryState> states = captor.getAllValues();
+		assertEquals(states.get(0).getKey(), states.get(1).getKey());
+		assertEquals(states.get(0).getKey().hashCode(),
+				states.get(1).getKey().hashCode());
+		assertFalse(states.get(0).getKey().equals(states.get(2).getKey()));
+		assertEquals("[foo, [bar, 1]]", states.get(0).getKey().toString());
+	}
+
 	@Test
 	public void testTransformerRecoveryAfterTooManyAttempts() throws Exception {
 		((Advised) transformer).addAdvice(interceptor);
@@ -321,6 +360,106 @@ public class StatefulRetryOperationsInterceptorTests {
 		assertEquals(1, result.size());
 	}
 
+	@Test
+	public void testSingleFlight() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		final Transformer transformer = ProxyFactory.getProxy(Transformer.class,
+				new SingletonTargetSource(new Transformer() {
+					@Override
+					public Collection<String> transform(String in) throws Exception {
+						calls.incrementAndGet();
+						entered.countDown();
+						release.await(10, TimeUnit.SECONDS);
+						return Collections.singleton(in);
+					}
+				}));
+		interceptor.setSingleFlight(true);
+		((Advised) transformer).addAdvice(interceptor);
+		Callable<Collection<String>> task = new Callable<Collection<String>>() {
+			@Override
+			public Collection<String> call() throws Exception {
+				return transformer.transform("foo");
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Future<Collection<String>> first = executor.submit(task);
+			assertTrue(entered.await(10, TimeUnit.SECONDS));
+			Future<Collection<String>> second = executor.submit(task);
+			Future<Collection<String>> third = executor.submit(task);
+			// give the others time to join the call in progress
+			Thread.sleep(200);
+			release.countDown();
+			Collection<String> result = first.get(10, TimeUnit.SECONDS);
+			assertSame(result, second.get(10, TimeUnit.SECONDS));
+			assertSame(result, third.get(10, TimeUnit.SECONDS));
+			assertEquals(1, calls.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		// nothing in progress any more
+		transformer.transform("foo");
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testSingleFlightInterrupted() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		final Transformer transformer = ProxyFactory.getProxy(Transformer.class,
+				new SingletonTargetSource(new Transformer() {
+					@Override
+					public Collection<String> transform(String in) throws Exception {
+						calls.incrementAndGet();
+						entered.countDown();
+						release.await(10, TimeUnit.SECONDS);
+						return Collections.singleton(in);
+					}
+				}));
+		interceptor.setSingleFlight(true);
+		((Advised) transformer).addAdvice(interceptor);
+		Callable<Collection<String>> task = new Callable<Collection<String>>() {
+			@Override
+			public Collection<String> call() throws Exception {
+				return transformer.transform("foo");
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Collection<String>> first = executor.submit(task);
+			assertTrue(entered.await(10, TimeUnit.SECONDS));
+			final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+			Thread joiner = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						transformer.transform("foo");
+					}
+					catch (Throwable e) {
+						error.set(e);
+					}
+				}
+			});
+			joiner.start();
+			// give the joiner time to start waiting
+			Thread.sleep(200);
+			joiner.interrupt();
+			joiner.join(10000);
+			assertTrue(error.get() instanceof TerminatedRetryException);
+			assertTrue(error.get().getCause() instanceof InterruptedException);
+			release.countDown();
+			first.get(10, TimeUnit.SECONDS);
+			assertEquals(1, calls.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	public static interface Service {
 
 		void service(String in) throws Exception;
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.jmx;
+
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.stats.StatisticsRepository;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryMBeanExporterTests {
+
+	private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+	private final RetryTemplate template = new RetryTemplate();
+
+	private final RetryMBeanExporter exporter = new RetryMBeanExporter();
+
+	public RetryMBeanExporterTests() {
+		this.exporter.setServer(this.server);
+		this.template.setListeners(new RetryListener[] { this.exporter });
+	}
+
+	@After
+	public void close() {
+		this.exporter.destroy();
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+		this.template.setRetryPolicy(new SimpleRetryPolicy(3));
+		this.template.execute(new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "foo");
+				if (context.getRetryCount() == 0) {
+					throw new IllegalStateException("planned");
+				}
+				return "bar";
+			}
+		});
+		ObjectName name = new ObjectName(
+				"org.springframework.retry:type=RetryStatistics,name=\"foo\"");
+		assertEquals(2, this.server.getAttribute(name, "StartedCount"));
+		assertEquals(1, this.server.getAttribute(name, "ErrorCount"));
+		assertEquals(1, this.server.getAttribute(name, "CompleteCount"));
+		assertEquals(0., this.server.getAttribute(name, "RollingErrorRate"));
+		this.exporter.destroy();
+		assertFalse(this.server.isRegistered(name));
+	}
+
+	@Test
+	public void testSharedRepository() throws Exception {
+		StatisticsRepository repository = new DefaultStatisticsRepository();
+		RetryMBeanExporter exporter = new RetryMBeanExporter(repository);
+		exporter.setServer(this.server);
+		this.template.setListeners(
+				new RetryListener[] { new StatisticsListener(repository), exporter });
+		RetryCallback<String, Exception> callback = new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "foo");
+				return "bar";
+			}
+		};
+		this.template.execute(callback);
+		ObjectName name = new ObjectName(
+				"org.springframework.retry:type=RetryStatistics,name=\"foo\"");
+		// the exporter closes before the statistics are recorded
+		assertFalse(this.server.isRegistered(name));
+		this.template.execute(callback);
+		assertEquals(2, this.server.getAttribute(name, "StartedCount"));
+		exporter.destroy();
+	}
+
+	@Test
+	public void testCircuitBreaker() throws Throwable {
+		CircuitBreakerRetryPolicy policy = new CircuitBreakerRetryPolicy();
+		this.template.setRetryPolicy(policy);
+		this.exporter.registerCircuitBreaker("foo", policy);
+		ObjectName name = new ObjectName(
+				"org.springframework.retry:type=CircuitBreaker,name=\"foo\"");
+		assertFalse((Boolean) this.server.getAttribute(name, "Open"));
+		this.server.invoke(name, "forceOpen", null, null);
+		assertTrue((Boolean) this.server.getAttribute(name, "Open"));
+		assertTrue((Boolean) this.server.getAttribute(name, "Forced"));
+		String result = this.template.execute(new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				return "bar";
+			}
+		}, new RecoveryCallback<String>() {
+			@Override
+			public String recover(RetryContext context) throws Exception {
+				return "recovered";
+			}
+		}, new DefaultRetryState("foo", new BinaryExceptionClassifier(false)));
+		assertEquals("recovered", result);
+		assertEquals(1, this.server.getAttribute(name, "ShortCircuitCount"));
+		this.server.invoke(name, "reset", null, null);
+		assertFalse((Boolean) this.server.getAttribute(name, "Open"));
+		assertFalse((Boolean) this.server.getAttribute(name, "Forced"));
+	}
+
+	@Test
+	public void testCircuitBreakersSharingLabel() throws Exception {
+		CircuitBreakerRetryPolicy policy = new CircuitBreakerRetryPolicy();
+		this.exporter.registerCircuitBreaker("foo", policy);
+		this.exporter.registerCircuitBreaker("foo", new CircuitBreakerRetryPolicy());
+		this.exporter.registerCircuitBreaker("foo", policy);
+		Set<ObjectName> names = this.server.queryNames(
+				new ObjectName("org.springframework.retry:type=CircuitBreaker,*"), null);
+		assertEquals(2, names.size());
+	}
+
+	@Test
+	public void testDuplicateName() throws Exception {
+		RetryMBeanExporter other = new RetryMBeanExporter();
+		other.setServer(this.server);
+		other.registerCircuitBreaker("foo", new CircuitBreakerRetryPolicy());
+		this.exporter.registerCircuitBreaker("foo", new CircuitBreakerRetryPolicy());
+		Set<ObjectName> names = this.server.queryNames(
+				new ObjectName("org.springframework.retry:type=CircuitBreaker,*"), null);
+		assertEquals(2, names.size());
+		other.destroy();
+		names = this.server.queryNames(
+				new ObjectName("org.springframework.retry:type=CircuitBreaker,*"), null);
+		assertEquals(1, names.size());
+		assertTrue(names.iterator().next().getKeyProperty("identity") != null);
+	}
+
+}
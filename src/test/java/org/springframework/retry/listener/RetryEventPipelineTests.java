@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetryEventPipelineTests {
+
+	private final List<RetryEventRecord> events = Collections
+			.synchronizedList(new ArrayList<RetryEventRecord>());
+
+	private final List<Thread> threads = Collections
+			.synchronizedList(new ArrayList<Thread>());
+
+	private final RetryEventPipeline pipeline = new RetryEventPipeline(
+			new RetryEventConsumer() {
+
+				@Override
+				public void consume(List<RetryEventRecord> batch) {
+					RetryEventPipelineTests.this.threads.add(Thread.currentThread());
+					RetryEventPipelineTests.this.events.addAll(batch);
+				}
+
+			});
+
+	@After
+	public void close() throws Exception {
+		this.pipeline.stop();
+	}
+
+	@Test
+	public void testEventsDeliveredInBackground() throws Exception {
+		RetryTemplate template = new RetryTemplate();
+		template.setListeners(new RetryListener[] { this.pipeline });
+		template.execute(new RetryCallback<Object, Exception>() {
+
+			@Override
+			public Object doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "test");
+				if (context.getRetryCount() == 0) {
+					throw new Exception("Planned");
+				}
+				return null;
+			}
+
+		});
+		this.pipeline.stop();
+		assertEquals(3, this.events.size());
+		assertEquals(RetryEvent.OPEN, this.events.get(0).getType());
+		assertNull(this.events.get(0).getName());
+		RetryEventRecord error = this.events.get(1);
+		assertEquals(RetryEvent.ERROR, error.getType());
+		assertEquals("Planned", error.getThrowable().getMessage());
+		assertEquals("test", error.getName());
+		RetryEventRecord close = this.events.get(2);
+		assertTrue(close.isSuccessful());
+		assertEquals(1, close.getRetryCount());
+		assertTrue(close.getDuration() > 0);
+		for (Thread thread : this.threads) {
+			assertFalse(thread == Thread.currentThread());
+		}
+		assertEquals(3, this.pipeline.getDeliveredCount());
+	}
+
+	@Test
+	public void testOverflow() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		RetryEventPipeline pipeline = new RetryEventPipeline(new RetryEventConsumer() {
+
+			@Override
+			public void consume(List<RetryEventRecord> batch) {
+				blocked.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+		});
+		pipeline.setCapacity(4);
+		RetryContext context = new RetryContextSupport(null);
+		pipeline.open(context, null);
+		assertTrue(blocked.await(10, TimeUnit.SECONDS));
+		// the consumer is busy with the first event, so 4 more fill the buffer
+		for (int i = 0; i < 6; i++) {
+			pipeline.onError(context, null, new RuntimeException());
+		}
+		assertEquals(2, pipeline.getDroppedCount());
+		release.countDown();
+		pipeline.stop();
+		assertEquals(5, pipeline.getDeliveredCount());
+	}
+
+	@Test
+	public void testConcurrentProducers() throws Exception {
+		this.pipeline.setCapacity(64);
+		this.pipeline.setOverflowPolicy(RetryEventPipeline.OverflowPolicy.CALLER_RUNS);
+		List<Thread> producers = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			producers.add(new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					RetryContext context = new RetryContextSupport(null);
+					for (int j = 0; j < 1000; j++) {
+						RetryEventPipelineTests.this.pipeline.onError(context, null,
+								null);
+					}
+				}
+
+			}));
+		}
+		for (Thread producer : producers) {
+			producer.start();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		this.pipeline.stop();
+		assertEquals(4000, this.events.size());
+		assertEquals(0, this.pipeline.getDroppedCount());
+	}
+
+}
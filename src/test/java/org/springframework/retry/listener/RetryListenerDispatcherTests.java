@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class RetryListenerDispatcherTests {
+
+	private final List<String> events = new ArrayList<String>();
+
+	@Test
+	public void testSelectiveListeners() throws Exception {
+		RetryTemplate template = new RetryTemplate();
+		template.setListeners(new RetryListener[] { new Recorder("a", RetryEvent.OPEN),
+				new Recorder("b", RetryEvent.ERROR, RetryEvent.SUCCESS),
+				new Recorder("c", RetryEvent.ERROR, RetryEvent.CLOSE) });
+		template.execute(new RetryCallback<Object, Exception>() {
+
+			@Override
+			public Object doWithRetry(RetryContext context) throws Exception {
+				if (context.getRetryCount() == 0) {
+					throw new Exception("Planned");
+				}
+				return null;
+			}
+
+		});
+		assertEquals("[a.open, c.onError, b.onError, c.close, b.close]",
+				this.events.toString());
+		this.events.clear();
+		try {
+			template.execute(new RetryCallback<Object, Exception>() {
+
+				@Override
+				public Object doWithRetry(RetryContext context) throws Exception {
+					throw new Exception("Planned");
+				}
+
+			});
+			fail("Expected Exception");
+		}
+		catch (Exception e) {
+			// expected
+		}
+		// no close for b, which only wants successes
+		assertEquals("[a.open, c.onError, b.onError, c.onError, b.onError, "
+				+ "c.onError, b.onError, c.close]", this.events.toString());
+	}
+
+	@Test
+	public void testOpenVeto() {
+		RetryListenerDispatcher dispatcher = new RetryListenerDispatcher(
+				new RetryListener[] { new RetryListenerSupport() {
+
+					@Override
+					public <T, E extends Throwable> boolean open(RetryContext context,
+							RetryCallback<T, E> callback) {
+						return false;
+					}
+
+				}, new Recorder("a", RetryEvent.OPEN) });
+		assertFalse(dispatcher.open(null, null));
+		// the veto stops the notification
+		assertEquals(0, this.events.size());
+	}
+
+	@Test
+	public void testSupportSubclassOnlyGetsOverriddenEvents() {
+		RetryListenerDispatcher dispatcher = new RetryListenerDispatcher(
+				new RetryListener[] { new RetryListenerSupport() {
+
+					@Override
+					public <T, E extends Throwable> void close(RetryContext context,
+							RetryCallback<T, E> callback, Throwable throwable) {
+						RetryListenerDispatcherTests.this.events.add("close");
+					}
+
+				} });
+		assertEquals(0, ((Object[]) ReflectionTestUtils.getField(dispatcher,
+				"openListeners")).length);
+		assertEquals(0, ((Object[]) ReflectionTestUtils.getField(dispatcher,
+				"errorListeners")).length);
+		dispatcher.close(null, null, null);
+		assertEquals("[close]", this.events.toString());
+	}
+
+	private final class Recorder implements SelectiveRetryListener {
+
+		private final String name;
+
+		private final List<RetryEvent> supported = new ArrayList<RetryEvent>();
+
+		private Recorder(String name, RetryEvent... supported) {
+			this.name = name;
+			for (RetryEvent event : supported) {
+				this.supported.add(event);
+			}
+		}
+
+		@Override
+		public boolean supportsEvent(RetryEvent event) {
+			return this.supported.contains(event);
+		}
+
+		@Override
+		public <T, E extends Throwable> boolean open(RetryContext context,
+				RetryCallback<T, E> callback) {
+			RetryListenerDispatcherTests.this.events.add(this.name + ".open");
+			return true;
+		}
+
+		@Override
+		public <T, E extends Throwable> void close(RetryContext context,
+				RetryCallback<T, E> callback, Throwable throwable) {
+			RetryListenerDispatcherTests.this.events.add(this.name + ".close");
+		}
+
+		@Override
+		public <T, E extends Throwable> void onError(RetryContext context,
+				RetryCallback<T, E> callback, Throwable throwable) {
+			RetryListenerDispatcherTests.this.events.add(this.name + ".onError");
+		}
+
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.stats.StatisticsRepository;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetryMetricsBinderTests {
+
+	private final StatisticsRepository repository = new DefaultStatisticsRepository();
+
+	private final MapMeterRegistry registry = new MapMeterRegistry();
+
+	private final RetryMetricsBinder binder = new RetryMetricsBinder(this.repository,
+			this.registry);
+
+	private final RetryTemplate template = new RetryTemplate();
+
+	public RetryMetricsBinderTests() {
+		this.template.setListeners(new RetryListener[] {
+				new StatisticsListener(this.repository), this.binder });
+	}
+
+	@Test
+	public void testCountersAndTimers() throws Throwable {
+		this.template.setRetryPolicy(new SimpleRetryPolicy(3));
+		final AtomicInteger calls = new AtomicInteger();
+		String result = this.template.execute(new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "test");
+				if (calls.incrementAndGet() < 2) {
+					throw new IllegalStateException("planned");
+				}
+				return "foo";
+			}
+		});
+		assertEquals("foo", result);
+		assertEquals(2, this.registry.value("retry.started", "test"), 0);
+		assertEquals(1, this.registry.value("retry.errors", "test"), 0);
+		assertEquals(1, this.registry.value("retry.completed", "test"), 0);
+		assertEquals(0, this.registry.value("retry.aborted", "test"), 0);
+		assertEquals(0, this.registry.value("retry.bulkhead.rejected", "test"), 0);
+		assertEquals(1, this.registry.count("retry.duration", "test", "success"));
+		assertEquals(0, this.registry.count("retry.duration", "test", "failure"));
+	}
+
+	@Test
+	public void testCountersBoundOnceStatisticsExist() throws Throwable {
+		RetryCallback<String, Exception> callback = new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "test");
+				return "foo";
+			}
+		};
+		this.template.execute(callback);
+		// the binder closes before the statistics listener has recorded anything
+		assertNull(this.registry.values.get("retry.started{name=test}"));
+		assertEquals(1, this.registry.count("retry.duration", "test", "success"));
+		this.template.execute(callback);
+		assertEquals(2, this.registry.value("retry.started", "test"), 0);
+		assertEquals(2, this.registry.value("retry.completed", "test"), 0);
+	}
+
+	@Test
+	public void testCircuitGauges() throws Throwable {
+		this.template.setRetryPolicy(new CircuitBreakerRetryPolicy(new NeverRetryPolicy()));
+		RetryCallback<String, Exception> callback = new RetryCallback<String, Exception>() {
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				context.setAttribute(RetryContext.NAME, "test");
+				throw new IllegalStateException("planned");
+			}
+		};
+		RecoveryCallback<String> recoverer = new RecoveryCallback<String>() {
+			@Override
+			public String recover(RetryContext context) throws Exception {
+				return "bar";
+			}
+		};
+		// no rollback, so the error is not rethrown
+		DefaultRetryState state = new DefaultRetryState("foo",
+				new BinaryExceptionClassifier(false));
+		assertEquals("bar", this.template.execute(callback, recoverer, state));
+		assertEquals(1, this.registry.value("retry.circuit.open", "test"), 0);
+		assertEquals("bar", this.template.execute(callback, recoverer, state));
+		assertTrue(this.registry.value("retry.circuit.short", "test") > 0);
+		assertEquals(2, this.registry.count("retry.duration", "test", "recovered"));
+	}
+
+	@Test
+	public void testBindAll() throws Throwable {
+		this.repository.addStarted("other");
+		this.repository.addError("other");
+		this.binder.bindAll();
+		assertEquals(1, this.registry.value("retry.started", "other"), 0);
+		assertEquals(1, this.registry.value("retry.errors", "other"), 0);
+		this.binder.bindAll();
+		assertEquals(1, this.registry.value("retry.started", "other"), 0);
+	}
+
+	@Test
+	public void testMetersRegisteredOnceForConcurrentLabel() throws Throwable {
+		final CountDownLatch latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					latch.await();
+					return RetryMetricsBinderTests.this.template
+							.execute(new RetryCallback<String, Exception>() {
+								@Override
+								public String doWithRetry(RetryContext context) {
+									context.setAttribute(RetryContext.NAME, "concurrent");
+									return "foo";
+								}
+							});
+				}
+			}));
+		}
+		latch.countDown();
+		for (Future<String> future : futures) {
+			assertEquals("foo", future.get(10, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+		assertEquals(3, this.registry.timerRegistrations.get());
+		assertEquals(8, this.registry.count("retry.duration", "concurrent", "success"));
+	}
+
+	private static class MapMeterRegistry implements RetryMeterRegistry {
+
+		private final Map<String, MeterValue> values = new ConcurrentHashMap<String, MeterValue>();
+
+		private final Map<String, AtomicInteger> timers = new ConcurrentHashMap<String, AtomicInteger>();
+
+		private final AtomicInteger timerRegistrations = new AtomicInteger();
+
+		@Override
+		public void counter(String name, Map<String, String> tags, MeterValue value) {
+			register(name + tags, value);
+		}
+
+		@Override
+		public void gauge(String name, Map<String, String> tags, MeterValue value) {
+			register(name + tags, value);
+		}
+
+		private void register(String id, MeterValue value) {
+			assertNull("Duplicate meter " + id, this.values.put(id, value));
+		}
+
+		@Override
+		public MeterTimer timer(String name, Map<String, String> tags) {
+			final AtomicInteger count = new AtomicInteger();
+			this.timerRegistrations.incrementAndGet();
+			this.timers.put(name + tags, count);
+			return new MeterTimer() {
+				@Override
+				public void record(long nanos) {
+					assertTrue(nanos >= 0);
+					count.incrementAndGet();
+				}
+			};
+		}
+
+		private double value(String name, String label) {
+			return this.values.get(name + "{name=" + label + "}").value();
+		}
+
+		private int count(String name, String label, String outcome) {
+			return this.timers.get(name + "{name=" + label + ", outcome=" + outcome + "}")
+					.get();
+		}
+
+	}
+
+}
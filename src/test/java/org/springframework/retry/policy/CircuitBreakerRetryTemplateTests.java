@@ -156,6 +156,53 @@ public class CircuitBreakerRetryTemplateTests {
 		assertEquals(RESULT, result);
 	}
 
+	@Test
+	public void testForceOpen() throws Throwable {
+		CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(
+				new SimpleRetryPolicy());
+		this.retryTemplate.setRetryPolicy(retryPolicy);
+		this.callback.setAttemptsBeforeSuccess(0);
+		Object result = this.retryTemplate.execute(this.callback, this.recovery,
+				this.state);
+		assertEquals(RESULT, result);
+		retryPolicy.forceOpen();
+		assertTrue(retryPolicy.isOpen());
+		result = this.retryTemplate.execute(this.callback, this.recovery, this.state);
+		// circuit is held open so no more attempts
+		assertEquals(1, this.callback.getAttempts());
+		assertEquals(RECOVERED, result);
+		assertEquals(1, retryPolicy.getShortCircuitCount());
+		retryPolicy.reset();
+		assertFalse(retryPolicy.isForced());
+		result = this.retryTemplate.execute(this.callback, this.recovery, this.state);
+		assertEquals(2, this.callback.getAttempts());
+		assertEquals(RESULT, result);
+		assertFalse(retryPolicy.isOpen());
+	}
+
+	@Test
+	public void testForceClose() throws Throwable {
+		CircuitBreakerRetryPolicy retryPolicy = new CircuitBreakerRetryPolicy(
+				new NeverRetryPolicy());
+		this.retryTemplate.setRetryPolicy(retryPolicy);
+		this.callback.setAttemptsBeforeSuccess(10);
+		retryPolicy.forceClose();
+		for (int i = 0; i < 3; i++) {
+			Object result = this.retryTemplate.execute(this.callback, this.recovery,
+					this.state);
+			assertEquals(RECOVERED, result);
+		}
+		// circuit is held closed so every call is attempted
+		assertEquals(3, this.callback.getAttempts());
+		assertFalse(retryPolicy.isOpen());
+		retryPolicy.reset();
+		this.retryTemplate.execute(this.callback, this.recovery, this.state);
+		this.retryTemplate.execute(this.callback, this.recovery, this.state);
+		// counting afresh, so the circuit opens after one failure
+		assertEquals(4, this.callback.getAttempts());
+		assertTrue(retryPolicy.isOpen());
+	}
+
 	protected static class MockRetryCallback implements RetryCallback<Object, Exception> {
 
 		private int attemptsBeforeSuccess;
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.retry.RetryContext;
+
+public class ExpressionRetryPolicyTests {
+
+	@Test
+	public void testExpression() {
+		ExpressionRetryPolicy policy = new ExpressionRetryPolicy(
+				"message.contains('timeout')");
+		RetryContext context = policy.open(null);
+		policy.registerThrowable(context, new RuntimeException("read timeout"));
+		assertTrue(policy.canRetry(context));
+		policy.registerThrowable(context, new RuntimeException("refused"));
+		assertFalse(policy.canRetry(context));
+	}
+
+	@Test
+	public void testCompiledExpression() {
+		ExpressionRetryPolicy policy = new ExpressionRetryPolicy(
+				"message.contains('timeout')")
+						.withCompilerMode(SpelCompilerMode.MIXED);
+		policy.setMaxAttempts(Integer.MAX_VALUE);
+		RetryContext context = policy.open(null);
+		for (int i = 0; i < 200; i++) {
+			policy.registerThrowable(context, new RuntimeException("timeout " + i));
+			assertTrue(policy.canRetry(context));
+		}
+		policy.registerThrowable(context, new IllegalStateException("refused"));
+		assertFalse(policy.canRetry(context));
+	}
+
+	@Test
+	public void testResultCache() {
+		ExpressionRetryPolicy policy = new ExpressionRetryPolicy(
+				"message.contains('timeout')").withResultCache(2);
+		policy.setMaxAttempts(Integer.MAX_VALUE);
+		RetryContext context = policy.open(null);
+		policy.registerThrowable(context, new RuntimeException("timeout"));
+		assertTrue(policy.canRetry(context));
+		policy.registerThrowable(context, new RuntimeException("timeout"));
+		assertTrue(policy.canRetry(context));
+		policy.registerThrowable(context, new IllegalStateException("timeout"));
+		assertTrue(policy.canRetry(context));
+		policy.registerThrowable(context, new RuntimeException("refused"));
+		assertFalse(policy.canRetry(context));
+		assertEquals(2, ((Map<?, ?>) new DirectFieldAccessor(policy)
+				.getPropertyValue("results")).size());
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.policy;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetPolicyTests {
+
+	@Test
+	public void testFirstAttemptAlwaysAllowed() {
+		RetryBudget budget = new RetryBudget();
+		budget.setMinRetriesPerSecond(0);
+		RetryBudgetPolicy policy = new RetryBudgetPolicy(budget);
+		RetryContext context = policy.open(null);
+		assertTrue(policy.canRetry(context));
+		policy.registerThrowable(context, new RuntimeException());
+		assertFalse(policy.canRetry(context));
+		assertEquals(1, budget.getRejectedCount());
+	}
+
+	@Test
+	public void testSuccessRefillsBudget() {
+		RetryBudget budget = new RetryBudget();
+		budget.setMinRetriesPerSecond(0);
+		RetryBudgetPolicy policy = new RetryBudgetPolicy(budget);
+		for (int i = 0; i < 10; i++) {
+			policy.close(policy.open(null));
+		}
+		assertEquals(1, budget.getBalance(), 0.01);
+		RetryContext context = policy.open(null);
+		policy.registerThrowable(context, new RuntimeException());
+		assertTrue(policy.canRetry(context));
+		// asking again for the same attempt does not spend another token
+		assertTrue(policy.canRetry(context));
+		assertEquals(0, budget.getBalance(), 0.01);
+		policy.registerThrowable(context, new RuntimeException());
+		assertFalse(policy.canRetry(context));
+		policy.close(context);
+		assertEquals(0, budget.getBalance(), 0.01);
+	}
+
+	@Test
+	public void testMaxTokens() {
+		RetryBudget budget = new RetryBudget();
+		budget.setRetryRatio(1);
+		budget.setMaxTokens(2);
+		for (int i = 0; i < 10; i++) {
+			budget.recordSuccess();
+		}
+		assertEquals(2, budget.getBalance(), 0.01);
+	}
+
+	@Test
+	public void testMinRetriesPerSecond() {
+		RetryBudget budget = new RetryBudget();
+		budget.setMinRetriesPerSecond(2);
+		int granted = 0;
+		for (int i = 0; i < 5; i++) {
+			if (budget.tryAcquire()) {
+				granted++;
+			}
+		}
+		// at most two per second, but the second may tick over during the loop
+		assertTrue(granted >= 2 && granted <= 4);
+	}
+
+	@Test
+	public void testDelegateConsultedFirst() {
+		RetryBudget budget = new RetryBudget();
+		budget.setRetryRatio(1);
+		budget.setMinRetriesPerSecond(0);
+		budget.recordSuccess();
+		RetryBudgetPolicy policy = new RetryBudgetPolicy(budget,
+				new SimpleRetryPolicy(1));
+		RetryContext context = policy.open(null);
+		policy.registerThrowable(context, new RuntimeException());
+		assertFalse(policy.canRetry(context));
+		assertEquals(1, budget.getBalance(), 0.01);
+		assertEquals(1, context.getRetryCount());
+	}
+
+}
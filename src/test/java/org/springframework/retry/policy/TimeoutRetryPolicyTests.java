@@ -25,6 +25,9 @@ import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetryDeadlines;
 
 public class TimeoutRetryPolicyTests {
 
@@ -52,6 +55,43 @@ public class TimeoutRetryPolicyTests {
 		assertEquals("foo", context.getLastThrowable().getMessage());
 	}
 
+	@Test
+	public void testDeadlineInheritedByNestedRetry() throws Exception {
+		TimeoutRetryPolicy outer = new TimeoutRetryPolicy();
+		outer.setTimeout(100);
+		TimeoutRetryPolicy inner = new TimeoutRetryPolicy();
+		inner.setTimeout(60000);
+		RetryContext context = outer.open(null);
+		RetryContext child = inner.open(context);
+		assertEquals(context.getAttribute(RetryContext.DEADLINE),
+				child.getAttribute(RetryContext.DEADLINE));
+		long remaining = RetryDeadlines.getRemaining(child);
+		assertTrue(remaining <= 100);
+		assertEquals(RetryDeadlines.NONE, RetryDeadlines.getRemaining(null));
+	}
+
+	@Test
+	public void testNestedRetryStopsAtExpiredDeadline() throws Exception {
+		RetryContextSupport parent = new RetryContextSupport(null);
+		parent.setAttribute(RetryContext.DEADLINE, System.currentTimeMillis() - 1);
+		TimeoutRetryPolicy inner = new TimeoutRetryPolicy();
+		inner.setTimeout(60000);
+		RetryContext child = inner.open(parent);
+		assertEquals(0, RetryDeadlines.getRemaining(child));
+		assertFalse(inner.canRetry(child));
+	}
+
+	@Test
+	public void testDeadlineVisibleThroughComposite() throws Exception {
+		TimeoutRetryPolicy timeout = new TimeoutRetryPolicy();
+		timeout.setTimeout(5000);
+		CompositeRetryPolicy policy = new CompositeRetryPolicy();
+		policy.setPolicies(new RetryPolicy[] { new SimpleRetryPolicy(), timeout });
+		RetryContext context = policy.open(null);
+		long remaining = RetryDeadlines.getRemaining(context);
+		assertTrue(remaining > 0 && remaining <= 5000);
+	}
+
 	@Test
 	public void testParent() throws Exception {
 		TimeoutRetryPolicy policy = new TimeoutRetryPolicy();
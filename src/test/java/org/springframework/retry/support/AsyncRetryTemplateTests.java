@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.bulkhead.BulkheadFullException;
+import org.springframework.retry.bulkhead.SemaphoreBulkheadPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.NeverRetryPolicy;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncRetryTemplateTests {
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor();
+
+	private final AsyncRetryTemplate template = new AsyncRetryTemplate(this.scheduler);
+
+	private final List<String> events = new ArrayList<String>();
+
+	{
+		this.template.setListeners(new RetryListener[] { new RetryListenerSupport() {
+
+			@Override
+			public <T, E extends Throwable> void onError(RetryContext context,
+					RetryCallback<T, E> callback, Throwable throwable) {
+				AsyncRetryTemplateTests.this.events.add("error");
+			}
+
+			@Override
+			public <T, E extends Throwable> void close(RetryContext context,
+					RetryCallback<T, E> callback, Throwable throwable) {
+				AsyncRetryTemplateTests.this.events.add("close");
+			}
+
+		} });
+	}
+
+	@After
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+
+	@Test
+	public void testRetriesWithScheduledBackOff() throws Exception {
+		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+		backOffPolicy.setInitialInterval(50);
+		this.template.setBackOffPolicy(backOffPolicy);
+		long start = System.currentTimeMillis();
+		ListenableFuture<String> result = this.template
+				.execute(new FailingCallback(2, "foo"));
+		// the caller is not blocked by the back off
+		assertTrue(System.currentTimeMillis() - start < 50);
+		assertEquals("foo", result.get(10, TimeUnit.SECONDS));
+		// 50ms + 100ms
+		assertTrue(System.currentTimeMillis() - start >= 140);
+		assertEquals("[error, error, close]", this.events.toString());
+	}
+
+	@Test
+	public void testExhausted() throws Exception {
+		ListenableFuture<String> result = this.template
+				.execute(new FailingCallback(3, "foo"));
+		try {
+			result.get(10, TimeUnit.SECONDS);
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertEquals("Planned 3", e.getCause().getMessage());
+		}
+		assertEquals("[error, error, error, close]", this.events.toString());
+	}
+
+	@Test
+	public void testRecovery() throws Exception {
+		final FailingCallback callback = new FailingCallback(3, "foo");
+		ListenableFuture<String> result = this.template.execute(callback,
+				new RecoveryCallback<String>() {
+
+					@Override
+					public String recover(RetryContext context) throws Exception {
+						assertSame(callback.context, context);
+						assertTrue(context.hasAttribute(RetryContext.EXHAUSTED));
+						return "bar";
+					}
+
+				});
+		assertEquals("bar", result.get(10, TimeUnit.SECONDS));
+		assertEquals(3, callback.attempts);
+	}
+
+	@Test
+	public void testExceptionThrownByCallback() throws Exception {
+		final List<Integer> counts = new ArrayList<Integer>();
+		ListenableFuture<String> result = this.template
+				.execute(new RetryCallback<ListenableFuture<String>, Exception>() {
+
+					@Override
+					public ListenableFuture<String> doWithRetry(RetryContext context)
+							throws Exception {
+						counts.add(context.getRetryCount());
+						if (context.getRetryCount() == 0) {
+							throw new Exception("Planned");
+						}
+						SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+						future.set("foo");
+						return future;
+					}
+
+				});
+		assertEquals("foo", result.get(10, TimeUnit.SECONDS));
+		assertEquals("[0, 1]", counts.toString());
+	}
+
+	@Test
+	public void testBulkheadHeldUntilAttemptCompletes() throws Exception {
+		SemaphoreBulkheadPolicy bulkhead = new SemaphoreBulkheadPolicy(1);
+		this.template.setBulkheadPolicy(bulkhead);
+		this.template.setRetryPolicy(new NeverRetryPolicy());
+		final SettableListenableFuture<String> pending = new SettableListenableFuture<String>();
+		ListenableFuture<String> first = this.template
+				.execute(new RetryCallback<ListenableFuture<String>, Exception>() {
+
+					@Override
+					public ListenableFuture<String> doWithRetry(RetryContext context) {
+						return pending;
+					}
+
+				});
+		ListenableFuture<String> second = this.template
+				.execute(new FailingCallback(0, "foo"));
+		try {
+			second.get(10, TimeUnit.SECONDS);
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof BulkheadFullException);
+		}
+		pending.set("bar");
+		assertEquals("bar", first.get(10, TimeUnit.SECONDS));
+		assertEquals("foo",
+				this.template.execute(new FailingCallback(0, "foo")).get(10,
+						TimeUnit.SECONDS));
+		assertEquals(0, bulkhead.getInFlight());
+	}
+
+	private final class FailingCallback
+			implements RetryCallback<ListenableFuture<String>, Exception> {
+
+		private final int failures;
+
+		private final String value;
+
+		private volatile int attempts;
+
+		private volatile RetryContext context;
+
+		private FailingCallback(int failures, String value) {
+			this.failures = failures;
+			this.value = value;
+		}
+
+		@Override
+		public ListenableFuture<String> doWithRetry(final RetryContext context) {
+			this.context = context;
+			final int attempt = ++this.attempts;
+			final SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+			// complete on another thread, as an asynchronous client would
+			AsyncRetryTemplateTests.this.scheduler.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					if (attempt <= FailingCallback.this.failures) {
+						future.setException(new IllegalStateException("Planned " + attempt));
+					}
+					else {
+						future.set(FailingCallback.this.value);
+					}
+				}
+
+			});
+			return future;
+		}
+
+	}
+
+}
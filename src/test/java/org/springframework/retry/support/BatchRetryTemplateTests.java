@@ -0,0 +1,347 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.retry.BatchResult;
+import org.springframework.retry.BatchRetryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.DummySleeper;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchRetryTemplateTests {
+
+	private final BatchRetryTemplate template = new BatchRetryTemplate();
+
+	private final List<List<Integer>> calls = new ArrayList<List<Integer>>();
+
+	@Test
+	public void testOnlyFailedItemsRetried() {
+		DummySleeper sleeper = new DummySleeper();
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setSleeper(sleeper);
+		this.template.setBackOffPolicy(backOffPolicy);
+		BatchResult<Integer, String> result = this.template.execute(
+				Arrays.asList(1, 2, 3, 4, 5), new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) {
+						BatchRetryTemplateTests.this.calls
+								.add(new ArrayList<Integer>(items.keySet()));
+						for (Map.Entry<Integer, RetryContext> item : items.entrySet()) {
+							if (item.getKey() % 2 == 0
+									&& item.getValue().getRetryCount() == 0) {
+								result.failure(item.getKey(),
+										new IllegalStateException("Planned"));
+							}
+							else {
+								result.success(item.getKey(), "item" + item.getKey());
+							}
+						}
+					}
+
+				});
+		assertFalse(result.hasFailures());
+		assertEquals(5, result.getResults().size());
+		assertEquals("item4", result.getResults().get(4));
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), this.calls.get(0));
+		assertEquals(Arrays.asList(2, 4), this.calls.get(1));
+		assertEquals(2, this.calls.size());
+		assertEquals(1, sleeper.getBackOffs().length);
+	}
+
+	@Test
+	public void testExhaustedItemsReported() {
+		this.template.setRetryPolicy(new SimpleRetryPolicy(2));
+		BatchResult<Integer, String> result = this.template.execute(Arrays.asList(1, 2),
+				new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) {
+						BatchRetryTemplateTests.this.calls
+								.add(new ArrayList<Integer>(items.keySet()));
+						if (items.containsKey(1)) {
+							result.success(1, "one");
+						}
+						// no outcome for 2
+					}
+
+				});
+		assertEquals("one", result.getResults().get(1));
+		assertTrue(result.getFailures().containsKey(2));
+		assertEquals(2, this.calls.size());
+		assertEquals(Arrays.asList(2), this.calls.get(1));
+	}
+
+	@Test
+	public void testExceptionFailsRemainingItems() {
+		BatchResult<Integer, String> result = this.template.execute(Arrays.asList(1, 2, 3),
+				new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) throws Exception {
+						BatchRetryTemplateTests.this.calls
+								.add(new ArrayList<Integer>(items.keySet()));
+						result.success(items.keySet().iterator().next(), "ok");
+						throw new Exception("Planned");
+					}
+
+				});
+		assertEquals(3, result.getResults().size());
+		assertEquals(Arrays.asList(1, 2, 3), this.calls.get(0));
+		assertEquals(Arrays.asList(2, 3), this.calls.get(1));
+		assertEquals(Arrays.asList(3), this.calls.get(2));
+	}
+
+	@Test
+	public void testListenersSeeTheBatch() {
+		final List<String> events = new ArrayList<String>();
+		this.template.setRetryPolicy(new SimpleRetryPolicy(2));
+		this.template.setListeners(new RetryListener[] { new RetryListenerSupport() {
+
+			@Override
+			public <T, E extends Throwable> boolean open(RetryContext context,
+					RetryCallback<T, E> callback) {
+				events.add("open");
+				return true;
+			}
+
+			@Override
+			public <T, E extends Throwable> void onError(RetryContext context,
+					RetryCallback<T, E> callback, Throwable throwable) {
+				events.add("error:" + context.getRetryCount());
+			}
+
+			@Override
+			public <T, E extends Throwable> void close(RetryContext context,
+					RetryCallback<T, E> callback, Throwable throwable) {
+				events.add("close:" + throwable.getMessage());
+			}
+
+		} });
+		this.template.execute(Arrays.asList(1, 2),
+				new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) {
+						if (items.containsKey(1)) {
+							result.success(1, "one");
+						}
+						result.failure(2, new IllegalStateException("Planned"));
+					}
+
+				});
+		assertEquals("[open, error:1, error:2, close:Planned]", events.toString());
+	}
+
+	@Test
+	public void testErrorNotRetried() {
+		final List<RetryContext> contexts = new ArrayList<RetryContext>();
+		try {
+			this.template.execute(Arrays.asList(1, 2),
+					new BatchRetryCallback<Integer, String>() {
+
+						@Override
+						public void doWithRetry(Map<Integer, RetryContext> items,
+								BatchResult<Integer, String> result) {
+							BatchRetryTemplateTests.this.calls
+									.add(new ArrayList<Integer>(items.keySet()));
+							contexts.addAll(items.values());
+							throw new AssertionError("Planned");
+						}
+
+					});
+			fail("Expected AssertionError");
+		}
+		catch (AssertionError e) {
+			assertEquals("Planned", e.getMessage());
+		}
+		assertEquals(1, this.calls.size());
+		assertTrue(contexts.get(0).hasAttribute(RetryContext.CLOSED));
+		assertTrue(contexts.get(1).hasAttribute(RetryContext.CLOSED));
+		assertEquals(null, RetrySynchronizationManager.getContext());
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testAbortedItemsClosed() {
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setSleeper(new Sleeper() {
+
+			@Override
+			public void sleep(long backOffPeriod) throws InterruptedException {
+				throw new InterruptedException("Planned");
+			}
+
+		});
+		this.template.setBackOffPolicy(backOffPolicy);
+		final List<RetryContext> contexts = new ArrayList<RetryContext>();
+		BatchRetryCallback<Integer, String> callback = new BatchRetryCallback<Integer, String>() {
+
+			@Override
+			public void doWithRetry(Map<Integer, RetryContext> items,
+					BatchResult<Integer, String> result) {
+				BatchRetryTemplateTests.this.calls
+						.add(new ArrayList<Integer>(items.keySet()));
+				contexts.addAll(items.values());
+				for (Integer item : items.keySet()) {
+					result.failure(item, new IllegalStateException("Planned"));
+				}
+			}
+
+		};
+		for (int i = 0; i < 2; i++) {
+			try {
+				this.template.execute(Arrays.asList(1), callback);
+				fail("Expected BackOffInterruptedException");
+			}
+			catch (BackOffInterruptedException e) {
+				// expected
+			}
+		}
+		assertEquals(2, this.calls.size());
+		// each execution starts again with a new context
+		assertNotSame(contexts.get(0), contexts.get(1));
+		assertEquals(1, contexts.get(1).getRetryCount());
+		assertTrue(contexts.get(0).hasAttribute(RetryContext.CLOSED));
+		assertTrue(contexts.get(1).hasAttribute(RetryContext.CLOSED));
+		assertEquals(null, RetrySynchronizationManager.getContext());
+	}
+
+	@Test
+	public void testListenerVetoOpensNoItems() {
+		final List<RetryContext> closed = new ArrayList<RetryContext>();
+		this.template.setRetryPolicy(new SimpleRetryPolicy(3) {
+
+			@Override
+			public void close(RetryContext status) {
+				closed.add(status);
+			}
+
+		});
+		this.template.setListeners(new RetryListener[] { new RetryListenerSupport() {
+
+			@Override
+			public <T, E extends Throwable> boolean open(RetryContext context,
+					RetryCallback<T, E> callback) {
+				return false;
+			}
+
+		} });
+		try {
+			this.template.execute(Arrays.asList(1, 2),
+					new BatchRetryCallback<Integer, String>() {
+
+						@Override
+						public void doWithRetry(Map<Integer, RetryContext> items,
+								BatchResult<Integer, String> result) {
+							BatchRetryTemplateTests.this.calls
+									.add(new ArrayList<Integer>(items.keySet()));
+						}
+
+					});
+			fail("Expected TerminatedRetryException");
+		}
+		catch (TerminatedRetryException e) {
+			// expected
+		}
+		assertEquals(0, this.calls.size());
+		assertEquals(0, closed.size());
+	}
+
+	@Test
+	public void testCacheOverflowReportedAsFailure() {
+		this.template.setRetryPolicy(new SimpleRetryPolicy(2));
+		this.template.setRetryContextCache(new MapRetryContextCache(1));
+		BatchResult<Integer, String> result = this.template.execute(
+				Arrays.asList(1, 2, 3), new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) {
+						BatchRetryTemplateTests.this.calls
+								.add(new ArrayList<Integer>(items.keySet()));
+						for (Integer item : items.keySet()) {
+							result.failure(item, new IllegalStateException("Planned"));
+						}
+					}
+
+				});
+		assertEquals(3, result.getFailures().size());
+		assertEquals(Arrays.asList(1), this.calls.get(1));
+		assertEquals(2, this.calls.size());
+	}
+
+	@Test
+	public void testListenerCanCallCallback() {
+		final List<Object> results = new ArrayList<Object>();
+		this.template.setRetryPolicy(new SimpleRetryPolicy(1));
+		this.template.setListeners(new RetryListener[] { new RetryListenerSupport() {
+
+			@Override
+			public <T, E extends Throwable> void onError(RetryContext context,
+					RetryCallback<T, E> callback, Throwable throwable) {
+				try {
+					results.add(callback.doWithRetry(context));
+				}
+				catch (Throwable e) {
+					results.add(e);
+				}
+			}
+
+		} });
+		this.template.execute(Arrays.asList(1),
+				new BatchRetryCallback<Integer, String>() {
+
+					@Override
+					public void doWithRetry(Map<Integer, RetryContext> items,
+							BatchResult<Integer, String> result) {
+						BatchRetryTemplateTests.this.calls
+								.add(new ArrayList<Integer>(items.keySet()));
+					}
+
+				});
+		assertEquals(1, results.size());
+		assertTrue(results.get(0) instanceof BatchResult);
+		assertEquals(2, this.calls.size());
+	}
+
+}
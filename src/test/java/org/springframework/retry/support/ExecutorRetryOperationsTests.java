@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.ParkingSleeper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ExecutorRetryOperationsTests {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private final ExecutorRetryOperations operations;
+
+	{
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(10);
+		backOffPolicy.setSleeper(new ParkingSleeper());
+		RetryTemplate template = new RetryTemplate();
+		template.setBackOffPolicy(backOffPolicy);
+		this.operations = new ExecutorRetryOperations(template, this.executor);
+	}
+
+	@After
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testRunsOnExecutor() throws Exception {
+		final Thread caller = Thread.currentThread();
+		String result = this.operations.execute(new RetryCallback<String, Exception>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				assertFalse(Thread.currentThread() == caller);
+				if (context.getRetryCount() < 2) {
+					throw new Exception("Planned");
+				}
+				return "foo";
+			}
+
+		});
+		assertEquals("foo", result);
+	}
+
+	@Test
+	public void testExceptionRethrown() {
+		final IllegalStateException planned = new IllegalStateException("Planned");
+		try {
+			this.operations.execute(new RetryCallback<String, IllegalStateException>() {
+
+				@Override
+				public String doWithRetry(RetryContext context) {
+					throw planned;
+				}
+
+			});
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertSame(planned, e);
+		}
+	}
+
+	@Test
+	public void testRecoveryAndParentContext() throws Exception {
+		RetryTemplate outer = new RetryTemplate();
+		outer.execute(new RetryCallback<Object, Exception>() {
+
+			@Override
+			public Object doWithRetry(final RetryContext parent) throws Exception {
+				String result = ExecutorRetryOperationsTests.this.operations.execute(
+						new RetryCallback<String, Exception>() {
+
+							@Override
+							public String doWithRetry(RetryContext context)
+									throws Exception {
+								assertSame(parent, context.getParent());
+								throw new Exception("Planned");
+							}
+
+						}, new RecoveryCallback<String>() {
+
+							@Override
+							public String recover(RetryContext context) {
+								return "recovered";
+							}
+
+						});
+				assertEquals("recovered", result);
+				assertSame(parent, RetrySynchronizationManager.getContext());
+				return null;
+			}
+
+		});
+		assertNull(RetrySynchronizationManager.getContext());
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FleetRetrySimulatorTests {
+
+	@Test
+	public void testNoFailures() {
+		FleetRetrySimulator simulator = new FleetRetrySimulator(100,
+				new SimpleRetryPolicy(3), null);
+		FleetSimulation simulation = simulator.simulate(60000);
+		assertEquals(6000, simulation.getTotalRequests());
+		assertEquals(6000, simulation.getSucceededRequests());
+		assertEquals(1, simulation.getAmplification(), 0.0001);
+		assertEquals(100, simulation.getPeakOfferedLoad(), 0.0001);
+		assertEquals(0, simulation.getRecoveryTime());
+	}
+
+	@Test
+	public void testDeterministic() {
+		FleetSimulation first = outage(new SimpleRetryPolicy(3)).simulate(60000);
+		FleetSimulation second = outage(new SimpleRetryPolicy(3)).simulate(60000);
+		assertTrue(Arrays.equals(first.getAttempts(), second.getAttempts()));
+		assertTrue(Arrays.equals(first.getSuccesses(), second.getSuccesses()));
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testContextsClosed() {
+		final AtomicInteger open = new AtomicInteger();
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(2000);
+		FleetRetrySimulator simulator = new FleetRetrySimulator(100,
+				new SimpleRetryPolicy(3) {
+
+					@Override
+					public RetryContext open(RetryContext parent) {
+						open.incrementAndGet();
+						return super.open(parent);
+					}
+
+					@Override
+					public void close(RetryContext status) {
+						open.decrementAndGet();
+					}
+
+				}, backOffPolicy);
+		// sequences still backing off when the simulation ends are closed too
+		simulator.setOutage(50000, 20000);
+		FleetSimulation simulation = simulator.simulate(60000);
+		assertTrue(simulation.getExhaustedRequests() > 0);
+		assertEquals(0, open.get());
+	}
+
+	@Test
+	public void testRetriesAmplifyLoadDuringOutage() {
+		FleetSimulation simulation = outage(new SimpleRetryPolicy(3)).simulate(60000);
+		System.out.println(simulation);
+		// every request during the outage makes three attempts
+		assertEquals(300, simulation.getPeakOfferedLoad(), 0.0001);
+		assertEquals(1000, simulation.getExhaustedRequests());
+		assertTrue(simulation.getAmplification() > 1.3);
+		assertEquals(0, simulation.getRecoveryTime());
+	}
+
+	@Test
+	public void testRetriesAfterOutageDelayRecovery() {
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(2000);
+		FleetRetrySimulator simulator = new FleetRetrySimulator(100,
+				new SimpleRetryPolicy(3), backOffPolicy);
+		simulator.setOutage(20000, 10000);
+		// enough capacity for the normal load, but not for the retries
+		simulator.setCapacity(150);
+		simulator.setTick(100);
+		simulator.setJitter(true);
+		FleetSimulation retried = simulator.simulate(60000);
+		System.out.println(retried);
+		simulator = new FleetRetrySimulator(100, new SimpleRetryPolicy(1),
+				backOffPolicy);
+		simulator.setOutage(20000, 10000);
+		simulator.setCapacity(150);
+		simulator.setTick(100);
+		FleetSimulation single = simulator.simulate(60000);
+		assertEquals(1, single.getAmplification(), 0.0001);
+		assertEquals(0, single.getRecoveryTime());
+		// retries of requests made late in the outage overload the dependency after it
+		assertTrue(retried.getAmplification() > 1);
+		assertTrue(retried.getRecoveryTime() > 0);
+	}
+
+	@Test
+	public void testCircuitBreakerShedsLoad() {
+		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+		backOffPolicy.setInitialInterval(100);
+		FleetRetrySimulator simulator = new FleetRetrySimulator(100,
+				new SimpleRetryPolicy(3), backOffPolicy);
+		simulator.setOutage(20000, 10000);
+		FleetSimulation open = simulator.simulate(60000);
+		simulator.setCircuitBreaker(3, 5000, 5000);
+		FleetSimulation breaker = simulator.simulate(60000);
+		System.out.println(breaker);
+		assertTrue(breaker.getShortCircuitedRequests() > 0);
+		assertTrue(breaker.getTotalAttempts() < open.getTotalAttempts());
+		assertEquals(open.getTotalRequests(), breaker.getTotalRequests());
+	}
+
+	private FleetRetrySimulator outage(SimpleRetryPolicy retryPolicy) {
+		FleetRetrySimulator simulator = new FleetRetrySimulator(100, retryPolicy, null);
+		simulator.setOutage(20000, 10000);
+		simulator.setSeed(42);
+		return simulator;
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.DefaultRetryStatistics;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.StatisticsListener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgingRetryTemplateTests {
+
+	private final DefaultStatisticsRepository repository = new DefaultStatisticsRepository();
+
+	private final HedgingRetryTemplate template = new HedgingRetryTemplate();
+
+	{
+		this.template.setLabel("test");
+		this.template.setHedgeDelay(50);
+		this.template.setListeners(
+				new RetryListener[] { new StatisticsListener(this.repository) });
+	}
+
+	@Test
+	public void testHedgeWins() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger interrupted = new AtomicInteger();
+		String result = this.template.execute(new RetryCallback<String, Exception>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				if (calls.incrementAndGet() == 1) {
+					try {
+						Thread.sleep(5000);
+					}
+					catch (InterruptedException e) {
+						interrupted.incrementAndGet();
+					}
+					return "slow";
+				}
+				return "fast";
+			}
+
+		});
+		assertEquals("fast", result);
+		assertEquals(2, calls.get());
+		DefaultRetryStatistics stats = (DefaultRetryStatistics) this.repository
+				.findOne("test");
+		assertEquals(1, stats.getHedgeCount());
+		assertEquals(1, stats.getHedgeWonCount());
+		assertEquals(1, stats.getCompleteCount());
+		for (int i = 0; i < 100 && interrupted.get() == 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, interrupted.get());
+	}
+
+	@Test
+	public void testNoHedgeWhenFast() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		String result = this.template.execute(new RetryCallback<String, Exception>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				calls.incrementAndGet();
+				return "fast";
+			}
+
+		});
+		assertEquals("fast", result);
+		assertEquals(1, calls.get());
+		DefaultRetryStatistics stats = (DefaultRetryStatistics) this.repository
+				.findOne("test");
+		assertEquals(0, stats.getHedgeCount());
+	}
+
+	@Test
+	public void testFailureStartsNextAttempt() throws Exception {
+		this.template.setHedgeDelay(10000);
+		this.template.setMaxAttempts(3);
+		final AtomicInteger calls = new AtomicInteger();
+		long start = System.currentTimeMillis();
+		try {
+			this.template.execute(new RetryCallback<String, IllegalStateException>() {
+
+				@Override
+				public String doWithRetry(RetryContext context) {
+					throw new IllegalStateException("Planned " + calls.incrementAndGet());
+				}
+
+			});
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned 3", e.getMessage());
+		}
+		assertTrue(System.currentTimeMillis() - start < 10000);
+		DefaultRetryStatistics stats = (DefaultRetryStatistics) this.repository
+				.findOne("test");
+		assertEquals(3, stats.getErrorCount());
+		assertEquals(1, stats.getAbortCount());
+	}
+
+	@Test
+	public void testNonRetryableFailureStops() throws Exception {
+		this.template.setHedgeDelay(10000);
+		this.template.setMaxAttempts(3);
+		this.template.setRetryPolicy(new SimpleRetryPolicy(3, Collections
+				.<Class<? extends Throwable>, Boolean>singletonMap(
+						IllegalStateException.class, true)));
+		final AtomicInteger calls = new AtomicInteger();
+		try {
+			this.template.execute(new RetryCallback<String, IllegalArgumentException>() {
+
+				@Override
+				public String doWithRetry(RetryContext context) {
+					throw new IllegalArgumentException("Planned " + calls.incrementAndGet());
+				}
+
+			});
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("Planned 1", e.getMessage());
+		}
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testAttemptsHaveOwnContext() throws Exception {
+		this.template.setHedgeDelay(10);
+		final CountDownLatch latch = new CountDownLatch(2);
+		final List<RetryContext> contexts = Collections
+				.synchronizedList(new ArrayList<RetryContext>());
+		this.template.execute(new RetryCallback<String, InterruptedException>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) throws InterruptedException {
+				assertSame(context, RetrySynchronizationManager.getContext());
+				contexts.add(context);
+				latch.countDown();
+				latch.await(1, TimeUnit.SECONDS);
+				return "foo";
+			}
+
+		});
+		assertEquals(2, contexts.size());
+		assertNotSame(contexts.get(0), contexts.get(1));
+		assertSame(contexts.get(0).getParent(), contexts.get(1).getParent());
+		assertEquals("test", contexts.get(0).getParent().getAttribute(RetryContext.NAME));
+	}
+
+	@Test
+	public void testRecovery() throws Exception {
+		String result = this.template.execute(
+				new RetryCallback<String, IllegalStateException>() {
+
+					@Override
+					public String doWithRetry(RetryContext context) {
+						throw new IllegalStateException("Planned");
+					}
+
+				}, new RecoveryCallback<String>() {
+
+					@Override
+					public String recover(RetryContext context) throws Exception {
+						return "recovered " + context.getRetryCount();
+					}
+
+				});
+		assertEquals("recovered 2", result);
+	}
+
+	@Test
+	public void testHedgeDelayFromQuantile() throws Exception {
+		this.template.setHedgeDelay(5000);
+		this.template.setHedgeQuantile(0.9);
+		for (int i = 0; i < 32; i++) {
+			this.template.execute(new RetryCallback<String, Exception>() {
+
+				@Override
+				public String doWithRetry(RetryContext context) throws Exception {
+					return "fast";
+				}
+
+			});
+		}
+		assertTrue(this.template.getHedgeDelay() < 5000);
+	}
+
+	@Test
+	public void testStatefulWithoutHedging() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		RetryCallback<String, IllegalStateException> callback = new RetryCallback<String, IllegalStateException>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) {
+				assertEquals("test", context.getAttribute(RetryContext.NAME));
+				if (calls.incrementAndGet() == 1) {
+					throw new IllegalStateException("Planned");
+				}
+				return "foo";
+			}
+
+		};
+		try {
+			this.template.execute(callback, new DefaultRetryState("foo"));
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned", e.getMessage());
+		}
+		assertEquals("foo", this.template.execute(callback, new DefaultRetryState("foo")));
+		assertEquals(2, calls.get());
+		DefaultRetryStatistics stats = (DefaultRetryStatistics) this.repository
+				.findOne("test");
+		assertEquals(1, stats.getErrorCount());
+		assertEquals(0, stats.getHedgeCount());
+	}
+
+	@Test
+	public void testFailureReplacedWhileHedgeRuns() throws Exception {
+		this.template.setHedgeDelay(1000);
+		this.template.setMaxAttempts(3);
+		final AtomicInteger calls = new AtomicInteger();
+		final CountDownLatch hedged = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+		String result = this.template.execute(new RetryCallback<String, Exception>() {
+
+			@Override
+			public String doWithRetry(RetryContext context) throws Exception {
+				int call = calls.incrementAndGet();
+				if (call == 1) {
+					// fail once the hedge is running
+					hedged.await(10, TimeUnit.SECONDS);
+					throw new IllegalStateException("Planned");
+				}
+				if (call == 2) {
+					hedged.countDown();
+					Thread.sleep(10000);
+					return "slow";
+				}
+				return "fast";
+			}
+
+		});
+		assertEquals("fast", result);
+		assertEquals(3, calls.get());
+		// one hedge delay, not two
+		assertTrue(System.currentTimeMillis() - start < 1900);
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.support;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LongHistogramTests {
+
+	@Test
+	public void testExactSmallValues() {
+		LongHistogram histogram = new LongHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0.001);
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(50, histogram.getPercentile(0.5));
+		assertEquals(90, histogram.getPercentile(0.9));
+		assertEquals(100, histogram.getPercentile(1));
+	}
+
+	@Test
+	public void testRelativeErrorOfLargeValues() {
+		LongHistogram histogram = new LongHistogram(7);
+		Random random = new Random(0);
+		long[] values = new long[10000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) (random.nextDouble() * 1000000000L);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		for (double p = 0.1; p < 1; p += 0.1) {
+			long expected = values[(int) Math.ceil(p * values.length) - 1];
+			long actual = histogram.getPercentile(p);
+			assertTrue(expected + " != " + actual,
+					Math.abs(actual - expected) <= expected / 128);
+		}
+	}
+
+	@Test
+	public void testMerge() {
+		LongHistogram first = new LongHistogram();
+		LongHistogram second = new LongHistogram();
+		first.record(10);
+		second.record(20);
+		second.record(Long.MAX_VALUE / 2);
+		first.merge(second);
+		assertEquals(3, first.getCount());
+		assertEquals(10, first.getMin());
+		assertEquals(Long.MAX_VALUE / 2, first.getMax());
+		assertEquals(20, first.getPercentile(0.5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeDifferentPrecision() {
+		new LongHistogram(4).merge(new LongHistogram(5));
+	}
+
+}
@@ -94,4 +94,50 @@ public class RetrySimulationTests {
 		assertTrue(simulation.getPercentiles().size() > 4);
 	}
 
+	@Test
+	public void testParallelSimulatorExercisesExponentialBackoff() {
+		SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
+		retryPolicy.setMaxAttempts(5);
+
+		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+		backOffPolicy.setMultiplier(2);
+		backOffPolicy.setMaxInterval(30000);
+		backOffPolicy.setInitialInterval(100);
+
+		ParallelRetrySimulator simulator = new ParallelRetrySimulator(backOffPolicy,
+				retryPolicy);
+		simulator.setParallelism(4);
+		RetrySimulationSummary summary = simulator.executeSimulation(100001);
+
+		assertEquals(100001, summary.getSequenceCount());
+		assertEquals(100001, summary.getExhaustedCount());
+		assertEquals(4 * 100001, summary.getSleeps().getCount());
+		assertEquals(1500, summary.getTotalSleeps().getMax());
+		assertEquals(5, summary.getAttempts().getPercentile(0.5));
+		assertEquals(asList(100l, 100l, 200l, 200l, 200l, 400l, 400l, 800l, 800l),
+				summary.getPercentiles());
+	}
+
+	@Test
+	public void testParallelSimulatorWithFailureProbability() {
+		SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
+		retryPolicy.setMaxAttempts(3);
+
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(400);
+
+		ParallelRetrySimulator simulator = new ParallelRetrySimulator(backOffPolicy,
+				retryPolicy);
+		simulator.setFailureProbability(0.5);
+		simulator.setSeed(42);
+		RetrySimulationSummary summary = simulator.executeSimulation(100000);
+		System.out.println(summary);
+
+		// a sequence is exhausted if all three attempts fail
+		assertEquals(0.125, (double) summary.getExhaustedCount() / 100000, 0.01);
+		assertEquals(1.75, summary.getAttempts().getMean(), 0.02);
+		assertEquals(800, summary.getTotalSleeps().getMax());
+		assertEquals(0, summary.getTotalSleeps().getMin());
+	}
+
 }
@@ -21,15 +21,22 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import org.springframework.classify.BinaryExceptionClassifier;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.RetryListener;
 import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.DeadlineSleeper;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.DecorrelatedJitterBackOffPolicy;
+import org.springframework.retry.backoff.EqualJitterBackOffPolicy;
 import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.FullJitterBackOffPolicy;
 import org.springframework.retry.backoff.NoBackOffPolicy;
 import org.springframework.retry.backoff.UniformRandomBackOffPolicy;
 import org.springframework.retry.policy.AlwaysRetryPolicy;
@@ -206,6 +213,45 @@ public class RetryTemplateBuilderTest {
 				"backOffPolicy") instanceof ExponentialRandomBackOffPolicy);
 	}
 
+	@Test
+	public void testJitterBackOffs() {
+		Assert.assertTrue(getPropertyValue(
+				RetryTemplate.builder().fullJitterBackoff(10, 2, 500).build(),
+				"backOffPolicy") instanceof FullJitterBackOffPolicy);
+		Assert.assertTrue(getPropertyValue(
+				RetryTemplate.builder().equalJitterBackoff(10, 2, 500).build(),
+				"backOffPolicy") instanceof EqualJitterBackOffPolicy);
+		Assert.assertTrue(getPropertyValue(
+				RetryTemplate.builder().decorrelatedJitterBackoff(10, 3, 500).build(),
+				"backOffPolicy") instanceof DecorrelatedJitterBackOffPolicy);
+	}
+
+	@Test
+	public void testBackOffStopsAtDeadline() {
+		RetryTemplate template = RetryTemplate.builder().withinMillis(500)
+				.fixedBackoff(5000).build();
+		Assert.assertTrue(getPropertyValue(template,
+				"backOffPolicy.sleeper") instanceof DeadlineSleeper);
+		final AtomicInteger attempts = new AtomicInteger();
+		try {
+			template.execute(new RetryCallback<Object, RuntimeException>() {
+
+				@Override
+				public Object doWithRetry(RetryContext context) {
+					attempts.incrementAndGet();
+					Assert.assertTrue(RetryDeadlines.getRemaining(context) <= 500);
+					throw new IllegalStateException("Planned");
+				}
+
+			});
+			Assert.fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals("Planned", e.getMessage());
+		}
+		Assert.assertEquals(1, attempts.get());
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testValidateInitAndMax() {
 		RetryTemplate.builder().exponentialBackoff(100, 2, 100).build();
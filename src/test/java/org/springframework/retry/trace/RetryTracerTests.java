@@ -0,0 +1,180 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.retry.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryTracerTests {
+
+	private final ListRetryTracer tracer = new ListRetryTracer();
+
+	private final RetryTemplate template = new RetryTemplate();
+
+	public RetryTracerTests() {
+		this.template.setTracer(this.tracer);
+		this.template.setRetryPolicy(new SimpleRetryPolicy(3));
+	}
+
+	@Test
+	public void testAttempts() throws Exception {
+		FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+		backOffPolicy.setBackOffPeriod(10);
+		this.template.setBackOffPolicy(backOffPolicy);
+		String result = this.template.execute(new FailingCallback(2));
+		assertEquals("foo", result);
+		assertEquals(3, this.tracer.spans.size());
+		RetryAttemptSpan first = this.tracer.spans.get(0);
+		assertEquals("test", first.getLabel());
+		assertEquals(1, first.getAttempt());
+		assertEquals(0, first.getBackOff());
+		assertEquals(IllegalStateException.class, first.getExceptionClass());
+		assertEquals(AttemptOutcome.RETRY, first.getOutcome());
+		RetryAttemptSpan last = this.tracer.spans.get(2);
+		assertEquals(3, last.getAttempt());
+		assertTrue(last.getBackOff() >= TimeUnit.MILLISECONDS.toNanos(10));
+		assertNull(last.getExceptionClass());
+		assertEquals(AttemptOutcome.SUCCESS, last.getOutcome());
+	}
+
+	@Test
+	public void testExhausted() throws Exception {
+		try {
+			this.template.execute(new FailingCallback(5));
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals(3, this.tracer.spans.size());
+		assertEquals(AttemptOutcome.RETRY, this.tracer.spans.get(1).getOutcome());
+		assertEquals(AttemptOutcome.EXHAUSTED, this.tracer.spans.get(2).getOutcome());
+	}
+
+	@Test
+	public void testSampling() throws Exception {
+		this.template.setTracer(new SamplingRetryTracer(this.tracer, 3));
+		for (int i = 0; i < 6; i++) {
+			this.template.execute(new FailingCallback(1));
+		}
+		// two calls of two attempts each
+		assertEquals(4, this.tracer.spans.size());
+		assertEquals(1, this.tracer.spans.get(2).getAttempt());
+		assertEquals(2, this.tracer.spans.get(3).getAttempt());
+	}
+
+	@Test
+	public void testNotSampled() throws Exception {
+		this.template.setTracer(null);
+		assertEquals("foo", this.template.execute(new FailingCallback(1)));
+		assertEquals(0, this.tracer.spans.size());
+	}
+
+	@Test
+	public void testFailingTracerDoesNotRetry() throws Exception {
+		this.template.setTracer(new RetryTracer() {
+
+			@Override
+			public boolean isSampled(RetryContext context) {
+				return true;
+			}
+
+			@Override
+			public void attempt(RetryContext context, RetryAttemptSpan span) {
+				throw new IllegalStateException("tracer");
+			}
+
+		});
+		FailingCallback callback = new FailingCallback(0);
+		assertEquals("foo", this.template.execute(callback));
+		assertEquals(1, callback.attempts);
+	}
+
+	@Test
+	public void testFailingSamplerDoesNotTrace() throws Exception {
+		final List<RetryAttemptSpan> spans = new ArrayList<RetryAttemptSpan>();
+		this.template.setTracer(new RetryTracer() {
+
+			@Override
+			public boolean isSampled(RetryContext context) {
+				throw new IllegalStateException("sampler");
+			}
+
+			@Override
+			public void attempt(RetryContext context, RetryAttemptSpan span) {
+				spans.add(span);
+			}
+
+		});
+		FailingCallback callback = new FailingCallback(1);
+		assertEquals("foo", this.template.execute(callback));
+		assertEquals(2, callback.attempts);
+		assertEquals(0, spans.size());
+	}
+
+	private static class FailingCallback implements RetryCallback<String, Exception> {
+
+		private final int failures;
+
+		private int attempts;
+
+		private FailingCallback(int failures) {
+			this.failures = failures;
+		}
+
+		@Override
+		public String doWithRetry(RetryContext context) throws Exception {
+			context.setAttribute(RetryContext.NAME, "test");
+			if (this.attempts++ < this.failures) {
+				throw new IllegalStateException("planned");
+			}
+			return "foo";
+		}
+
+	}
+
+	private static class ListRetryTracer implements RetryTracer {
+
+		private final List<RetryAttemptSpan> spans = new ArrayList<RetryAttemptSpan>();
+
+		@Override
+		public boolean isSampled(RetryContext context) {
+			return true;
+		}
+
+		@Override
+		public void attempt(RetryContext context, RetryAttemptSpan span) {
+			this.spans.add(span);
+		}
+
+	}
+
+}